@@ -2,86 +2,112 @@ package uk.ac.ebi.pdbe.cache;
 
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
-import lombok.AllArgsConstructor;
 import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.compress.archivers.ArchiveStreamFactory;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
-import org.apache.commons.compress.utils.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.ResourceUtils;
-import uk.ac.ebi.pdbe.model.ObservedRegion;
 import uk.ac.ebi.pdbe.model.PDBeStructure;
 import uk.ac.ebi.pdbe.model.PDBeStructureResidue;
 
-import javax.annotation.PostConstruct;
 import java.io.*;
 import java.lang.reflect.Type;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
 
+/**
+ * PDBe structures by UniProt accession, loaded from the bundled pdbe.tar.bz2 into an off-heap
+ * columnar store (see PDBeStore).
+ * Not loaded on creation: initialize is called once the application has started (on a
+ * background thread in background startup mode).
+ * Given a snapshot directory, the store is saved there, named after the checksum of pdbe.tar.bz2,
+ * and memory-mapped on later starts instead of decompressing and parsing the archive again.
+ */
 @Repository
-@AllArgsConstructor
 public class PDBeCache {
 
     private static final Logger logger = LoggerFactory.getLogger(PDBeCache.class);
+    private static final String SOURCE = "classpath:pdbe.tar.bz2";
     private String downloadDir;
 
-    private final Map<String, PDBeStructure[]> cache = new ConcurrentHashMap<>();
+    private volatile PDBeStore store = PDBeStore.EMPTY;
 
-    @PostConstruct
-    public void initialize() {
+    public PDBeCache(String downloadDir) {
+        this.downloadDir = downloadDir;
+    }
 
+    public void initialize() {
         try {
-            decompressBz2();
-        }
-        catch (Exception ex) {
-            logger.warn("Couldn't load PDBe data.");
+            initialize(null);
+        } catch (IllegalStateException ex) {
+            logger.warn("Couldn't load PDBe data.", ex);
         }
     }
 
-    public List<PDBeStructureResidue> get(String accession, int position) {
-        if (cache.containsKey(accession)) {
-            List<PDBeStructureResidue> residues = new ArrayList<>();
-            PDBeStructure[] structures = cache.get(accession);
-            for (PDBeStructure structure : structures) {
-                boolean withinRegion = false;
-                if (structure.getObserved_regions() != null && structure.getObserved_regions().length > 0) {
-                    for (ObservedRegion region : structure.getObserved_regions()) {
-                        if (position >= region.getUnp_start() && position <= region.getUnp_end()) {
-                            withinRegion = true;
-                            break;
-                        }
-                    }
+    /**
+     * @param snapshotDir directory of snapshots, or null to always load from the archive
+     * @throws IllegalStateException if the data couldn't be loaded, from snapshot or archive
+     */
+    public void initialize(Path snapshotDir) {
+        try {
+            File bz2Cache = ResourceUtils.getFile(SOURCE);
+            Path snapshot = snapshotDir == null ? null : snapshotDir.resolve("pdbe-" + checksum(bz2Cache) + ".store");
+            if (snapshot != null && Files.exists(snapshot)) {
+                try {
+                    readSnapshot(snapshot);
+                    return;
+                } catch (IOException ex) {
+                    logger.warn("PDBe snapshot {} not usable: {}", snapshot, ex.getMessage());
                 }
-                if (withinRegion) {
-                    residues.add(newStructureResidue(structure, position));
+            }
+            PDBeStore built = decompressBz2(bz2Cache);
+            store = built;
+            logger.info("PDBe data loaded: {} accessions, {} structures, {}MB off-heap", built.size(), built.structures(),
+                    built.bytes() >> 20);
+            if (snapshot != null) {
+                try {
+                    Files.createDirectories(snapshot.getParent());
+                    built.write(snapshot);
+                    // served from the mapped file, the direct buffer is left to the GC
+                    store = PDBeStore.read(snapshot);
+                } catch (IOException ex) {
+                    logger.warn("PDBe snapshot {} not written: {}", snapshot, ex.getMessage());
                 }
             }
-            return residues;
         }
-        return Collections.emptyList();
+        catch (IOException | ArchiveException | RuntimeException ex) {
+            throw new IllegalStateException("Couldn't load PDBe data", ex);
+        }
+    }
+
+    void readSnapshot(Path snapshot) throws IOException {
+        PDBeStore mapped = PDBeStore.read(snapshot);
+        store = mapped;
+        logger.info("PDBe data mapped from {}: {} accessions, {} structures", snapshot, mapped.size(), mapped.structures());
     }
 
-    private PDBeStructureResidue newStructureResidue(PDBeStructure structure, int position) {
-        PDBeStructureResidue residue = new PDBeStructureResidue();
-        residue.setChain_id(structure.getChain_id());
-        residue.setExperimental_method(structure.getExperimental_method());
-        residue.setPdb_id(structure.getPdb_id());
-        residue.setResolution(structure.getResolution());
-        int offset = structure.getStart() - structure.getUnp_start();
-        residue.setStart(position + offset);
-        return residue;
+    public List<PDBeStructureResidue> get(String accession, int position) {
+        return store.get(accession, position);
+    }
+
+    /**
+     * Structures of many positions of one accession, in a single pass over its observed regions.
+     * @return residues by position, for the positions in at least one structure
+     */
+    public Map<Integer, List<PDBeStructureResidue>> get(String accession, int[] positions) {
+        return store.get(accession, positions);
     }
 
-    private void decompressBz2() throws IOException, ArchiveException {
+    private PDBeStore decompressBz2(File bz2Cache) throws IOException, ArchiveException {
         GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(Double.class, (JsonSerializer<Double>) (src, typeOfSrc, context) -> {
             DecimalFormat df = new DecimalFormat("#.#");
@@ -89,37 +115,35 @@ public class PDBeCache {
             return new JsonPrimitive(Double.parseDouble(df.format(src)));
         });
         Gson gson = builder.create();
+        Type mapType = new TypeToken<Map<String, PDBeStructure[]>>() {
+        }.getType();
 
-        File bz2Cache = ResourceUtils.getFile("classpath:pdbe.tar.bz2");
-        Path tarCache = Files.createTempFile(null, null); //Paths.get("pdbe.tar");
-        try (InputStream fin = new FileInputStream(bz2Cache);
-        BufferedInputStream in = new BufferedInputStream(fin);
-        OutputStream out = Files.newOutputStream(tarCache);
-        BZip2CompressorInputStream bzIn = new BZip2CompressorInputStream(in)) {
-            int buffersize = 2048;
-            final byte[] buffer = new byte[buffersize];
-            int n = 0;
-            while (-1 != (n = bzIn.read(buffer))) {
-                out.write(buffer, 0, n);
-            }
-        }
-
-        try (final InputStream is = new FileInputStream(tarCache.toFile());
-             final TarArchiveInputStream debInputStream = (TarArchiveInputStream) new ArchiveStreamFactory().createArchiveInputStream("tar", is)) {
+        PDBeStore.Builder store = new PDBeStore.Builder();
+        // entries are parsed straight from the decompressed stream, no temporary files
+        try (InputStream in = new BufferedInputStream(new FileInputStream(bz2Cache), 1 << 16);
+             BZip2CompressorInputStream bzIn = new BZip2CompressorInputStream(in);
+             final TarArchiveInputStream debInputStream = (TarArchiveInputStream) new ArchiveStreamFactory().createArchiveInputStream("tar", bzIn)) {
             TarArchiveEntry entry = null;
             while ((entry = (TarArchiveEntry) debInputStream.getNextEntry()) != null) {
                 if (entry.isFile()) {
-                    Path temp = Files.createTempFile(null, null);
-                    final OutputStream outputFileStream = new FileOutputStream(temp.toFile());
-                    IOUtils.copy(debInputStream, outputFileStream);
-                    outputFileStream.close();
-
-                    Type mapType = new TypeToken<Map<String, PDBeStructure[]>>() {
-                    }.getType();
-                    Map<String, PDBeStructure[]> object = gson.fromJson(new FileReader(temp.toFile()), mapType);
-                    cache.putAll(object);
+                    // the tar stream ends at the entry boundary; Gson doesn't close the reader
+                    Map<String, PDBeStructure[]> object = gson.fromJson(new InputStreamReader(debInputStream, StandardCharsets.UTF_8), mapType);
+                    if (object != null)
+                        object.forEach(store::add);
                 }
             }
         }
+        return store.build();
+    }
+
+    private static String checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[1 << 16];
+            int n;
+            while ((n = in.read(buffer)) != -1)
+                crc.update(buffer, 0, n);
+        }
+        return Long.toHexString(crc.getValue());
     }
 }
@@ -0,0 +1,394 @@
+package uk.ac.ebi.pdbe.cache;
+
+import uk.ac.ebi.pdbe.model.ObservedRegion;
+import uk.ac.ebi.pdbe.model.PDBeStructure;
+import uk.ac.ebi.pdbe.model.PDBeStructureResidue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * PDBe structures of all accessions, in one off-heap buffer of int columns: a direct buffer when
+ * built from the archive, the memory-mapped store file when read back (see write and read), so
+ * none of it is on the heap, nor seen by the GC.
+ * Strings (accessions, pdb_id, chain_id, experimental_method) are dictionary-encoded: columns hold
+ * their index in a single table of distinct UTF-8 strings. Resolutions are floats.
+ *
+ * Layout, big-endian, in int (4 byte) units except for the string bytes:
+ *   header      magic, version, accessions, structures, regions, strings, string bytes
+ *   accessions  name, first structure, structure count, first region, region count - sorted by name
+ *   structures  pdb_id, chain_id, experimental_method, resolution (float bits), start, unp_start
+ *   regions     unp_start, unp_end, structure, max unp_end - observed regions, see below
+ *   strings     offsets (strings + 1), then the bytes
+ * The observed regions of an accession are sorted by start, as an implicit interval tree: the
+ * middle of each range is its root, augmented with the greatest end in the range, so finding
+ * the structures covering a position takes O(log n + k) for n regions and k hits.
+ */
+class PDBeStore {
+
+    static final int MAGIC = 0x50444253; // PDBS
+    static final int VERSION = 1;
+    private static final int HEADER_INTS = 7;
+    private static final int ACCESSION_INTS = 5;
+    private static final int STRUCTURE_INTS = 6;
+    private static final int REGION_INTS = 4;
+
+    static final PDBeStore EMPTY = new Builder().build();
+
+    private final ByteBuffer buffer;
+    private final int accessions;
+    private final int structures;
+    private final int regions;
+    // column offsets, in bytes
+    private final int accName, accStructure, accStructureCount, accRegion, accRegionCount;
+    private final int pdbId, chainId, method, resolution, start, unpStart;
+    private final int regionStart, regionEnd, regionStructure, regionMaxEnd;
+    private final int stringOffsets, stringBytes;
+
+    private PDBeStore(ByteBuffer buffer) {
+        this.buffer = buffer;
+        accessions = buffer.getInt(8);
+        structures = buffer.getInt(12);
+        regions = buffer.getInt(16);
+        int strings = buffer.getInt(20);
+        int offset = HEADER_INTS * Integer.BYTES;
+        accName = offset;
+        accStructure = accName + accessions * Integer.BYTES;
+        accStructureCount = accStructure + accessions * Integer.BYTES;
+        accRegion = accStructureCount + accessions * Integer.BYTES;
+        accRegionCount = accRegion + accessions * Integer.BYTES;
+        pdbId = accRegionCount + accessions * Integer.BYTES;
+        chainId = pdbId + structures * Integer.BYTES;
+        method = chainId + structures * Integer.BYTES;
+        resolution = method + structures * Integer.BYTES;
+        start = resolution + structures * Integer.BYTES;
+        unpStart = start + structures * Integer.BYTES;
+        regionStart = unpStart + structures * Integer.BYTES;
+        regionEnd = regionStart + regions * Integer.BYTES;
+        regionStructure = regionEnd + regions * Integer.BYTES;
+        regionMaxEnd = regionStructure + regions * Integer.BYTES;
+        stringOffsets = regionMaxEnd + regions * Integer.BYTES;
+        stringBytes = stringOffsets + (strings + 1) * Integer.BYTES;
+    }
+
+    private static long size(long accessions, long structures, long regions, long strings, long stringBytes) {
+        return (HEADER_INTS + ACCESSION_INTS * accessions + STRUCTURE_INTS * structures + REGION_INTS * regions
+                + strings + 1) * Integer.BYTES + stringBytes;
+    }
+
+    /**
+     * Map a store file, see write.
+     * @throws IOException if not readable, or not a store file of this version
+     */
+    static PDBeStore read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_INTS * Integer.BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+                throw new IOException("Not a PDBe store: " + file);
+            int[] counts = new int[5];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buffer.getInt(8 + i * Integer.BYTES);
+                if (counts[i] < 0)
+                    throw new IOException("Corrupt PDBe store: " + file);
+            }
+            if (size(counts[0], counts[1], counts[2], counts[3], counts[4]) != buffer.capacity())
+                throw new IOException("Corrupt PDBe store: " + file);
+            return new PDBeStore(buffer);
+        }
+    }
+
+    /**
+     * Write the store to a file, through a temporary file moved into place.
+     */
+    void write(Path file) throws IOException {
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ByteBuffer all = buffer.duplicate();
+            all.clear();
+            while (all.hasRemaining())
+                channel.write(all);
+        } catch (IOException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    int size() {
+        return accessions;
+    }
+
+    int structures() {
+        return structures;
+    }
+
+    long bytes() {
+        return buffer.capacity();
+    }
+
+    private int column(int column, int i) {
+        return buffer.getInt(column + i * Integer.BYTES);
+    }
+
+    /**
+     * @return index of the accession, or -1 if it has no structures
+     */
+    private int find(String accession) {
+        if (accession == null)
+            return -1;
+        byte[] key = accession.getBytes(StandardCharsets.UTF_8);
+        int lo = 0;
+        int hi = accessions - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compare(column(accName, mid), key);
+            if (cmp < 0)
+                lo = mid + 1;
+            else if (cmp > 0)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    private int compare(int string, byte[] key) {
+        int from = stringBytes + column(stringOffsets, string);
+        int length = column(stringOffsets, string + 1) - column(stringOffsets, string);
+        for (int i = 0; i < Math.min(length, key.length); i++) {
+            int cmp = Integer.compare(buffer.get(from + i) & 0xff, key[i] & 0xff);
+            if (cmp != 0)
+                return cmp;
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private String string(int string) {
+        if (string < 0)
+            return null;
+        int from = column(stringOffsets, string);
+        byte[] bytes = new byte[column(stringOffsets, string + 1) - from];
+        buffer.get(stringBytes + from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the structures of the accession covering the position, in structure order
+     */
+    List<PDBeStructureResidue> get(String accession, int position) {
+        int acc = find(accession);
+        if (acc < 0)
+            return Collections.emptyList();
+        int first = column(accStructure, acc);
+        BitSet hits = new BitSet(column(accStructureCount, acc));
+        int from = column(accRegion, acc);
+        covering(position, from, from + column(accRegionCount, acc), first, hits);
+        return residues(first, hits, position);
+    }
+
+    private void covering(int position, int lo, int hi, int first, BitSet hits) {
+        if (lo >= hi)
+            return;
+        int mid = (lo + hi) >>> 1;
+        if (column(regionMaxEnd, mid) < position)
+            return;
+        covering(position, lo, mid, first, hits);
+        if (column(regionStart, mid) <= position) {
+            if (column(regionEnd, mid) >= position)
+                hits.set(column(regionStructure, mid) - first);
+            covering(position, mid + 1, hi, first, hits);
+        }
+    }
+
+    /**
+     * Structures covering each of the positions of one accession, in one sweep: positions in
+     * order, regions entering the active set as their start is reached and leaving it once past
+     * their end.
+     * @return residues by position, for the positions in at least one structure
+     */
+    Map<Integer, List<PDBeStructureResidue>> get(String accession, int[] positions) {
+        int acc = find(accession);
+        if (acc < 0 || positions.length == 0)
+            return Collections.emptyMap();
+        int first = column(accStructure, acc);
+        int next = column(accRegion, acc);
+        int end = next + column(accRegionCount, acc);
+        int[] sorted = positions.clone();
+        Arrays.sort(sorted);
+        // active regions, by end
+        PriorityQueue<Integer> active = new PriorityQueue<>(Comparator.comparingInt(r -> column(regionEnd, r)));
+        BitSet hits = new BitSet(column(accStructureCount, acc));
+        Map<Integer, List<PDBeStructureResidue>> residues = new HashMap<>();
+        for (int i = 0; i < sorted.length; i++) {
+            int position = sorted[i];
+            if (i > 0 && position == sorted[i - 1])
+                continue;
+            while (next < end && column(regionStart, next) <= position)
+                active.add(next++);
+            while (!active.isEmpty() && column(regionEnd, active.peek()) < position)
+                active.poll();
+            if (active.isEmpty())
+                continue;
+            hits.clear();
+            active.forEach(r -> hits.set(column(regionStructure, r) - first));
+            residues.put(position, residues(first, hits, position));
+        }
+        return residues;
+    }
+
+    private List<PDBeStructureResidue> residues(int first, BitSet hits, int position) {
+        List<PDBeStructureResidue> residues = new ArrayList<>(hits.cardinality());
+        for (int s = hits.nextSetBit(0); s >= 0; s = hits.nextSetBit(s + 1))
+            residues.add(residue(first + s, position));
+        return residues;
+    }
+
+    private PDBeStructureResidue residue(int structure, int position) {
+        PDBeStructureResidue residue = new PDBeStructureResidue();
+        residue.setChain_id(string(column(chainId, structure)));
+        residue.setExperimental_method(string(column(method, structure)));
+        residue.setPdb_id(string(column(pdbId, structure)));
+        // shortest decimal of the float, e.g. 2.1 rather than 2.0999999046325684
+        residue.setResolution(Double.parseDouble(Float.toString(Float.intBitsToFloat(column(resolution, structure)))));
+        int offset = column(start, structure) - column(unpStart, structure);
+        residue.setStart(position + offset);
+        return residue;
+    }
+
+    /**
+     * Collects structures by accession (parsed from the archive), to build a store.
+     * An accession added again replaces its previous structures.
+     */
+    static class Builder {
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final List<byte[]> strings = new ArrayList<>();
+        private final Map<String, int[]> accessions = new HashMap<>();
+        private final IntColumn pdbIds = new IntColumn();
+        private final IntColumn chainIds = new IntColumn();
+        private final IntColumn methods = new IntColumn();
+        private final IntColumn resolutions = new IntColumn();
+        private final IntColumn starts = new IntColumn();
+        private final IntColumn unpStarts = new IntColumn();
+        private final IntColumn regionStarts = new IntColumn();
+        private final IntColumn regionEnds = new IntColumn();
+        private final IntColumn regionStructures = new IntColumn();
+
+        void add(String accession, PDBeStructure[] structures) {
+            int firstStructure = pdbIds.size;
+            int firstRegion = regionStarts.size;
+            List<long[]> regions = new ArrayList<>();
+            for (PDBeStructure structure : structures == null ? new PDBeStructure[0] : structures) {
+                int s = pdbIds.size;
+                pdbIds.add(string(structure.getPdb_id()));
+                chainIds.add(string(structure.getChain_id()));
+                methods.add(string(structure.getExperimental_method()));
+                resolutions.add(Float.floatToIntBits((float) structure.getResolution()));
+                starts.add(structure.getStart());
+                unpStarts.add(structure.getUnp_start());
+                if (structure.getObserved_regions() != null) {
+                    for (ObservedRegion region : structure.getObserved_regions())
+                        regions.add(new long[]{region.getUnp_start(), region.getUnp_end(), s});
+                }
+            }
+            // by start, keeping structure order for equal starts (stable sort)
+            regions.sort(Comparator.comparingLong(r -> r[0]));
+            for (long[] region : regions) {
+                regionStarts.add((int) region[0]);
+                regionEnds.add((int) region[1]);
+                regionStructures.add((int) region[2]);
+            }
+            accessions.put(accession, new int[]{firstStructure, pdbIds.size - firstStructure, firstRegion, regions.size()});
+        }
+
+        private int string(String s) {
+            if (s == null)
+                return -1;
+            return stringIds.computeIfAbsent(s, k -> {
+                strings.add(k.getBytes(StandardCharsets.UTF_8));
+                return strings.size() - 1;
+            });
+        }
+
+        /**
+         * @return the store, in a direct (off-heap) buffer
+         */
+        PDBeStore build() {
+            List<String> names = new ArrayList<>(accessions.keySet());
+            int[] nameIds = new int[names.size()];
+            List<byte[]> nameBytes = new ArrayList<>(names.size());
+            for (String name : names)
+                nameBytes.add(name.getBytes(StandardCharsets.UTF_8));
+            Integer[] order = new Integer[names.size()];
+            for (int i = 0; i < order.length; i++)
+                order[i] = i;
+            // same (unsigned byte) order as find
+            Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(nameBytes.get(a), nameBytes.get(b)));
+            for (int i = 0; i < order.length; i++)
+                nameIds[i] = string(names.get(order[i]));
+
+            long stringByteCount = 0;
+            for (byte[] s : strings)
+                stringByteCount += s.length;
+            long size = size(names.size(), pdbIds.size, regionStarts.size, strings.size(), stringByteCount);
+            if (size > Integer.MAX_VALUE)
+                throw new IllegalStateException("PDBe store too large: " + size + " bytes");
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(names.size()).putInt(pdbIds.size).putInt(regionStarts.size)
+                    .putInt(strings.size()).putInt((int) stringByteCount);
+            for (int nameId : nameIds)
+                buffer.putInt(nameId);
+            for (int field = 0; field < 4; field++) {
+                for (Integer i : order)
+                    buffer.putInt(accessions.get(names.get(i))[field]);
+            }
+            for (IntColumn column : List.of(pdbIds, chainIds, methods, resolutions, starts, unpStarts, regionStarts,
+                    regionEnds, regionStructures))
+                column.putTo(buffer);
+            int[] maxEnds = new int[regionStarts.size];
+            for (int[] acc : accessions.values())
+                maxEnd(maxEnds, acc[2], acc[2] + acc[3]);
+            for (int maxEnd : maxEnds)
+                buffer.putInt(maxEnd);
+            int offset = 0;
+            buffer.putInt(offset);
+            for (byte[] s : strings)
+                buffer.putInt(offset += s.length);
+            for (byte[] s : strings)
+                buffer.put(s);
+            buffer.clear();
+            return new PDBeStore(buffer);
+        }
+
+        private int maxEnd(int[] maxEnds, int lo, int hi) {
+            if (lo >= hi)
+                return Integer.MIN_VALUE;
+            int mid = (lo + hi) >>> 1;
+            maxEnds[mid] = Math.max(regionEnds.values[mid], Math.max(maxEnd(maxEnds, lo, mid), maxEnd(maxEnds, mid + 1, hi)));
+            return maxEnds[mid];
+        }
+    }
+
+    private static class IntColumn {
+        private int[] values = new int[1024];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void putTo(ByteBuffer buffer) {
+            for (int i = 0; i < size; i++)
+                buffer.putInt(values[i]);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package uk.ac.ebi.protvar;
 
 //import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 //import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
@@ -29,6 +30,7 @@ import uk.ac.ebi.uniprot.variation.api.VariationAPIImpl;
 
 import javax.sql.DataSource;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 @Configuration
 public class ApplicationConfig {
@@ -45,6 +47,15 @@ public class ApplicationConfig {
     @Value(("${pdbe.best-structures.api.url}"))
     private String pdbeURL;
 
+    @Value("${protvar.cache.rest.max-size-mb:64}")
+    private long restCacheMaxSizeMb;
+
+    @Value("${protvar.cache.rest.ttl-minutes:360}")
+    private long restCacheTtlMinutes;
+
+    @Value("${protvar.cache.rest.revalidate:true}")
+    private boolean restCacheRevalidate;
+
     @Bean
     @Primary
     @ConfigurationProperties("protvar.datasource")
@@ -82,8 +93,8 @@ public class ApplicationConfig {
 
     @Bean
     //@RequestScope
-    public RestTemplate coordinateRestTemplate() {
-        RestTemplate restTemplate = new RestTemplateCache();
+    public RestTemplate coordinateRestTemplate(MeterRegistry meterRegistry) {
+        RestTemplate restTemplate = restTemplateCache("coordinates", meterRegistry);
         restTemplate.getMessageConverters().add(0, new StringHttpMessageConverter(StandardCharsets.UTF_8));
         restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(coordinatesURL));
         return restTemplate;
@@ -91,16 +102,21 @@ public class ApplicationConfig {
 
     @Bean
     //@RequestScope
-    public RestTemplate pdbeRestTemplate() {
-        RestTemplate restTemplate = new RestTemplateCache();
+    public RestTemplate pdbeRestTemplate(MeterRegistry meterRegistry) {
+        RestTemplate restTemplate = restTemplateCache("pdbe", meterRegistry);
         restTemplate.getMessageConverters().add(0, new StringHttpMessageConverter(StandardCharsets.UTF_8));
         restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(pdbeURL));
         return restTemplate;
     }
 
+    private RestTemplateCache restTemplateCache(String name, MeterRegistry meterRegistry) {
+        return new RestTemplateCache(name, meterRegistry, restCacheMaxSizeMb, Duration.ofMinutes(restCacheTtlMinutes),
+                restCacheRevalidate);
+    }
+
     @Bean
-    public PDBeAPI pdbeAPI() {
-        PDBeAPI pdbeAPI = new PDBeAPIImpl(pdbeRestTemplate());
+    public PDBeAPI pdbeAPI(@Qualifier("pdbeRestTemplate") RestTemplate pdbeRestTemplate) {
+        PDBeAPI pdbeAPI = new PDBeAPIImpl(pdbeRestTemplate);
         return pdbeAPI;
     }
 
@@ -113,8 +129,8 @@ public class ApplicationConfig {
         return new ProteinsAPIImpl(proteinRestTemplate());
     }
     @Bean
-    public CoordinatesAPI coordinatesAPI() {
-        return new CoordinatesAPIImpl(coordinateRestTemplate());
+    public CoordinatesAPI coordinatesAPI(@Qualifier("coordinateRestTemplate") RestTemplate coordinateRestTemplate) {
+        return new CoordinatesAPIImpl(coordinateRestTemplate);
     }
 
     @Bean
@@ -9,18 +9,21 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 import uk.ac.ebi.pdbe.cache.PDBeCache;
+import uk.ac.ebi.protvar.cache.CacheStartup;
 
 import java.util.concurrent.Executor;
 
 @SpringBootApplication
 @CrossOrigin
 @EnableAsync
+@EnableScheduling
 @OpenAPIDefinition(info =
 	@Info(
 		title = "ProtVar API",
@@ -46,9 +49,9 @@ public class ApplicationMainClass {
 
 	// TODO: use redis?
 	@Bean
-	public PDBeCache pdbeCache() {
+	public PDBeCache pdbeCache(CacheStartup cacheStartup) {
 		PDBeCache pdbeCache = new PDBeCache(downloadDir());
-		//pdBeCache.initialize();
+		cacheStartup.register("pdbe", () -> pdbeCache.initialize(cacheStartup.snapshotDir()));
 		return pdbeCache;
 	}
 
@@ -0,0 +1,96 @@
+package uk.ac.ebi.protvar;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import uk.ac.ebi.protvar.fetcher.StageExecutor;
+import uk.ac.ebi.protvar.fetcher.csv.DownloadExecutor;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+
+/**
+ * Dedicated executors, sized per node through the protvar.*.threads properties.
+ */
+@Configuration
+public class ExecutorConfig {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    @Value("${protvar.download.threads:16}")
+    private int downloadThreads;
+
+    @Value("${protvar.download.max-in-flight:64}")
+    private int downloadMaxInFlight;
+
+    @Value("${protvar.download.max-in-flight-per-job:8}")
+    private int downloadMaxInFlightPerJob;
+
+    @Value("${protvar.score.threads:4}")
+    private int scoreThreads;
+
+    @Value("${protvar.mapping.threads:8}")
+    private int mappingThreads;
+
+    @Value("${protvar.mapping.lookup-timeout-ms:120000}")
+    private long mappingLookupTimeoutMs;
+
+    @Value("${protvar.mapping.annotation-timeout-ms:120000}")
+    private long mappingAnnotationTimeoutMs;
+
+    // Hikari's default
+    @Value("${protvar.datasource.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    @PostConstruct
+    public void checkPoolSizes() {
+        if (mappingThreads + scoreThreads >= connectionPoolSize)
+            LOGGER.warn("protvar.mapping.threads ({}) + protvar.score.threads ({}) not under the connection pool size ({}): "
+                    + "lookups will wait for connections", mappingThreads, scoreThreads, connectionPoolSize);
+    }
+
+    /**
+     * Mapping of download partitions is mostly spent waiting on the DB, so the pool is sized
+     * on DB capacity rather than on the number of cores.
+     */
+    @Bean
+    public DownloadExecutor downloadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(downloadThreads);
+        executor.setMaxPoolSize(downloadThreads);
+        executor.setThreadNamePrefix("Download-");
+        executor.initialize();
+        return new DownloadExecutor(executor, downloadMaxInFlight, downloadMaxInFlightPerJob);
+    }
+
+    /**
+     * Per-source score queries (see ScoreFetcher). Each running query holds a DB connection, so
+     * the pool should stay well under the connection pool size.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor scoreExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(scoreThreads);
+        executor.setMaxPoolSize(scoreThreads);
+        executor.setThreadNamePrefix("Score-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Concurrent lookups of the mapping pipeline (see MappingFetcher). Like the score executor,
+     * its lookups hold DB connections while running.
+     */
+    @Bean
+    public StageExecutor mappingStageExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(mappingThreads);
+        executor.setMaxPoolSize(mappingThreads);
+        executor.setThreadNamePrefix("Mapping-");
+        executor.initialize();
+        return new StageExecutor(executor, Duration.ofMillis(mappingLookupTimeoutMs),
+                Duration.ofMillis(mappingAnnotationTimeoutMs));
+    }
+}
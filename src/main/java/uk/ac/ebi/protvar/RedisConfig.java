@@ -1,5 +1,6 @@
 package uk.ac.ebi.protvar;
 
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,7 +9,10 @@ import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import uk.ac.ebi.protvar.cache.CompactRedisSerializer;
+import uk.ac.ebi.protvar.cache.ParsedInputChunk;
 import uk.ac.ebi.protvar.model.response.Variation;
 import uk.ac.ebi.uniprot.proteins.model.DataServiceProtein;
 
@@ -21,6 +25,11 @@ public class RedisConfig {
     private String redisHost;
     @Value(("${spring.data.redis.port}"))
     private int redisPort;
+    // value format per cache, one of json, smile, smile-deflate (see CompactRedisSerializer)
+    @Value(("${protvar.redis.format.protein:json}"))
+    private String proteinFormat;
+    @Value(("${protvar.redis.format.variation:json}"))
+    private String variationFormat;
 
     @Bean
     JedisConnectionFactory jedisConnectionFactory() {
@@ -49,7 +58,8 @@ public class RedisConfig {
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
         template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(new CompactRedisSerializer<>(DataServiceProtein.class,
+                CompactRedisSerializer.Format.of(proteinFormat)));
         template.setEnableTransactionSupport(true);
         template.afterPropertiesSet();
         return template;
@@ -62,9 +72,51 @@ public class RedisConfig {
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
         template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(new CompactRedisSerializer<List<Variation>>(
+                TypeFactory.defaultInstance().constructCollectionType(List.class, Variation.class),
+                CompactRedisSerializer.Format.of(variationFormat)));
         template.setEnableTransactionSupport(true);
         template.afterPropertiesSet();
         return template;
     }
+
+    /**
+     * Raw byte values, for the compressed input chunks (see InputCache).
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> inputChunkCache() {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(jedisConnectionFactory());
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    /**
+     * Parsed input chunks, see InputCache.
+     */
+    @Bean
+    public RedisTemplate<String, ParsedInputChunk> parsedInputCache() {
+        RedisTemplate<String, ParsedInputChunk> template = new RedisTemplate<>();
+        template.setConnectionFactory(jedisConnectionFactory());
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new CompactRedisSerializer<>(ParsedInputChunk.class,
+                CompactRedisSerializer.Format.SMILE_DEFLATE));
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    /**
+     * Computed result pages, see PageResultCache.
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> pageResultCache() {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(jedisConnectionFactory());
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        return template;
+    }
 }
@@ -1,5 +1,6 @@
 package uk.ac.ebi.protvar.builder;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -7,9 +8,12 @@ import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import uk.ac.ebi.pdbe.model.PDBeStructureResidue;
-import uk.ac.ebi.protvar.fetcher.PDBeFetcher;
 import uk.ac.ebi.protvar.fetcher.ProteinsFetcher;
 import uk.ac.ebi.protvar.input.params.InputParams;
+import uk.ac.ebi.protvar.model.Coord;
+import uk.ac.ebi.protvar.model.data.Foldx;
+import uk.ac.ebi.protvar.model.data.Interaction;
+import uk.ac.ebi.protvar.model.data.Pocket;
 import uk.ac.ebi.protvar.utils.Constants;
 import uk.ac.ebi.protvar.model.response.IsoFormMapping;
 import uk.ac.ebi.protvar.model.response.PopulationObservation;
@@ -27,21 +31,23 @@ public class AnnotationsBuilder {
 
 	//private VariationFetcher variationFetcher;
 	private ProteinsFetcher proteinsFetcher;
-	private PDBeFetcher pdbeFetcher;
 
-	public void build(String accession, long genomicLocation, String variantAA, int isoformPostion, Map<String, List<Variation>> variationMap,
-			InputParams params, IsoFormMapping.IsoFormMappingBuilder builder) {
+	public void build(String accession, long genomicLocation, String variantAA, int isoformPostion, Map<Coord.Prot, List<Variation>> variationMap,
+			Map<Coord.Prot, List<Pocket>> pocketMap, Map<Coord.Prot, List<Interaction>> interactionMap, Map<Coord.Prot, List<Foldx>> foldxMap,
+			Map<Coord.Prot, List<PDBeStructureResidue>> structureMap, InputParams params, IsoFormMapping.IsoFormMappingBuilder builder) {
 		buildPopulationObservation(accession, isoformPostion, variationMap, params.isPop(), genomicLocation, builder);
 
-		buildFunction(accession, isoformPostion, variantAA, params.isFun(), builder);
+		buildFunction(accession, isoformPostion, variantAA, pocketMap, interactionMap, foldxMap, params.isFun(), builder);
 
-		buildStructure(accession, isoformPostion, params.isStr(), builder);
+		buildStructure(accession, isoformPostion, structureMap, params.isStr(), builder);
 	}
 
-	private void buildStructure(String accession, int isoformPostion, boolean isStructure,
-			IsoFormMapping.IsoFormMappingBuilder builder) {
+	private void buildStructure(String accession, int isoformPostion, Map<Coord.Prot, List<PDBeStructureResidue>> structureMap,
+			boolean isStructure, IsoFormMapping.IsoFormMappingBuilder builder) {
 		if (isStructure) {
-			List<PDBeStructureResidue> proteinStructure = pdbeFetcher.fetch(accession, isoformPostion);
+			// prefetched for all the positions (see PDBeFetcher.fetch(CoordSet))
+			List<PDBeStructureResidue> proteinStructure = structureMap.getOrDefault(new Coord.Prot(accession, isoformPostion),
+					Collections.emptyList());
 			builder.proteinStructure(proteinStructure);
 		} else {
 			String uri = buildUri(STRUCTURE_API, accession, isoformPostion);
@@ -49,10 +55,11 @@ public class AnnotationsBuilder {
 		}
 	}
 
-	private void buildFunction(String accession, int isoformPostion, String variantAA, boolean isFunction,
+	private void buildFunction(String accession, int isoformPostion, String variantAA, Map<Coord.Prot, List<Pocket>> pocketMap,
+			Map<Coord.Prot, List<Interaction>> interactionMap, Map<Coord.Prot, List<Foldx>> foldxMap, boolean isFunction,
 			IsoFormMapping.IsoFormMappingBuilder builder) {
 		if (isFunction) {
-			Protein protein = proteinsFetcher.fetch(accession, isoformPostion, variantAA);
+			Protein protein = proteinsFetcher.fetch(accession, isoformPostion, variantAA, pocketMap, interactionMap, foldxMap);
 			builder.referenceFunction(protein);
 		} else {
 			String uri = buildUri(FUNCTION_API, accession, isoformPostion);
@@ -63,11 +70,11 @@ public class AnnotationsBuilder {
 		}
 	}
 
-	private void buildPopulationObservation(String accession, int isoformPostion, Map<String, List<Variation>> variationMap, boolean isVariation, long genomicLocation,
+	private void buildPopulationObservation(String accession, int isoformPostion, Map<Coord.Prot, List<Variation>> variationMap, boolean isVariation, long genomicLocation,
 			IsoFormMapping.IsoFormMappingBuilder builder) {
 		if (isVariation) {
 			//List<Variation> variations = variationFetcher.fetch(accession, isoformPostion);
-			List<Variation> variations = variationMap.get(accession+":"+isoformPostion);
+			List<Variation> variations = variationMap.get(new Coord.Prot(accession, isoformPostion));
 			PopulationObservation populationObservation = new PopulationObservation();
 			populationObservation.setProteinColocatedVariant(variations);
 			builder.populationObservations(populationObservation);
@@ -0,0 +1,165 @@
+package uk.ac.ebi.protvar.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable set of accessions for fast membership checks. Accessions of up to 10 upper case
+ * letters and digits - all UniProt accessions - are packed into a long each (base 37, see pack)
+ * and kept in a sorted array, searched by binary search. Anything else (e.g. isoform IDs) goes in
+ * a plain hash set.
+ * About 8 bytes per accession, against ~50 for a String in a list or set.
+ * Can be saved to a snapshot file, whose packed section is read back with a single bulk copy
+ * from the mapped file:
+ *   int  MAGIC, int VERSION
+ *   int  number of packed accessions, followed by the sorted packed values (long each)
+ *   int  number of other accessions, followed by each as a short length and UTF-8 bytes
+ */
+public class AccessionIndex {
+
+    static final int MAX_LENGTH = 10; // 37^10 < 2^63
+    private static final int MAGIC = 0x41434331; // ACC1
+    private static final int VERSION = 1;
+    private static final int BASE = 37;
+
+    public static final AccessionIndex EMPTY = new AccessionIndex(new long[0], Set.of());
+
+    private final long[] packed;
+    private final Set<String> others;
+
+    private AccessionIndex(long[] packed, Set<String> others) {
+        this.packed = packed;
+        this.others = others;
+    }
+
+    public static AccessionIndex of(Collection<String> accessions) {
+        long[] packed = new long[accessions.size()];
+        int n = 0;
+        Set<String> others = new HashSet<>();
+        for (String accession : accessions) {
+            long value = pack(accession);
+            if (value < 0) {
+                if (accession != null)
+                    others.add(accession);
+            } else {
+                packed[n++] = value;
+            }
+        }
+        Arrays.sort(packed, 0, n);
+        // drop duplicates
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (size == 0 || packed[i] != packed[size - 1])
+                packed[size++] = packed[i];
+        }
+        return new AccessionIndex(Arrays.copyOf(packed, size), others);
+    }
+
+    /**
+     * Accession as a base 37 number: padding 0, digits 1-10, letters 11-36, first character most
+     * significant and right-padded to MAX_LENGTH, so distinct accessions have distinct values.
+     * @return the packed value, or -1 if the accession can't be packed
+     */
+    static long pack(String accession) {
+        if (accession == null || accession.isEmpty() || accession.length() > MAX_LENGTH)
+            return -1;
+        long value = 0;
+        for (int i = 0; i < MAX_LENGTH; i++) {
+            int code = 0;
+            if (i < accession.length()) {
+                char c = accession.charAt(i);
+                if (c >= '0' && c <= '9')
+                    code = c - '0' + 1;
+                else if (c >= 'A' && c <= 'Z')
+                    code = c - 'A' + 11;
+                else
+                    return -1;
+            }
+            value = value * BASE + code;
+        }
+        return value;
+    }
+
+    public boolean contains(String accession) {
+        long value = pack(accession);
+        if (value < 0)
+            return accession != null && others.contains(accession);
+        return Arrays.binarySearch(packed, value) >= 0;
+    }
+
+    public int size() {
+        return packed.length + others.size();
+    }
+
+    /**
+     * @return approximate heap footprint in bytes
+     */
+    public long bytes() {
+        long bytes = 16 + 8L * packed.length;
+        for (String other : others)
+            bytes += 32 + 56 + other.length(); // hash set entry, string
+        return bytes;
+    }
+
+    /**
+     * Write the index to the snapshot file, replacing any previous one once complete.
+     */
+    public void write(Path file) throws IOException {
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(packed.length);
+            for (long value : packed)
+                out.writeLong(value);
+            out.writeInt(others.size());
+            for (String other : others) {
+                byte[] bytes = other.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+        } catch (IOException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read an index from a snapshot file.
+     * @throws IOException if the file can't be read or isn't a snapshot of this version
+     */
+    public static AccessionIndex read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                throw new IOException("Not an accession index snapshot: " + file);
+            try {
+                long[] packed = new long[buffer.getInt()];
+                buffer.asLongBuffer().get(packed);
+                buffer.position(buffer.position() + 8 * packed.length);
+                int count = buffer.getInt();
+                Set<String> others = new HashSet<>();
+                for (int i = 0; i < count; i++) {
+                    byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+                    buffer.get(bytes);
+                    others.add(new String(bytes, StandardCharsets.UTF_8));
+                }
+                return new AccessionIndex(packed, others);
+            } catch (RuntimeException ex) { // truncated
+                throw new IOException("Corrupt accession index snapshot: " + file, ex);
+            }
+        }
+    }
+}
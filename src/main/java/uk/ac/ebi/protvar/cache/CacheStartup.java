@@ -0,0 +1,133 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Initial loading of the in-memory caches (UniProt entries, PDBe structures), run once the
+ * application has started.
+ * protvar.cache.startup selects how:
+ *   blocking   - one after another, before the application reports itself started (default)
+ *   background - concurrently, each on its own thread; the application starts straight away and
+ *                stays out of the readiness group (see CachesHealthIndicator) until all are loaded
+ * A cache that fails to load keeps the application out of the readiness group, and is retried
+ * every protvar.cache.retry.seconds (0 to not retry).
+ * protvar.cache.snapshot.dir, if set, is where caches keep snapshots of their loaded data, read
+ * back on later starts instead of rebuilding from source.
+ */
+@Component
+public class CacheStartup {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheStartup.class);
+
+    public enum State { PENDING, LOADING, LOADED, FAILED }
+
+    private final boolean background;
+    private final long retrySeconds;
+    private final Path snapshotDir;
+    private final Map<String, Runnable> loaders = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService retries = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "CacheLoad-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CacheStartup(@Value("${protvar.cache.startup:blocking}") String mode,
+                        @Value("${protvar.cache.snapshot.dir:}") String snapshotDir,
+                        @Value("${protvar.cache.retry.seconds:60}") long retrySeconds) {
+        this.background = "background".equalsIgnoreCase(mode);
+        this.retrySeconds = retrySeconds;
+        this.snapshotDir = snapshotDir == null || snapshotDir.isBlank() ? null : Path.of(snapshotDir);
+    }
+
+    /**
+     * @return the snapshot directory, or null if snapshots are disabled
+     */
+    public Path snapshotDir() {
+        return snapshotDir;
+    }
+
+    /**
+     * Register a cache to load on startup.
+     */
+    public void register(String cache, Runnable loader) {
+        loaders.put(cache, loader);
+        states.put(cache, State.PENDING);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void loadAll() {
+        Map<String, Runnable> toLoad;
+        synchronized (loaders) {
+            toLoad = new LinkedHashMap<>(loaders);
+        }
+        toLoad.forEach((cache, loader) -> {
+            if (background) {
+                Thread thread = new Thread(() -> load(cache, loader), "CacheLoad-" + cache);
+                thread.setDaemon(true);
+                thread.start();
+            } else {
+                load(cache, loader);
+            }
+        });
+    }
+
+    /**
+     * Reload a registered cache, e.g. when the data release changes. The instance stays ready
+     * while reloading (the cache keeps serving its previous data); a failure doesn't propagate,
+     * but marks the cache FAILED, out of service, and retries it as on startup.
+     */
+    public void reload(String cache) {
+        Runnable loader = loaders.get(cache);
+        if (loader == null)
+            throw new IllegalArgumentException("Unknown cache " + cache);
+        run(cache, loader);
+    }
+
+    private void load(String cache, Runnable loader) {
+        states.put(cache, State.LOADING);
+        run(cache, loader);
+    }
+
+    private void run(String cache, Runnable loader) {
+        long start = System.currentTimeMillis();
+        try {
+            loader.run();
+            states.put(cache, State.LOADED);
+            LOGGER.info("Cache {} loaded in {}ms", cache, System.currentTimeMillis() - start);
+        } catch (RuntimeException ex) {
+            // not ready: an empty cache would reject every input
+            states.put(cache, State.FAILED);
+            if (retrySeconds > 0) {
+                LOGGER.error("Cache {} failed to load, retrying in {}s", cache, retrySeconds, ex);
+                retries.schedule(() -> load(cache, loader), retrySeconds, TimeUnit.SECONDS);
+            } else {
+                LOGGER.error("Cache {} failed to load", cache, ex);
+            }
+        }
+    }
+
+    public Map<String, State> states() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(states));
+    }
+
+    /**
+     * @return true once every registered cache has loaded
+     */
+    public boolean ready() {
+        return states.values().stream().allMatch(s -> s == State.LOADED);
+    }
+}
@@ -0,0 +1,26 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * "caches" health, part of the readiness group: out of service until the in-memory caches have
+ * been loaded (see CacheStartup), so no traffic is routed to an instance still loading them.
+ */
+@Component
+public class CachesHealthIndicator implements HealthIndicator {
+
+    private final CacheStartup cacheStartup;
+
+    public CachesHealthIndicator(CacheStartup cacheStartup) {
+        this.cacheStartup = cacheStartup;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = cacheStartup.ready() ? Health.up() : Health.outOfService();
+        cacheStartup.states().forEach((cache, state) -> builder.withDetail(cache, state));
+        return builder.build();
+    }
+}
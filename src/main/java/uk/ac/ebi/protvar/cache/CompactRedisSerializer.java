@@ -0,0 +1,123 @@
+package uk.ac.ebi.protvar.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Redis value serializer for templates holding a single known type (e.g. DataServiceProtein,
+ * List<Variation>).
+ * Values are written in the configured format:
+ * - JSON: as GenericJackson2JsonRedisSerializer (type metadata included), no header
+ * - SMILE: binary JSON, without type metadata as the type is known
+ * - SMILE_DEFLATE: as SMILE, deflate-compressed
+ * Binary values start with a two-byte header (MAGIC, format) so the format can be changed
+ * without flushing Redis: values are always read according to their header, and values
+ * without it are read as legacy JSON. MAGIC (0xC1) never starts valid UTF-8, so can't be
+ * confused with a JSON value.
+ */
+public class CompactRedisSerializer<T> implements RedisSerializer<T> {
+
+    public enum Format {
+        JSON(0), SMILE(1), SMILE_DEFLATE(2);
+
+        private final byte id;
+
+        Format(int id) {
+            this.id = (byte) id;
+        }
+
+        /**
+         * Format from its property value, e.g. smile-deflate.
+         */
+        public static Format of(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    static final byte MAGIC = (byte) 0xC1;
+    private static final int HEADER_LENGTH = 2;
+
+    private final JavaType type;
+    private final Format format;
+    private final ObjectMapper smileMapper;
+    private final GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+
+    public CompactRedisSerializer(JavaType type, Format format) {
+        this.type = type;
+        this.format = format;
+        this.smileMapper = new ObjectMapper(new SmileFactory())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    public CompactRedisSerializer(Class<T> type, Format format) {
+        this(TypeFactory.defaultInstance().constructType(type), format);
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null)
+            return new byte[0];
+        if (format == Format.JSON)
+            return jsonSerializer.serialize(value);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+            bytes.write(MAGIC);
+            bytes.write(format.id);
+            if (format == Format.SMILE_DEFLATE) {
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                try (OutputStream out = new DeflaterOutputStream(bytes, deflater, 8192)) {
+                    smileMapper.writeValue(out, value);
+                } finally {
+                    deflater.end();
+                }
+            } else {
+                smileMapper.writeValue(bytes, value);
+            }
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new SerializationException("Could not write " + format + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0)
+            return null;
+        if (bytes.length < HEADER_LENGTH || bytes[0] != MAGIC)
+            return (T) jsonSerializer.deserialize(bytes);
+        try {
+            if (bytes[1] == Format.SMILE.id)
+                return smileMapper.readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, type);
+            if (bytes[1] == Format.SMILE_DEFLATE.id) {
+                try (InputStream in = new InflaterInputStream(
+                        new ByteArrayInputStream(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH))) {
+                    return smileMapper.readValue(in, type);
+                }
+            }
+        } catch (IOException ex) {
+            throw new SerializationException("Could not read " + type + ": " + ex.getMessage(), ex);
+        }
+        throw new SerializationException("Unknown format " + bytes[1]);
+    }
+}
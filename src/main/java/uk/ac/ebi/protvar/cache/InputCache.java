@@ -1,20 +1,41 @@
 package uk.ac.ebi.protvar.cache;
 
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Streams;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.multipart.MultipartFile;
+import uk.ac.ebi.protvar.input.UserInput;
 import uk.ac.ebi.protvar.input.processor.InputProcessor;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import static uk.ac.ebi.protvar.config.PagedMapping.INPUT_EXPIRES_AFTER_DAYS;
 
@@ -26,11 +47,22 @@ public class InputCache {
     public static final String INPUT_CACHE_PREFIX = "INPUT-";
     public static final String BUILD_CACHE_PREFIX = "BUILD-";
     public static final String SUMMARY_CACHE_PREFIX = "SUMMARY-";
+    public static final String INPUT_INDEX_PREFIX = "INPUT-INDEX-";
+    public static final String INPUT_CHUNKS_PREFIX = "INPUT-CHUNKS-";
+    public static final String INPUT_PARSED_PREFIX = "INPUT-PARSED-";
+
+    private static final Duration INPUT_TTL = Duration.ofDays(INPUT_EXPIRES_AFTER_DAYS);
+
+    public static final Pattern INPUT_SEPARATOR = Pattern.compile("\\R|,");
+    static final int CHUNK_LINES = 1000;
+    private static final int CHUNKS_PER_READ = 8;
 
     private final ExecutorService executorService = Executors.newFixedThreadPool(5);
 
 
     private RedisTemplate redisTemplate;
+    private RedisTemplate<String, byte[]> inputChunkCache;
+    private RedisTemplate<String, ParsedInputChunk> parsedInputCache;
 
     public String keyOf(String id) {
         return INPUT_CACHE_PREFIX + id;
@@ -43,35 +75,202 @@ public class InputCache {
         return SUMMARY_CACHE_PREFIX + id;
     }
 
-    public String getInput(String id) {
-        String key = keyOf(id);
-        if (redisTemplate.hasKey(key))
-            return redisTemplate.opsForValue().get(key).toString();
-        return null;
+    public String indexKeyOf(String id) {
+        return INPUT_INDEX_PREFIX + id;
+    }
+
+    public String chunksKeyOf(String id) {
+        return INPUT_CHUNKS_PREFIX + id;
+    }
+
+    public String parsedKeyOf(String id) {
+        return INPUT_PARSED_PREFIX + id;
+    }
+
+    /**
+     * @return the line index of the cached input, or null if the input is not (or no longer) cached.
+     */
+    public InputIndex getInputIndex(String id) {
+        InputIndex index = (InputIndex) redisTemplate.opsForValue().get(indexKeyOf(id));
+        if (index == null) {
+            String input = getLegacyInput(id);
+            if (input != null)
+                index = new InputIndex(INPUT_SEPARATOR.split(input).length, Integer.MAX_VALUE);
+        }
+        return index;
+    }
+
+    /**
+     * Lines [from, to) of the cached input, fetching only the chunks covering them.
+     * @return the lines (fewer if the input is shorter), or null if the input is not (or no longer) cached.
+     */
+    public List<String> getInputLines(String id, int from, int to) {
+        InputIndex index = (InputIndex) redisTemplate.opsForValue().get(indexKeyOf(id));
+        if (index == null) {
+            String input = getLegacyInput(id);
+            if (input == null)
+                return null;
+            List<String> lines = Arrays.asList(INPUT_SEPARATOR.split(input));
+            return from >= lines.size() ? List.of() : lines.subList(from, Math.min(to, lines.size()));
+        }
+        return getInputLines(id, index, from, to);
+    }
+
+    private List<String> getInputLines(String id, InputIndex index, int from, int to) {
+        to = Math.min(to, index.getLines());
+        if (from >= to)
+            return List.of();
+        int firstChunk = index.chunkOf(from);
+        Stream<String> chunkLines = readChunks(id, firstChunk, index.chunkOf(to - 1));
+        List<String> lines = chunkLines == null ? List.of() : chunkLines.collect(Collectors.toList());
+        int offset = firstChunk * index.getChunkLines();
+        if (lines.size() < to - offset) {
+            // chunks evicted (or being replaced) while the index is still there
+            LOGGER.warn("Input {} chunks missing for lines {}-{}", id, from, to);
+            return null;
+        }
+        return lines.subList(from - offset, to - offset);
+    }
+
+    /**
+     * @return true if all the chunks of the index are there
+     */
+    private boolean chunksCached(String id, InputIndex index) {
+        Long chunks = inputChunkCache.opsForList().size(chunksKeyOf(id));
+        return chunks != null && chunks >= index.chunks();
+    }
+
+    /**
+     * Parsed inputs of lines [from, to), empty and comment lines left out. Restored from the
+     * parsed form saved by the summary job when available, else parsed from the input lines.
+     * @return the parsed inputs, or null if the input is not (or no longer) cached.
+     */
+    public List<UserInput> getUserInputs(String id, int from, int to) {
+        InputIndex index = (InputIndex) redisTemplate.opsForValue().get(indexKeyOf(id));
+        if (index == null) {
+            List<String> lines = getInputLines(id, from, to);
+            return lines == null ? null : InputProcessor.parse(lines);
+        }
+        return getUserInputs(id, index, from, to);
+    }
+
+    /**
+     * Lazily read all the parsed inputs, one chunk (i.e. CHUNK_LINES lines) at a time.
+     * @return the parsed inputs by chunk, or null if the input is not (or no longer) cached.
+     * @throws IllegalStateException while streaming, if a chunk has expired since
+     */
+    public Stream<List<UserInput>> getUserInputs(String id) {
+        InputIndex index = (InputIndex) redisTemplate.opsForValue().get(indexKeyOf(id));
+        if (index == null) {
+            String input = getLegacyInput(id);
+            if (input == null)
+                return null;
+            return Streams.stream(Iterators.partition(INPUT_SEPARATOR.splitAsStream(input).iterator(), CHUNK_LINES))
+                    .map(InputProcessor::parse);
+        }
+        if (!chunksCached(id, index))
+            return null;
+        int chunkLines = index.getChunkLines();
+        return IntStream.range(0, index.chunks())
+                .mapToObj(c -> {
+                    List<UserInput> userInputs = getUserInputs(id, index, c * chunkLines, (c + 1) * chunkLines);
+                    if (userInputs == null)
+                        throw expired(id);
+                    return userInputs;
+                });
+    }
+
+    private List<UserInput> getUserInputs(String id, InputIndex index, int from, int to) {
+        to = Math.min(to, index.getLines());
+        if (from >= to)
+            return List.of();
+        int firstChunk = index.chunkOf(from);
+        int lastChunk = index.chunkOf(to - 1);
+        List<ParsedInputChunk> parsedChunks = parsedInputCache.opsForList().range(parsedKeyOf(id), firstChunk, lastChunk);
+        if (parsedChunks == null || parsedChunks.size() != lastChunk - firstChunk + 1) {
+            // summary job not done (or failed)
+            List<String> lines = getInputLines(id, index, from, to);
+            return lines == null ? null : InputProcessor.parse(lines);
+        }
+        List<UserInput> userInputs = new ArrayList<>();
+        for (int c = firstChunk; c <= lastChunk; c++) {
+            int offset = c * index.getChunkLines();
+            ParsedInputChunk parsed = parsedChunks.get(c - firstChunk);
+            userInputs.addAll(parsed.userInputs(Math.max(from, offset) - offset, Math.min(to - offset, parsed.size())));
+        }
+        return userInputs;
+    }
+
+    /**
+     * Lazily read all the lines of the cached input, a few chunks at a time.
+     * @return the input lines, or null if the input is not (or no longer) cached.
+     * @throws IllegalStateException while streaming, if a chunk has expired since
+     */
+    public Stream<String> getInputLines(String id) {
+        InputIndex index = (InputIndex) redisTemplate.opsForValue().get(indexKeyOf(id));
+        if (index == null) {
+            String input = getLegacyInput(id);
+            return input == null ? null : INPUT_SEPARATOR.splitAsStream(input);
+        }
+        if (!chunksCached(id, index))
+            return null;
+        int chunks = index.chunks();
+        return IntStream.range(0, (chunks + CHUNKS_PER_READ - 1) / CHUNKS_PER_READ)
+                .boxed()
+                .flatMap(i -> {
+                    int first = i * CHUNKS_PER_READ;
+                    int last = Math.min(chunks, (i + 1) * CHUNKS_PER_READ) - 1;
+                    Stream<String> lines = readChunks(id, first, last);
+                    if (lines == null)
+                        throw expired(id);
+                    return lines;
+                });
+    }
+
+    /**
+     * Lines of chunks [first, last], in a single LRANGE.
+     * @return the lines, or null if any of the chunks is missing
+     */
+    private Stream<String> readChunks(String id, int first, int last) {
+        List<byte[]> chunks = inputChunkCache.opsForList().range(chunksKeyOf(id), first, last);
+        if (chunks == null || chunks.size() != last - first + 1)
+            return null;
+        return chunks.stream().flatMap(chunk -> Arrays.stream(inflate(chunk).split("\n", -1)));
+    }
+
+    /**
+     * Chunks gone while reading: the input expired (or was evicted) after the read started. Thrown
+     * rather than skipping the chunks, so a download fails instead of missing rows.
+     */
+    private static IllegalStateException expired(String id) {
+        return new IllegalStateException("Input " + id + " has expired");
+    }
+
+    /**
+     * Inputs cached before chunked storage, as a single string.
+     */
+    private String getLegacyInput(String id) {
+        Object input = redisTemplate.opsForValue().get(keyOf(id));
+        return input == null ? null : input.toString();
     }
 
     public InputBuild getInputBuild(String id) {
-        String buildKey = buildKeyOf(id);
-        if (redisTemplate.hasKey(buildKey))
-            return (InputBuild) redisTemplate.opsForValue().get(buildKey);
-        return null;
+        return (InputBuild) redisTemplate.opsForValue().get(buildKeyOf(id));
     }
 
     public InputSummary getInputSummary(String id) {
-        String summaryKey = summaryKeyOf(id);
-        if (redisTemplate.hasKey(summaryKey))
-            return (InputSummary) redisTemplate.opsForValue().get(summaryKey);
-        return null;
+        return (InputSummary) redisTemplate.opsForValue().get(summaryKeyOf(id));
     }
 
     public void cacheInputBuild(String id, InputBuild inputBuild) {
-        String buildKey = buildKeyOf(id);
-        redisTemplate.opsForValue().set(buildKey, inputBuild);
-        redisTemplate.expireAt(buildKey, Instant.now().plus(INPUT_EXPIRES_AFTER_DAYS, ChronoUnit.DAYS));
+        redisTemplate.opsForValue().set(buildKeyOf(id), inputBuild, INPUT_TTL);
     }
 
     public long expires(String id) {
-        return redisTemplate.getExpire(keyOf(id));
+        Long ttl = redisTemplate.getExpire(indexKeyOf(id));
+        if (ttl == null || ttl < 0)
+            ttl = redisTemplate.getExpire(keyOf(id));
+        return ttl == null ? -2 : ttl;
     }
 
     /**
@@ -104,29 +303,105 @@ public class InputCache {
         return id;
     }
 
+    /**
+     * Store the input as a list of compressed chunks of CHUNK_LINES lines, plus its line index,
+     * so that a page of results only fetches the chunks it needs.
+     * The same id means the same input: if already fully cached, its expiry is only extended.
+     * Otherwise lists are written under a temporary key and renamed into place, so a concurrent
+     * read never sees a partly written list.
+     */
     private void cacheInput(String id, String input) {
-        String key = keyOf(id);
-        //if (!redisTemplate.hasKey(key)) {
-        redisTemplate.opsForValue().set(key, input);
-        redisTemplate.expireAt(key, Instant.now().plus(INPUT_EXPIRES_AFTER_DAYS, ChronoUnit.DAYS));
-        //}
+        InputIndex cached = (InputIndex) redisTemplate.opsForValue().get(indexKeyOf(id));
+        if (cached != null && chunksCached(id, cached)) {
+            extend(id);
+            return;
+        }
+        String[] lines = INPUT_SEPARATOR.split(input);
+        byte[][] chunks = new byte[(lines.length + CHUNK_LINES - 1) / CHUNK_LINES][];
+        for (int i = 0; i < chunks.length; i++) {
+            int from = i * CHUNK_LINES;
+            chunks[i] = deflate(String.join("\n", Arrays.asList(lines).subList(from, Math.min(from + CHUNK_LINES, lines.length))));
+        }
+        replaceList(inputChunkCache, chunksKeyOf(id), chunks);
+        // index written last, an input is only visible once complete
+        redisTemplate.opsForValue().set(indexKeyOf(id), new InputIndex(lines.length, CHUNK_LINES), INPUT_TTL);
 
-        // Launch job to generate summary
+        // Launch job to parse the input once: the parsed form is saved (by chunk, as the
+        // input) for pages and downloads, and summarised
         executorService.submit(() -> {
-            InputSummary inputSummary = InputProcessor.summary(input);
-            String summaryKey = summaryKeyOf(id);
-            redisTemplate.opsForValue().set(summaryKey, inputSummary);
-            redisTemplate.expireAt(summaryKey, Instant.now().plus(INPUT_EXPIRES_AFTER_DAYS, ChronoUnit.DAYS));
+            try {
+                List<UserInput> userInputs = new ArrayList<>();
+                List<ParsedInputChunk> parsedChunks = new ArrayList<>(chunks.length);
+                for (int from = 0; from < lines.length; from += CHUNK_LINES) {
+                    List<String> chunkLines = Arrays.asList(lines).subList(from, Math.min(from + CHUNK_LINES, lines.length));
+                    parsedChunks.add(ParsedInputChunk.parse(chunkLines, userInputs::add));
+                }
+                replaceList(parsedInputCache, parsedKeyOf(id), parsedChunks.toArray(new ParsedInputChunk[0]));
+                InputSummary inputSummary = InputProcessor.summary(userInputs);
+                redisTemplate.opsForValue().set(summaryKeyOf(id), inputSummary, INPUT_TTL);
+            } catch (Exception ex) {
+                LOGGER.error("Input {} summary failed", id, ex);
+            }
+        });
+    }
+
+    /**
+     * Replace the list at key with the values, in one pipeline: pushed to a temporary key, then
+     * renamed (atomically) to the key.
+     */
+    @SafeVarargs
+    private static <T> void replaceList(RedisTemplate<String, T> template, String key, T... values) {
+        String tmpKey = key + "-TMP-" + UUID.randomUUID();
+        template.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, T> ops = (RedisOperations<String, T>) operations;
+                ops.opsForList().rightPushAll(tmpKey, values);
+                ops.expire(tmpKey, INPUT_TTL);
+                ops.rename(tmpKey, key);
+                return null;
+            }
         });
     }
 
     public boolean extend(String id) {
-        String key = keyOf(id);
-        if (redisTemplate.hasKey(key)) {
-            redisTemplate.expireAt(key, Instant.now().plus(INPUT_EXPIRES_AFTER_DAYS, ChronoUnit.DAYS));
+        // EXPIRE is a no-op returning false if the key doesn't exist
+        if (Boolean.TRUE.equals(redisTemplate.expire(indexKeyOf(id), INPUT_TTL))) {
+            inputChunkCache.expire(chunksKeyOf(id), INPUT_TTL);
+            parsedInputCache.expire(parsedKeyOf(id), INPUT_TTL);
             return true;
         }
-        return false;
+        return Boolean.TRUE.equals(redisTemplate.expire(keyOf(id), INPUT_TTL));
+    }
+
+    static byte[] deflate(String s) {
+        return deflate(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static byte[] deflate(byte[] b) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+            out.write(b);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex); // not expected writing to memory
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    static String inflate(byte[] b) {
+        return new String(inflateBytes(b), StandardCharsets.UTF_8);
+    }
+
+    static byte[] inflateBytes(byte[] b) {
+        try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(b))) {
+            return in.readAllBytes();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
     }
 
     /**
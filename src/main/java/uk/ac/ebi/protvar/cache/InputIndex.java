@@ -0,0 +1,26 @@
+package uk.ac.ebi.protvar.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Line index of an input stored in chunks: chunk i holds lines [i*chunkLines, (i+1)*chunkLines).
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InputIndex implements Serializable {
+    int lines; // total number of input lines
+    int chunkLines; // lines per chunk (the last chunk may have fewer)
+
+    public int chunkOf(int line) {
+        return line / chunkLines;
+    }
+
+    public int chunks() {
+        return (lines + chunkLines - 1) / chunkLines;
+    }
+}
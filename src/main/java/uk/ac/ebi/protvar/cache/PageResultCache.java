@@ -0,0 +1,91 @@
+package uk.ac.ebi.protvar.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Repository;
+import uk.ac.ebi.protvar.model.response.PagedMappingResponse;
+import uk.ac.ebi.protvar.service.ReleaseService;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static uk.ac.ebi.protvar.config.PagedMapping.INPUT_EXPIRES_AFTER_DAYS;
+
+/**
+ * Computed result pages of cached inputs, stored as deflated JSON - as sent to the client - so
+ * that paging back and forth doesn't rerun the mapping pipeline.
+ * Keys include the data release, so pages computed against a previous release are never served.
+ */
+@Repository
+public class PageResultCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PageResultCache.class);
+
+    public static final String PAGE_CACHE_PREFIX = "PAGE-";
+    private static final Duration PAGE_TTL = Duration.ofDays(INPUT_EXPIRES_AFTER_DAYS);
+
+    private final RedisTemplate<String, byte[]> pageResultCache;
+    private final ObjectMapper objectMapper;
+    private final ReleaseService releaseService;
+    private final boolean prefetchNextPage;
+
+    public PageResultCache(RedisTemplate<String, byte[]> pageResultCache, ObjectMapper objectMapper,
+                           ReleaseService releaseService,
+                           @Value("${protvar.cache.page.prefetch:true}") boolean prefetchNextPage) {
+        this.pageResultCache = pageResultCache;
+        this.objectMapper = objectMapper;
+        this.releaseService = releaseService;
+        this.prefetchNextPage = prefetchNextPage;
+    }
+
+    /**
+     * Whether the next page should be computed and cached when a page is served.
+     */
+    public boolean prefetchNextPage() {
+        return prefetchNextPage;
+    }
+
+    public String keyOf(String id, int page, int pageSize, String assembly) {
+        return PAGE_CACHE_PREFIX + releaseService.current() + "-" + id + "-" + page + "-" + pageSize + "-" + assembly;
+    }
+
+    /**
+     * @return the cached page as a JSON tree, or null if not cached.
+     */
+    public ObjectNode get(String key) {
+        byte[] bytes = pageResultCache.opsForValue().get(key);
+        if (bytes == null)
+            return null;
+        try {
+            return (ObjectNode) objectMapper.readTree(InputCache.inflateBytes(bytes));
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.warn("Unreadable cached page {}: {}", key, ex.getMessage());
+            return null;
+        }
+    }
+
+    public boolean contains(String key) {
+        return Boolean.TRUE.equals(pageResultCache.hasKey(key));
+    }
+
+    public ObjectNode toTree(PagedMappingResponse response) {
+        return objectMapper.valueToTree(response);
+    }
+
+    /**
+     * Cache the given page.
+     * @return the page as a JSON tree, as cached.
+     */
+    public ObjectNode put(String key, PagedMappingResponse response) {
+        ObjectNode tree = toTree(response);
+        try {
+            pageResultCache.opsForValue().set(key, InputCache.deflate(objectMapper.writeValueAsBytes(tree)), PAGE_TTL);
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.warn("Page {} not cached: {}", key, ex.getMessage());
+        }
+        return tree;
+    }
+}
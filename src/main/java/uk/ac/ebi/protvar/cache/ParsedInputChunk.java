@@ -0,0 +1,169 @@
+package uk.ac.ebi.protvar.cache;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import uk.ac.ebi.protvar.input.UserInput;
+import uk.ac.ebi.protvar.input.format.genomic.Gnomad;
+import uk.ac.ebi.protvar.input.format.genomic.VCF;
+import uk.ac.ebi.protvar.input.processor.InputProcessor;
+import uk.ac.ebi.protvar.input.type.GenomicInput;
+import uk.ac.ebi.protvar.input.type.ProteinInput;
+import uk.ac.ebi.protvar.model.response.Message;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parsed form of a chunk of input lines (see InputIndex), in columns, one entry per line.
+ * Custom genomic, gnomAD, VCF and custom protein inputs - the bulk of large inputs - are kept
+ * as their parsed fields and messages, and restored without running the format regexes again.
+ * Other formats (HGVS, IDs) are kept as text and parsed again when read.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ParsedInputChunk implements Serializable {
+    static final byte SKIP = 0; // empty or comment line
+    static final byte REPARSE = 1;
+    static final byte CUSTOM_GEN = 2;
+    static final byte GNOMAD = 3;
+    static final byte VCF_GEN = 4;
+    static final byte CUSTOM_PROT = 5;
+
+    private static final String MESSAGE_SEPARATOR = "\n";
+
+    byte[] kinds;
+    String[] inputs; // trimmed input string
+    String[] seqs; // chromosome, or accession for protein inputs
+    int[] positions; // 0 if not parsed
+    String[] refs;
+    String[] alts;
+    String[] ids; // VCF id column
+    String[] messages; // TYPE:text, one per line, null if none
+
+    /**
+     * Parse the given lines, skipping empty and comment lines as InputProcessor.parse does.
+     * @param parsed receives the parsed inputs, in order
+     */
+    public static ParsedInputChunk parse(List<String> lines, Consumer<UserInput> parsed) {
+        int n = lines.size();
+        ParsedInputChunk chunk = new ParsedInputChunk();
+        chunk.kinds = new byte[n];
+        chunk.inputs = new String[n];
+        chunk.seqs = new String[n];
+        chunk.positions = new int[n];
+        chunk.refs = new String[n];
+        chunk.alts = new String[n];
+        chunk.ids = new String[n];
+        chunk.messages = new String[n];
+        for (int i = 0; i < n; i++) {
+            String line = lines.get(i) == null ? "" : lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue; // SKIP
+            UserInput input = InputProcessor.parse(line);
+            parsed.accept(input);
+            chunk.inputs[i] = line;
+            chunk.kinds[i] = kindOf(input);
+            if (input instanceof GenomicInput && chunk.kinds[i] != REPARSE) {
+                GenomicInput gen = (GenomicInput) input;
+                chunk.set(i, gen.getChr(), gen.getPos(), gen.getRef(), gen.getAlt(), gen.getId(), input);
+            } else if (input instanceof ProteinInput && chunk.kinds[i] != REPARSE) {
+                ProteinInput prot = (ProteinInput) input;
+                chunk.set(i, prot.getAcc(), prot.getPos(), prot.getRef(), prot.getAlt(), null, input);
+            }
+        }
+        return chunk;
+    }
+
+    private static byte kindOf(UserInput input) {
+        if (input.getFormat() == null)
+            return REPARSE;
+        switch (input.getFormat()) {
+            case CUSTOM_GEN:
+                return input.getClass() == GenomicInput.class ? CUSTOM_GEN : REPARSE;
+            case GNOMAD:
+                return GNOMAD;
+            case VCF:
+                return VCF_GEN;
+            case CUSTOM_PROT:
+                return input.getClass() == ProteinInput.class ? CUSTOM_PROT : REPARSE;
+            default:
+                return REPARSE;
+        }
+    }
+
+    private void set(int i, String seq, Integer pos, String ref, String alt, String id, UserInput input) {
+        seqs[i] = seq;
+        positions[i] = pos == null ? 0 : pos;
+        refs[i] = ref;
+        alts[i] = alt;
+        ids[i] = id;
+        if (!input.getMessages().isEmpty()) {
+            StringBuilder sb = new StringBuilder();
+            for (Message m : input.getMessages()) {
+                if (sb.length() > 0)
+                    sb.append(MESSAGE_SEPARATOR);
+                sb.append(m.getType()).append(':').append(m.getText());
+            }
+            messages[i] = sb.toString();
+        }
+    }
+
+    public int size() {
+        return kinds.length;
+    }
+
+    /**
+     * User inputs of lines [from, to) of the chunk, empty and comment lines left out.
+     */
+    public List<UserInput> userInputs(int from, int to) {
+        List<UserInput> userInputs = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            UserInput input = restore(i);
+            if (input != null)
+                userInputs.add(input);
+        }
+        return userInputs;
+    }
+
+    private UserInput restore(int i) {
+        Integer pos = positions[i] == 0 ? null : positions[i];
+        UserInput input;
+        switch (kinds[i]) {
+            case SKIP:
+                return null;
+            case CUSTOM_GEN:
+            case GNOMAD:
+            case VCF_GEN:
+                GenomicInput gen = kinds[i] == GNOMAD ? Gnomad.of(inputs[i])
+                        : kinds[i] == VCF_GEN ? VCF.of(inputs[i]) : new GenomicInput(inputs[i]);
+                gen.setChr(seqs[i]);
+                gen.setPos(pos);
+                gen.setRef(refs[i]);
+                gen.setAlt(alts[i]);
+                gen.setId(ids[i]);
+                input = gen;
+                break;
+            case CUSTOM_PROT:
+                ProteinInput prot = new ProteinInput(inputs[i]);
+                prot.setAcc(seqs[i]);
+                prot.setPos(pos);
+                prot.setRef(refs[i]);
+                prot.setAlt(alts[i]);
+                input = prot;
+                break;
+            default:
+                return InputProcessor.parse(inputs[i]);
+        }
+        if (messages[i] != null) {
+            for (String m : messages[i].split(MESSAGE_SEPARATOR)) {
+                int sep = m.indexOf(':');
+                input.getMessages().add(new Message(Message.MessageType.valueOf(m.substring(0, sep)), m.substring(sep + 1)));
+            }
+        }
+        return input;
+    }
+}
@@ -1,11 +1,117 @@
 package uk.ac.ebi.protvar.cache;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Repository;
+import uk.ac.ebi.protvar.service.ReleaseChangedEvent;
+import uk.ac.ebi.uniprot.proteins.model.DataServiceProtein;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Two-tier cache of Proteins API entries.
+ * L1: in-heap, bounded by the approximate size of the cached proteins, least recently used evicted first.
+ * L2: Redis (dspCache), shared between instances.
+ * Hot proteins are served from L1 without a network round trip or deserialisation; L1 is
+ * cleared when the data release changes.
+ */
+@Repository
 public class ProteinCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProteinCache.class);
 
     public static final String PROT_CACHE_PREFIX = "PROT-";
 
+    private final RedisTemplate<String, DataServiceProtein> dspCache;
+    private final Cache<String, DataServiceProtein> localCache;
+
+    public ProteinCache(RedisTemplate<String, DataServiceProtein> dspCache, MeterRegistry meterRegistry,
+                        @Value("${protvar.cache.protein.max-size-mb:256}") long maxSizeMb) {
+        this.dspCache = dspCache;
+        this.localCache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSizeMb * 1024 * 1024)
+                .weigher((String acc, DataServiceProtein dsp) -> approxSize(dsp))
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, localCache, "protein.l1");
+    }
+
     public static String keyOf(String acc) {
         return PROT_CACHE_PREFIX+acc;
     }
 
+    /**
+     * @return the cached protein, from L1 if present, else from L2; null if in neither.
+     */
+    public DataServiceProtein get(String acc) {
+        DataServiceProtein dsp = localCache.getIfPresent(acc);
+        if (dsp == null) {
+            dsp = dspCache.opsForValue().get(keyOf(acc));
+            if (dsp != null)
+                localCache.put(acc, dsp);
+        }
+        return dsp;
+    }
+
+    /**
+     * @return the subset of the given accessions cached in either tier. Those only in L2 are read
+     * in one MGET and kept in L1, so their following get doesn't go back to Redis.
+     */
+    public Set<String> cached(Collection<String> accs) {
+        Set<String> cached = new HashSet<>();
+        List<String> keys = new ArrayList<>();
+        for (String acc : accs) {
+            if (localCache.getIfPresent(acc) != null)
+                cached.add(acc);
+            else
+                keys.add(keyOf(acc));
+        }
+        RedisBatch.multiGet(dspCache, keys).forEach((key, dsp) -> {
+            String acc = key.substring(PROT_CACHE_PREFIX.length());
+            localCache.put(acc, dsp);
+            cached.add(acc);
+        });
+        return cached;
+    }
+
+    public void put(DataServiceProtein dsp) {
+        putAll(List.of(dsp));
+    }
+
+    public void putAll(Collection<DataServiceProtein> dsps) {
+        Map<String, DataServiceProtein> entries = dsps.stream()
+                .collect(Collectors.toMap(dsp -> keyOf(dsp.getAccession()), dsp -> dsp, (a, b) -> a));
+        RedisBatch.multiSet(dspCache, entries, null);
+        dsps.forEach(dsp -> localCache.put(dsp.getAccession(), dsp));
+    }
+
+    @EventListener
+    public void onReleaseChanged(ReleaseChangedEvent event) {
+        LOGGER.info("Clearing {} in-heap cached proteins", localCache.size());
+        localCache.invalidateAll();
+    }
+
+    /**
+     * Rough size in bytes of the deserialised protein, dominated by its features, comments and
+     * cross-references.
+     */
+    private static int approxSize(DataServiceProtein dsp) {
+        long size = 2048;
+        if (dsp.getFeatures() != null)
+            size += 512L * dsp.getFeatures().size();
+        if (dsp.getComments() != null)
+            size += 1024L * dsp.getComments().size();
+        if (dsp.getDbReferences() != null)
+            size += 256L * dsp.getDbReferences().size();
+        if (dsp.getSequence() != null && dsp.getSequence().getSequence() != null)
+            size += 2L * dsp.getSequence().getSequence().length();
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
 }
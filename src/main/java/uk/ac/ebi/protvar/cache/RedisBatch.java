@@ -0,0 +1,82 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Batch operations on top of RedisTemplate, each costing a single round trip whatever the
+ * number of keys: MGET for multi-get, and pipelined commands for existence checks and
+ * multi-set (MSET has no TTL option).
+ */
+public class RedisBatch {
+
+    private RedisBatch() {}
+
+    /**
+     * Values of the given keys, in one MGET. Keys that don't exist are left out of the result.
+     */
+    public static <V> Map<String, V> multiGet(RedisTemplate<String, V> template, Collection<String> keys) {
+        Map<String, V> result = new HashMap<>();
+        if (keys == null || keys.isEmpty())
+            return result;
+        List<String> keyList = new ArrayList<>(keys);
+        List<V> values = template.opsForValue().multiGet(keyList);
+        if (values != null) {
+            for (int i = 0; i < keyList.size(); i++) {
+                V value = values.get(i);
+                if (value != null)
+                    result.put(keyList.get(i), value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The subset of the given keys that exist, with the EXISTS calls pipelined.
+     */
+    public static Set<String> existing(RedisTemplate<String, ?> template, Collection<String> keys) {
+        Set<String> result = new HashSet<>();
+        if (keys == null || keys.isEmpty())
+            return result;
+        List<String> keyList = new ArrayList<>(keys);
+        List<Object> exists = template.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, ?> ops = (RedisOperations<String, ?>) operations;
+                keyList.forEach(ops::hasKey);
+                return null;
+            }
+        });
+        for (int i = 0; i < keyList.size(); i++) {
+            if (Boolean.TRUE.equals(exists.get(i)))
+                result.add(keyList.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Set all the given entries, with the SET calls pipelined.
+     * @param ttl time to live of each entry, or null for no expiry.
+     */
+    public static <V> void multiSet(RedisTemplate<String, V> template, Map<String, V> entries, Duration ttl) {
+        if (entries == null || entries.isEmpty())
+            return;
+        template.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, W> Object execute(RedisOperations<K, W> operations) {
+                RedisOperations<String, V> ops = (RedisOperations<String, V>) operations;
+                entries.forEach((key, value) -> {
+                    if (ttl == null)
+                        ops.opsForValue().set(key, value);
+                    else
+                        ops.opsForValue().set(key, value, ttl);
+                });
+                return null;
+            }
+        });
+    }
+}
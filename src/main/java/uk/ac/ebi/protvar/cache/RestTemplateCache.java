@@ -1,44 +1,231 @@
 package uk.ac.ebi.protvar.cache;
 
-import org.springframework.http.ResponseEntity;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.util.*;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 
+/**
+ * RestTemplate with an in-heap cache (L1) of getForEntity(URI) responses, to determine an
+ * external API call is needed or not.
+ * - bounded by the approximate size of the cached responses (body bytes as received), least
+ *   recently used evicted first
+ * - responses are fresh for the TTL, then fetched again; with revalidation, a stale response
+ *   with an ETag or Last-Modified is kept and revalidated with a conditional request instead, a
+ *   304 Not Modified renewing it without transferring the body again
+ * - concurrent misses for the same URI are coalesced into a single request, the others waiting
+ *   for its response
+ * Reported as Guava cache metrics named rest.<name> (size, hits, misses, evictions), plus
+ * rest.cache.coalesced and rest.cache.revalidations (tag result: not_modified, modified).
+ */
 public class RestTemplateCache extends RestTemplate {
-  //private final int MAX_CACHE_SIZE = 10000;
   private static final Logger logger = LoggerFactory.getLogger(RestTemplateCache.class);
 
-  // RestTemplate level cache (L1) to determine an external API call is needed or not
-  // Cached data is response entity
-  private final Map<URI, ResponseEntity<?>> cache = new ConcurrentHashMap<>();
+  // approximate per-entry overhead: key, headers, entry objects
+  private static final int ENTRY_OVERHEAD = 512;
+
+  private final Cache<URI, Entry> cache;
+  private final ConcurrentHashMap<URI, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+  private final long ttlNanos;
+  private final boolean revalidate;
+  private final Counter coalesced;
+  private final Counter notModified;
+  private final Counter modified;
+
+  private static class Entry {
+    final ResponseEntity<?> response;
+    final Class<?> type;
+    final int weight;
+    volatile long expiresAt;
+
+    Entry(ResponseEntity<?> response, Class<?> type, int weight, long expiresAt) {
+      this.response = response;
+      this.type = type;
+      this.weight = weight;
+      this.expiresAt = expiresAt;
+    }
+
+    boolean validators() {
+      return response.getHeaders().getETag() != null || response.getHeaders().getLastModified() != -1;
+    }
+  }
+
+  /**
+   * @param name       name of the cache in the metrics
+   * @param maxSizeMb  max approximate size of the cached responses
+   * @param ttl        time a response is served without going back to the API
+   * @param revalidate revalidate stale responses with a conditional request, when they have validators
+   */
+  public RestTemplateCache(String name, MeterRegistry meterRegistry, long maxSizeMb, Duration ttl, boolean revalidate) {
+    this.ttlNanos = ttl.toNanos();
+    this.revalidate = revalidate;
+    CacheBuilder<URI, Entry> builder = CacheBuilder.newBuilder()
+            .maximumWeight(maxSizeMb * 1024 * 1024)
+            .weigher((URI uri, Entry entry) -> entry.weight)
+            .recordStats();
+    // stale entries are only kept around for revalidation
+    if (!revalidate)
+      builder.expireAfterWrite(ttl.toNanos(), TimeUnit.NANOSECONDS);
+    this.cache = builder.build();
+    GuavaCacheMetrics.monitor(meterRegistry, cache, "rest." + name);
+    this.coalesced = Counter.builder("rest.cache.coalesced").tag("cache", name).register(meterRegistry);
+    this.notModified = Counter.builder("rest.cache.revalidations").tag("cache", name).tag("result", "not_modified").register(meterRegistry);
+    this.modified = Counter.builder("rest.cache.revalidations").tag("cache", name).tag("result", "modified").register(meterRegistry);
+  }
 
   @Nonnull
   @Override
+  @SuppressWarnings("unchecked")
   public <T> ResponseEntity<T> getForEntity(@Nonnull URI url, @Nonnull Class<T> responseType) throws RestClientException {
-    var response = getFromCache(url);
-    if (Objects.nonNull(response)) {
-      logger.info("Using RestTemplate cache for {}", url);
-      return (ResponseEntity<T>) response;
+    Entry cached = cache.getIfPresent(url);
+    if (cached != null && cached.type == responseType && System.nanoTime() - cached.expiresAt < 0) {
+      logger.debug("Using RestTemplate cache for {}", url);
+      return (ResponseEntity<T>) cached.response;
+    }
+
+    CompletableFuture<Entry> load = new CompletableFuture<>();
+    CompletableFuture<Entry> existing = inFlight.putIfAbsent(url, load);
+    if (existing != null) {
+      coalesced.increment();
+      Entry entry = join(existing);
+      if (entry.type == responseType)
+        return (ResponseEntity<T>) entry.response;
+      return super.getForEntity(url, responseType);
+    }
+    try {
+      Entry entry = fetch(url, responseType, cached != null && cached.type == responseType ? cached : null);
+      load.complete(entry);
+      return (ResponseEntity<T>) entry.response;
+    } catch (RuntimeException ex) {
+      load.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inFlight.remove(url, load);
     }
+  }
 
-    var apiResponse = super.getForEntity(url, responseType);
-    cache.put(url, apiResponse);
+  private static Entry join(CompletableFuture<Entry> load) {
+    try {
+      return load.join();
+    } catch (CompletionException | CancellationException ex) {
+      if (ex.getCause() instanceof RuntimeException)
+        throw (RuntimeException) ex.getCause();
+      throw ex;
+    }
+  }
 
-    return apiResponse;
+  private <T> Entry fetch(URI url, Class<T> responseType, Entry stale) {
+    HttpHeaders headers = new HttpHeaders();
+    if (revalidate && stale != null && stale.validators()) {
+      HttpHeaders validators = stale.response.getHeaders();
+      if (validators.getETag() != null)
+        headers.setIfNoneMatch(validators.getETag());
+      if (validators.getLastModified() != -1)
+        headers.setIfModifiedSince(validators.getLastModified());
+    } else {
+      stale = null;
+    }
+    Entry previous = stale;
+    ResponseExtractor<ResponseEntity<T>> extractor = responseEntityExtractor(responseType);
+    Entry entry = execute(url, HttpMethod.GET, httpEntityCallback(new HttpEntity<>(headers), responseType), response -> {
+      if (previous != null && response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value())
+        return previous;
+      CountingResponse counted = new CountingResponse(response);
+      ResponseEntity<T> body = extractor.extractData(counted);
+      return new Entry(body, responseType, (int) Math.min(Integer.MAX_VALUE, counted.bytes + ENTRY_OVERHEAD), 0);
+    });
+    if (entry == null)
+      throw new RestClientException("No response for " + url);
+    if (previous != null) {
+      (entry == previous ? notModified : modified).increment();
+      logger.debug("Revalidated {}: {}", url, entry == previous ? "not modified" : "modified");
+    }
+    entry.expiresAt = System.nanoTime() + ttlNanos;
+    if (entry.response.getStatusCode().is2xxSuccessful())
+      cache.put(url, entry);
+    return entry;
   }
 
-  private ResponseEntity<?> getFromCache(URI key) {
-    if (cache.containsKey(key))
-      return cache.get(key);
-    return null;
+  /**
+   * Response with the bytes read from its body counted, for the entry weight.
+   */
+  private static class CountingResponse implements ClientHttpResponse {
+    private final ClientHttpResponse response;
+    private long bytes;
+
+    CountingResponse(ClientHttpResponse response) {
+      this.response = response;
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+      return new FilterInputStream(response.getBody()) {
+        @Override
+        public int read() throws IOException {
+          int b = super.read();
+          if (b != -1)
+            bytes++;
+          return b;
+        }
+
+        @Override
+        public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+          int n = super.read(b, off, len);
+          if (n > 0)
+            bytes += n;
+          return n;
+        }
+      };
+    }
+
+    @Nonnull
+    @Override
+    public HttpHeaders getHeaders() {
+      return response.getHeaders();
+    }
+
+    @Nonnull
+    @Override
+    public HttpStatus getStatusCode() throws IOException {
+      return response.getStatusCode();
+    }
+
+    @Override
+    public int getRawStatusCode() throws IOException {
+      return response.getRawStatusCode();
+    }
+
+    @Nonnull
+    @Override
+    public String getStatusText() throws IOException {
+      return response.getStatusText();
+    }
+
+    @Override
+    public void close() {
+      response.close();
+    }
   }
-}
\ No newline at end of file
+}
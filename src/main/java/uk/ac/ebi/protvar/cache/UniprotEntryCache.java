@@ -1,39 +1,112 @@
 package uk.ac.ebi.protvar.cache;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
 import uk.ac.ebi.protvar.repo.UniprotEntryRepo;
+import uk.ac.ebi.protvar.service.ReleaseChangedEvent;
+import uk.ac.ebi.protvar.service.ReleaseService;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * UniProt accessions of the current release, for validating protein inputs (see AccessionIndex).
+ * Loaded at startup (see CacheStartup) and reloaded when the data release changes; the previous
+ * index keeps serving lookups until the new one is loaded.
+ * With snapshots enabled, the index is read from the snapshot named after the release and the
+ * number of entries in the database if there is one, and saved to it once loaded otherwise.
+ * Reported in uniprot.entries.count and uniprot.entries.bytes (approximate heap footprint), and
+ * lookup times in the uniprot.entries.lookup timer.
+ */
 @Repository
 public class UniprotEntryCache {
     private static final Logger LOGGER = LoggerFactory.getLogger(UniprotEntryCache.class);
 
-    @Autowired
-    private UniprotEntryRepo uniprotEntryRepo;
+    private static final String SNAPSHOT_PREFIX = "uniprot-entries-";
 
-    private List<String> uniprotEntries = new ArrayList<>();
+    private final UniprotEntryRepo uniprotEntryRepo;
+    private final ReleaseService releaseService;
+    private final Path snapshotDir;
+    private final Timer lookupTimer;
+    private final CacheStartup cacheStartup;
+
+    private volatile AccessionIndex uniprotEntries = AccessionIndex.EMPTY;
+
+    public UniprotEntryCache(UniprotEntryRepo uniprotEntryRepo, ReleaseService releaseService,
+                             CacheStartup cacheStartup, MeterRegistry meterRegistry) {
+        this.uniprotEntryRepo = uniprotEntryRepo;
+        this.releaseService = releaseService;
+        this.snapshotDir = cacheStartup.snapshotDir();
+        this.cacheStartup = cacheStartup;
+        this.lookupTimer = Timer.builder("uniprot.entries.lookup").register(meterRegistry);
+        Gauge.builder("uniprot.entries.count", this, c -> c.uniprotEntries.size()).register(meterRegistry);
+        Gauge.builder("uniprot.entries.bytes", this, c -> c.uniprotEntries.bytes()).register(meterRegistry);
+        cacheStartup.register("uniprot", this::loadEntries);
+    }
 
     /**
      * Load all UniProt accessions for current release
      */
-    @EventListener(classes = ApplicationStartedEvent.class )
-    public void loadEntries() {
-        LOGGER.info("Loading UniProt entries");
-        uniprotEntries.addAll(uniprotEntryRepo.findAll().stream().map(entry -> entry.getAccession()).collect(Collectors.toList()));
+    public synchronized void loadEntries() {
+        long start = System.currentTimeMillis();
+        Path snapshot = snapshotDir == null ? null : snapshotDir.resolve(snapshotName());
+        AccessionIndex index = null;
+        if (snapshot != null && Files.exists(snapshot)) {
+            try {
+                index = AccessionIndex.read(snapshot);
+                LOGGER.info("UniProt entries read from snapshot {}", snapshot);
+            } catch (IOException ex) {
+                LOGGER.warn("UniProt entries snapshot {} not usable: {}", snapshot, ex.getMessage());
+            }
+        }
+        if (index == null) {
+            LOGGER.info("Loading UniProt entries");
+            List<String> accessions = uniprotEntryRepo.findAllAccessions();
+            index = AccessionIndex.of(accessions);
+            if (snapshot != null)
+                writeSnapshot(index, snapshot);
+        }
+        uniprotEntries = index;
+        LOGGER.info("{} entries loaded in cache in {}ms, ~{}KB", index.size(), System.currentTimeMillis() - start,
+                index.bytes() / 1024);
+    }
+
+    private String snapshotName() {
+        String key = releaseService.current() + "-" + uniprotEntryRepo.count();
+        return SNAPSHOT_PREFIX + key.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static void writeSnapshot(AccessionIndex index, Path snapshot) {
+        try {
+            Files.createDirectories(snapshot.getParent());
+            index.write(snapshot);
+        } catch (IOException ex) {
+            LOGGER.warn("UniProt entries snapshot {} not written: {}", snapshot, ex.getMessage());
+        }
+    }
 
-        LOGGER.info("{} entries loaded in cache", uniprotEntries.size());
+    /**
+     * Reloaded through CacheStartup: a failure (e.g. database unavailable) is retried there
+     * rather than thrown at the event publisher, which would skip the other listeners.
+     */
+    @EventListener
+    public void onReleaseChanged(ReleaseChangedEvent event) {
+        cacheStartup.reload("uniprot");
     }
 
     public boolean isValidEntry(String entry) {
-        return uniprotEntries.contains(entry);
+        long start = System.nanoTime();
+        boolean valid = uniprotEntries.contains(entry);
+        lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return valid;
     }
 
 }
@@ -1,5 +1,6 @@
 package uk.ac.ebi.protvar.controller;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -88,7 +89,7 @@ public class PagedMappingController {
     }
 
     private ResponseEntity<?> getPagedResponse(String id, int page, int pageSize, String assembly) {
-        PagedMappingResponse response = pagedMappingService.getInputResult(id, page, pageSize, assembly);
+        ObjectNode response = pagedMappingService.getCachedInputResult(id, page, pageSize, assembly);
         if (response != null)
             return new ResponseEntity<>(response, HttpStatus.OK);
         else
@@ -11,9 +11,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import uk.ac.ebi.protvar.model.data.*;
 import uk.ac.ebi.protvar.model.score.Score;
 import uk.ac.ebi.protvar.repo.ProtVarDataRepo;
+import uk.ac.ebi.protvar.service.CADDService;
 import uk.ac.ebi.protvar.utils.AminoAcid;
 
 import javax.servlet.ServletContext;
@@ -28,16 +30,29 @@ public class PredictionController {
     private ServletContext context;
 
     private ProtVarDataRepo protVarDataRepo;
+    private CADDService caddService;
 
-    @Operation(summary = "Nucleotide predictions - CADD (WIP)",
-            description="Retrieve CADD score for the given genomic positions.")
-    @PostMapping(value = "/cadd", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Object> getCADDScores(
+    /**
+     * Bulk CADD scores, streamed as one JSON object per line (NDJSON), in input order.
+     *
+     * @param coordinates Genomic coordinates, "chr pos [ref alt]" (or other supported genomic formats)
+     * @param assembly GRCh37 coordinates are converted to GRCh38 if 37 is specified
+     * @return <code>CADDScoreResponse</code> per coordinate
+     */
+    @Operation(summary = "Nucleotide predictions - CADD",
+            description="Retrieve CADD scores for the given genomic coordinates (chr pos, with optional ref and alt). " +
+                    "Results are streamed as newline-delimited JSON, one line per coordinate, in input order. " +
+                    "Coordinates are converted to GRCh38 if the assembly is 37.")
+    @PostMapping(value = "/cadd", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getCADDScores(
             @io.swagger.v3.oas.annotations.parameters.RequestBody(content = {@Content(examples =
-            @ExampleObject(value = "[\"19 1010539\"]"))})
-            @RequestBody List<String> coordinates) { // note coords normally refer to genomic coord whereas position is
-        // used more generally for e.g. genomic/protein position, UniProt or PDB position, etc.
-        return new ResponseEntity<>(null, HttpStatus.OK);
+            @ExampleObject(value = "[\"19 1010539\", \"19 1010539 G C\"]"))})
+            @RequestBody List<String> coordinates, // note coords normally refer to genomic coord whereas position is
+            // used more generally for e.g. genomic/protein position, UniProt or PDB position, etc.
+            @Parameter(description = "Assembly of the coordinates: GRCh38/h38/38 (default) or GRCh37/h37/37.")
+            @RequestParam(required = false) String assembly) {
+        StreamingResponseBody body = out -> caddService.writeScores(coordinates, assembly, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     /**
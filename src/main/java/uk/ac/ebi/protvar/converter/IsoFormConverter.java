@@ -8,13 +8,17 @@ import javax.annotation.PostConstruct;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import uk.ac.ebi.pdbe.model.PDBeStructureResidue;
 import uk.ac.ebi.protvar.input.params.InputParams;
+import uk.ac.ebi.protvar.model.Coord;
 import uk.ac.ebi.protvar.model.score.*;
+import uk.ac.ebi.protvar.model.data.Foldx;
 import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
+import uk.ac.ebi.protvar.model.data.Interaction;
+import uk.ac.ebi.protvar.model.data.Pocket;
 import uk.ac.ebi.protvar.model.response.*;
 import uk.ac.ebi.protvar.utils.AminoAcid;
 import uk.ac.ebi.protvar.builder.AnnotationsBuilder;
-import uk.ac.ebi.protvar.utils.Commons;
 import uk.ac.ebi.protvar.utils.RNACodon;
 
 @Service
@@ -36,8 +40,12 @@ public class IsoFormConverter {
 	}
 
 	public List<IsoFormMapping> createIsoforms(List<GenomeToProteinMapping> mappingList, String refAlleleUser,
-											   String variantAllele, Map<String, List<Score>>  scoreMap,
-											   Map<String, List<Variation>> variationMap,
+											   String variantAllele, Map<Coord.Prot, List<Score>>  scoreMap,
+											   Map<Coord.Prot, List<Variation>> variationMap,
+											   Map<Coord.Prot, List<Pocket>> pocketMap,
+											   Map<Coord.Prot, List<Interaction>> interactionMap,
+											   Map<Coord.Prot, List<Foldx>> foldxMap,
+											   Map<Coord.Prot, List<PDBeStructureResidue>> structureMap,
 											   InputParams params) {
 		String canonicalAccession = mappingList.stream().filter(GenomeToProteinMapping::isCanonical)
 				.map(GenomeToProteinMapping::getAccession).findFirst().orElse(null);
@@ -46,14 +54,16 @@ public class IsoFormConverter {
 				.collect(Collectors.groupingBy(GenomeToProteinMapping::getAccession));
 
 		return accessionMapping.keySet().stream()
-				.map(accession -> createIsoform(refAlleleUser, variantAllele, canonicalAccession, accession, accessionMapping.get(accession), scoreMap, variationMap, params))
+				.map(accession -> createIsoform(refAlleleUser, variantAllele, canonicalAccession, accession, accessionMapping.get(accession), scoreMap, variationMap, pocketMap, interactionMap, foldxMap, structureMap, params))
 				.sorted().collect(Collectors.toList());
 
 	}
 
 	private IsoFormMapping createIsoform(String refAlleleUser, String variantAllele, String canonicalAccession,
-			String accession, List<GenomeToProteinMapping> g2pAccessionMapping, Map<String, List<Score>>  scoreMap,
-			Map<String, List<Variation>> variationMap, InputParams params) {
+			String accession, List<GenomeToProteinMapping> g2pAccessionMapping, Map<Coord.Prot, List<Score>>  scoreMap,
+			Map<Coord.Prot, List<Variation>> variationMap, Map<Coord.Prot, List<Pocket>> pocketMap,
+			Map<Coord.Prot, List<Interaction>> interactionMap, Map<Coord.Prot, List<Foldx>> foldxMap,
+			Map<Coord.Prot, List<PDBeStructureResidue>> structureMap, InputParams params) {
 		GenomeToProteinMapping genomeToProteinMapping = g2pAccessionMapping.get(0);
 
 		boolean strand = genomeToProteinMapping.isReverseStrand();
@@ -84,38 +94,28 @@ public class IsoFormConverter {
 
 		if (isCanonical(accession, canonicalAccession)) {
 
-			//Commons.joinWithDash(name, acc, pos)
-			String keyConservScore = Commons.joinWithDash("CONSERV", accession, genomeToProteinMapping.getIsoformPosition());
-			//Commons.joinWithDash(name, acc, pos, mt)
-			String keyAmScore = Commons.joinWithDash("AM", accession, genomeToProteinMapping.getIsoformPosition(), variantAA.getOneLetter());
-			String keyEveScore = Commons.joinWithDash("EVE", accession, genomeToProteinMapping.getIsoformPosition(), variantAA.getOneLetter());
-			String keyEsmScore = Commons.joinWithDash("ESM", accession, genomeToProteinMapping.getIsoformPosition(), variantAA.getOneLetter());
+			// scores of the position, at most one per name (and mt, except for conservation)
+			List<Score> scores = scoreMap.get(new Coord.Prot(accession, genomeToProteinMapping.getIsoformPosition()));
+			String mt = variantAA.getOneLetter();
 
-			if (scoreMap.containsKey(keyConservScore)
-					&& scoreMap.get(keyConservScore).size() == 1) {
-				ConservScore conservScore = (ConservScore) scoreMap.get(keyConservScore).get(0);
+			ConservScore conservScore = (ConservScore) Score.find(scores, Score.Name.CONSERV, null);
+			if (conservScore != null)
 				builder.conservScore(conservScore.copy());
-			}
 
-			if (scoreMap.containsKey(keyAmScore)
-					&& scoreMap.get(keyAmScore).size() == 1) {
-				AMScore amScore = (AMScore) scoreMap.get(keyAmScore).get(0);
+			AMScore amScore = (AMScore) Score.find(scores, Score.Name.AM, mt);
+			if (amScore != null)
 				builder.amScore(amScore.copy());
-			}
 
-			if (scoreMap.containsKey(keyEveScore)
-					&& scoreMap.get(keyEveScore).size() == 1) {
-				EVEScore eveScore = (EVEScore) scoreMap.get(keyEveScore).get(0);
+			EVEScore eveScore = (EVEScore) Score.find(scores, Score.Name.EVE, mt);
+			if (eveScore != null)
 				builder.eveScore(eveScore.copy());
-			}
 
-			if (scoreMap.containsKey(keyEsmScore)
-					&& scoreMap.get(keyEsmScore).size() == 1) {
-				ESMScore esmScore = (ESMScore) scoreMap.get(keyEsmScore).get(0);
+			ESMScore esmScore = (ESMScore) Score.find(scores, Score.Name.ESM, mt);
+			if (esmScore != null)
 				builder.esmScore(esmScore.copy());
-			}
 
-			annotationsBuilder.build(accession, genomicLocation, variantAA.getOneLetter(), genomeToProteinMapping.getIsoformPosition(), variationMap, params, builder);
+			annotationsBuilder.build(accession, genomicLocation, variantAA.getOneLetter(), genomeToProteinMapping.getIsoformPosition(), variationMap,
+					pocketMap, interactionMap, foldxMap, structureMap, params, builder);
 		}
 		return builder.build();
 	}
@@ -6,9 +6,14 @@ import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import uk.ac.ebi.pdbe.model.PDBeStructureResidue;
 import uk.ac.ebi.protvar.input.params.InputParams;
 import uk.ac.ebi.protvar.input.type.GenomicInput;
+import uk.ac.ebi.protvar.model.Coord;
 import uk.ac.ebi.protvar.model.data.CADDPrediction;
+import uk.ac.ebi.protvar.model.data.Foldx;
+import uk.ac.ebi.protvar.model.data.Interaction;
+import uk.ac.ebi.protvar.model.data.Pocket;
 import uk.ac.ebi.protvar.model.response.Gene;
 import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
 import uk.ac.ebi.protvar.model.response.IsoFormMapping;
@@ -28,8 +33,12 @@ public class Mappings2GeneConverter {
 								  GenomicInput gInput,
 								  Set<String> altBases,
 								  List<CADDPrediction> caddScores,
-								  Map<String, List<Score>>  scoreMap,
-								  Map<String, List<Variation>> variationMap, InputParams params) {
+								  Map<Coord.Prot, List<Score>>  scoreMap,
+								  Map<Coord.Prot, List<Variation>> variationMap,
+								  Map<Coord.Prot, List<Pocket>> pocketMap,
+								  Map<Coord.Prot, List<Interaction>> interactionMap,
+								  Map<Coord.Prot, List<Foldx>> foldxMap,
+								  Map<Coord.Prot, List<PDBeStructureResidue>> structureMap, InputParams params) {
 
 		List<Gene> ensgMappingList = new ArrayList<>();
 		if (mappings == null)
@@ -50,7 +59,7 @@ public class Mappings2GeneConverter {
 			altBases.forEach(alt -> {
 
 				List<IsoFormMapping> isoforms = isformConverter.createIsoforms(mappingList, userAllele, alt,
-						scoreMap, variationMap, params);
+						scoreMap, variationMap, pocketMap, interactionMap, foldxMap, structureMap, params);
 
 				ensgMappingList.add(Gene.builder().ensg(ensg).reverseStrand(genomeToProteinMapping.isReverseStrand())
 						.geneName(genomeToProteinMapping.getGeneName())
@@ -1,10 +1,12 @@
 package uk.ac.ebi.protvar.fetcher;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AllArgsConstructor;
 import org.apache.commons.collections.map.HashedMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import uk.ac.ebi.pdbe.model.PDBeStructureResidue;
 import uk.ac.ebi.protvar.converter.Mappings2GeneConverter;
 import uk.ac.ebi.protvar.input.*;
 import uk.ac.ebi.protvar.input.format.coding.HGVSc;
@@ -19,8 +21,8 @@ import uk.ac.ebi.protvar.input.params.InputParams;
 import uk.ac.ebi.protvar.input.processor.BuildProcessor;
 import uk.ac.ebi.protvar.input.type.GenomicInput;
 import uk.ac.ebi.protvar.model.Coord;
-import uk.ac.ebi.protvar.model.data.CADDPrediction;
-import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
+import uk.ac.ebi.protvar.model.CoordSet;
+import uk.ac.ebi.protvar.model.data.*;
 import uk.ac.ebi.protvar.model.response.*;
 import uk.ac.ebi.protvar.model.score.Score;
 import uk.ac.ebi.protvar.repo.ProtVarDataRepo;
@@ -28,6 +30,7 @@ import uk.ac.ebi.protvar.repo.UniprotRefseqRepo;
 import uk.ac.ebi.protvar.utils.Commons;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -76,158 +79,69 @@ public class MappingFetcher {
 
 	private VariationFetcher variationFetcher;
 
+	private ScoreFetcher scoreFetcher;
+	private PDBeFetcher pdbeFetcher;
+
+	private StageExecutor stageExecutor;
+
 	private BuildProcessor buildProcessor;
 
 	private Coding2Pro coding2Pro;
 
-	public MappingResponse getMapping(InputParams params) {
-		if (params.getInputs() == null || params.getInputs().isEmpty())
-			return new MappingResponse(List.of());
+	private MeterRegistry meterRegistry;
 
-		MappingResponse response = new MappingResponse(params.getInputs());
+	/**
+	 * Input conversion step, run ahead of the mapping core to turn inputs into genomic inputs.
+	 */
+	@FunctionalInterface
+	interface InputStage {
+		void run(MappingContext context);
+	}
 
-		Map<Type, List<UserInput>> groupedInputs = params.getInputs().stream().filter(UserInput::isValid) // filter out any invalid inputs
-				.collect(Collectors.groupingBy(UserInput::getType));
+	/**
+	 * State shared by the input stages of one request.
+	 */
+	static class MappingContext {
+		final InputParams params;
+		final Map<Type, List<UserInput>> groupedInputs;
+		TreeMap<String, List<String>> rsAccsMap;
+
+		MappingContext(InputParams params) {
+			this.params = params;
+			this.groupedInputs = params.getInputs().stream().filter(UserInput::isValid) // filter out any invalid inputs
+					.collect(Collectors.groupingBy(UserInput::getType));
+		}
+	}
 
-		buildProcessor.process(groupedInputs, params);
+	/**
+	 * Alt bases to map a genomic input to, given its mappings (not empty).
+	 */
+	@FunctionalInterface
+	interface AltBases {
+		Set<String> of(UserInput input, GenomicInput gInput, List<GenomeToProteinMapping> mappingList);
+	}
 
+	/**
+	 * Input stages of getMapping, in order.
+	 */
+	private Map<String, InputStage> inputStages() {
+		Map<String, InputStage> stages = new LinkedHashMap<>();
+		stages.put("build", context -> buildProcessor.process(context.groupedInputs, context.params));
 		// ID to genomic coords conversion
-		id2Gen.map(groupedInputs);
-
+		stages.put("id2gen", context -> id2Gen.map(context.groupedInputs));
 		// get refseq-uniprot accession mapping
-		Set<String> rsAccs = new HashSet<>();
-		params.getInputs().stream().forEach(userInput -> {
-			String rsAcc = null;
-			if (userInput instanceof HGVSp)
-				rsAcc = ((HGVSp) userInput).getRsAcc();
-			else if (userInput instanceof HGVSc)
-				rsAcc = ((HGVSc) userInput).getRsAcc();
-
-			if (rsAcc != null && rsAcc.length() > 0) {
-				int dotIdx = rsAcc.lastIndexOf(".");
-				if (dotIdx != -1)
-					rsAcc = rsAcc.substring(0, dotIdx);
-				if (!rsAccs.contains(rsAcc))
-					rsAccs.add(rsAcc);
-			}
-		});
-
-		TreeMap<String, List<String>> rsAccsMap = uniprotRefseqRepo.getRefSeqNoVerUniprotMap(rsAccs);
-
+		stages.put("refseq", context -> context.rsAccsMap = uniprotRefseqRepo.getRefSeqNoVerUniprotMap(rsAccs(context.params)));
 		// cDNA to protein inputs conversion
-		coding2Pro.convert(groupedInputs, rsAccsMap);
-
+		stages.put("coding2pro", context -> coding2Pro.convert(context.groupedInputs, context.rsAccsMap));
 		// protein to genomic inputs conversion
-		pro2Gen.convert(groupedInputs, rsAccsMap);
-
-		// get all chrPos combination
-		Set<Object[]> chrPosSet = new HashSet<>();
-		params.getInputs().stream().forEach(userInput -> {
-			chrPosSet.addAll(userInput.chrPos());
-		});
-
-		if (!chrPosSet.isEmpty()) {
-
-			// retrieve CADD predictions
-			Map<String, List<CADDPrediction>> predictionMap = protVarDataRepo.getCADDByChrPos(chrPosSet)
-					.stream().collect(Collectors.groupingBy(CADDPrediction::getGroupBy));
-
-			// retrieve main mappings
-			List<GenomeToProteinMapping> g2pMappings = protVarDataRepo.getMappingsByChrPos(chrPosSet);
-
-			// get all protein accessions and positions from retrieved mappings
-			Set<String> canonicalAccessions = new HashSet<>();
-			Set<Coord.Prot> protCoords = new HashSet<>();
-			g2pMappings.stream().filter(GenomeToProteinMapping::isCanonical).forEach(m -> {
-				if (!Commons.nullOrEmpty(m.getAccession())) {
-					canonicalAccessions.add(m.getAccession());
-					if (Commons.notNull(m.getIsoformPosition()))
-						protCoords.add(new Coord.Prot(m.getAccession(), m.getIsoformPosition()));
-				}
-			});
-			Set<Object[]> accPosSet = protCoords.stream().map(s -> s.toObjectArray()).collect(Collectors.toSet());
-
-			final Map<String, List<Variation>> variationMap = params.isPop() ? variationFetcher.prefetchdb(accPosSet) : new HashedMap();
-
-			if (params.isFun())
-				proteinsFetcher.prefetch(canonicalAccessions);
-
-			// retrieve AA scores
-			Map<String, List<Score>>  scoreMap = protVarDataRepo.getScores(accPosSet)
-					.stream().collect(Collectors.groupingBy(Score::getGroupBy));
-
-			Map<String, List<GenomeToProteinMapping>> map = g2pMappings.stream()
-					.collect(Collectors.groupingBy(GenomeToProteinMapping::getGroupBy));
-
-			params.getInputs().stream().filter(UserInput::isValid).forEach(input -> {
-
-				List<GenomicInput> gInputs = new ArrayList<>();
-				gInputs.addAll(input.genInputs());
-
-				gInputs.forEach(gInput -> {
-					try {
-						List<GenomeToProteinMapping> mappingList = map.get(gInput.groupByChrAndPos());
-						List<CADDPrediction> caddScores = predictionMap.get(gInput.groupByChrAndPos());
-
-						List<Gene> ensgMappingList;
-
-						if (mappingList == null || mappingList.isEmpty()) {
-							ensgMappingList = new ArrayList<>();
-						} else {
-
-							Set<String> altBases = new HashSet<>();
-							if (gInput.getAlt() != null)
-								altBases.add(gInput.getAlt());
-
-							if (input instanceof GenomicInput || input instanceof VCF ||
-									input instanceof Gnomad || input instanceof HGVSg) {
-
-								String refBase = mappingList.get(0).getBaseNucleotide();
-
-								if (gInput.getRef() == null && gInput.getAlt() == null) {
-									gInput.addWarning(ErrorConstants.ERR_REF_ALLELE_EMPTY);
-									gInput.setRef(refBase);
-									altBases = GenomicInput.getAlternates(refBase);
-								} else if (gInput.getRef() != null) {
-
-									if (!gInput.getRef().equalsIgnoreCase(refBase)) {
-										gInput.addWarning(
-												String.format(ErrorConstants.ERR_REF_ALLELE_MISMATCH.toString(),
-														gInput.getRef(),
-														refBase));
-										gInput.setRef(refBase);
-									}
-
-									altBases = GenomicInput.getAlternates(gInput.getRef());
-
-									if (gInput.getAlt() == null) {
-										gInput.addWarning(ErrorConstants.ERR_VAR_ALLELE_EMPTY);
-									} else {
-										// alt should not be same as ref
-										if (gInput.getAlt().equalsIgnoreCase(refBase)) {
-											gInput.addWarning(ErrorConstants.ERR_REF_AND_VAR_ALLELE_SAME);
-											// use all alt bases
-										} else {
-											altBases = Set.of(gInput.getAlt());
-										}
-									}
-
-								}
-							}
-							ensgMappingList = mappingsConverter.createGenes(mappingList, gInput, altBases, caddScores, scoreMap, variationMap, params);
-						}
-
-						GenomeProteinMapping mapping = GenomeProteinMapping.builder().genes(ensgMappingList).build();
-						gInput.getMappings().add(mapping);
-					} catch (Exception ex) {
-						gInput.getErrors().add("An exception occurred while processing this input");
-						LOGGER.error(ex.getMessage());
-					}
-				});
-			});
+		stages.put("pro2gen", context -> pro2Gen.convert(context.groupedInputs, context.rsAccsMap));
+		return stages;
+	}
 
-		}
-		return response;
+	public MappingResponse getMapping(InputParams params) {
+		if (params.getInputs() == null || params.getInputs().isEmpty())
+			return new MappingResponse(List.of());
+		return map(params, inputStages(), this::inputAltBases);
 	}
 
 	/**
@@ -250,77 +164,182 @@ public class MappingFetcher {
 	 *	ERR_REF_AND_VAR_ALLELE_SAME	ref and var same check
 	 *
 	 * Only that is needed is GenomicInput.getAlternates based on ref retrieved from db
+	 * i.e. the same mapping core as getMapping, with no input stages.
 	 *
 	 * @param params
 	 * @return
 	 */
 	public MappingResponse getGenMappings(InputParams params) {
+		return map(params, Map.of(), (input, gInput, mappingList) -> GenomicInput.getAlternates(gInput.getRef()));
+	}
+
+	/**
+	 * Mapping core shared by getMapping and getGenMappings: input stages, then lookup (CADD and
+	 * mappings), annotation (scores, variation, proteins, novel predictions, structures) and conversion of
+	 * the mappings into genes. Each stage is timed (see StageTimings).
+	 */
+	MappingResponse map(InputParams params, Map<String, InputStage> inputStages, AltBases altBases) {
 		MappingResponse response = new MappingResponse(params.getInputs());
+		StageTimings timings = new StageTimings(meterRegistry);
+
+		if (!inputStages.isEmpty()) {
+			MappingContext context = new MappingContext(params);
+			inputStages.forEach((name, stage) -> timings.time(name, () -> stage.run(context)));
+		}
 
 		// get all chrPos combination
-		Set<Object[]> chrPosSet = new HashSet<>();
-		params.getInputs().stream().forEach(userInput -> {
-			chrPosSet.addAll(userInput.chrPos());
-		});
+		CoordSet chrPosSet = new CoordSet();
+		params.getInputs().forEach(userInput -> userInput.addChrPos(chrPosSet));
 
 		if (!chrPosSet.isEmpty()) {
 
-			// retrieve CADD predictions
-			Map<String, List<CADDPrediction>> predictionMap = protVarDataRepo.getCADDByChrPos(chrPosSet)
-					.stream().collect(Collectors.groupingBy(CADDPrediction::getGroupBy));
+			// lookup stage: CADD predictions and main mappings, concurrently
+			CompletableFuture<List<CADDPrediction>> caddLookup = stageExecutor.submit(() -> protVarDataRepo.getCADDByChrPos(chrPosSet));
+			CompletableFuture<List<GenomeToProteinMapping>> mappingLookup = stageExecutor.submit(() -> protVarDataRepo.getMappingsByChrPos(chrPosSet));
+			timings.time("lookup", () -> stageExecutor.await("lookup", stageExecutor.lookupTimeout(), caddLookup, mappingLookup));
 
-			// retrieve main mappings
-			List<GenomeToProteinMapping> g2pMappings = protVarDataRepo.getMappingsByChrPos(chrPosSet);
+			Map<Long, List<CADDPrediction>> predictionMap = caddLookup.join()
+					.stream().collect(Collectors.groupingBy(CADDPrediction::chrPosKey));
+			List<GenomeToProteinMapping> g2pMappings = mappingLookup.join();
 
 			// get all protein accessions and positions from retrieved mappings
 			Set<String> canonicalAccessions = new HashSet<>();
-			Set<Coord.Prot> protCoords = new HashSet<>();
+			CoordSet accPosSet = new CoordSet();
 			g2pMappings.stream().filter(GenomeToProteinMapping::isCanonical).forEach(m -> {
 				if (!Commons.nullOrEmpty(m.getAccession())) {
 					canonicalAccessions.add(m.getAccession());
-					if (Commons.notNull(m.getIsoformPosition()))
-						protCoords.add(new Coord.Prot(m.getAccession(), m.getIsoformPosition()));
+					accPosSet.add(m.getAccession(), m.getIsoformPosition());
 				}
 			});
-			Set<Object[]> accPosSet = protCoords.stream().map(s -> s.toObjectArray()).collect(Collectors.toSet());
 
-			final Map<String, List<Variation>> variationMap = params.isPop() ? variationFetcher.prefetchdb(accPosSet) : new HashedMap();
+			// annotation stage, on the mapped positions: scores, variation, proteins, novel
+			// predictions and structures, concurrently
+			CompletableFuture<Map<Coord.Prot, List<Variation>>> variationLookup = params.isPop()
+					? stageExecutor.submit(() -> variationFetcher.prefetchdb(accPosSet)) : CompletableFuture.completedFuture(new HashedMap());
+			CompletableFuture<Void> proteinsPrefetch = params.isFun()
+					? stageExecutor.submit(() -> { proteinsFetcher.prefetch(canonicalAccessions); return null; }) : CompletableFuture.completedFuture(null);
+
+			// retrieve novel predictions in one query per table, instead of per isoform
+			CompletableFuture<Map<Coord.Prot, List<Pocket>>> pocketLookup = params.isFun()
+					? stageExecutor.submit(() -> protVarDataRepo.getPockets(accPosSet)) : CompletableFuture.completedFuture(Map.of());
+			CompletableFuture<Map<Coord.Prot, List<Interaction>>> interactionLookup = params.isFun()
+					? stageExecutor.submit(() -> protVarDataRepo.getInteractions(accPosSet)) : CompletableFuture.completedFuture(Map.of());
+			CompletableFuture<Map<Coord.Prot, List<Foldx>>> foldxLookup = params.isFun()
+					? stageExecutor.submit(() -> protVarDataRepo.getFoldxs(accPosSet)) : CompletableFuture.completedFuture(Map.of());
+
+			// structures of all the positions, one pass per accession
+			CompletableFuture<Map<Coord.Prot, List<PDBeStructureResidue>>> structureLookup = params.isStr()
+					? stageExecutor.submit(() -> pdbeFetcher.fetch(accPosSet)) : CompletableFuture.completedFuture(Map.of());
+
+			// retrieve AA scores, one concurrent query per source
+			CompletableFuture<Map<Coord.Prot, List<Score>>> scoreLookup = stageExecutor.submit(() -> scoreFetcher.fetch(accPosSet, ScoreFetcher.ALL));
+
+			timings.time("annotation", () -> stageExecutor.await("annotation", stageExecutor.annotationTimeout(),
+					variationLookup, proteinsPrefetch, pocketLookup, interactionLookup, foldxLookup, structureLookup, scoreLookup));
+
+			final Map<Coord.Prot, List<Variation>> variationMap = variationLookup.join();
+			final Map<Coord.Prot, List<Pocket>> pocketMap = pocketLookup.join();
+			final Map<Coord.Prot, List<Interaction>> interactionMap = interactionLookup.join();
+			final Map<Coord.Prot, List<Foldx>> foldxMap = foldxLookup.join();
+			final Map<Coord.Prot, List<PDBeStructureResidue>> structureMap = structureLookup.join();
+			final Map<Coord.Prot, List<Score>> scoreMap = scoreLookup.join();
+
+			Map<Long, List<GenomeToProteinMapping>> map = g2pMappings.stream()
+					.collect(Collectors.groupingBy(GenomeToProteinMapping::chrPosKey));
+
+			timings.time("convert", () -> params.getInputs().stream().filter(UserInput::isValid).forEach(input -> {
+				for (GenomicInput gInput : input.genInputs()) {
+					try {
+						List<GenomeToProteinMapping> mappingList = map.get(gInput.chrPosKey());
+						List<CADDPrediction> caddScores = predictionMap.get(gInput.chrPosKey());
+
+						List<Gene> ensgMappingList;
 
-			if (params.isFun())
-				proteinsFetcher.prefetch(canonicalAccessions);
+						if (mappingList == null || mappingList.isEmpty()) {
+							ensgMappingList = new ArrayList<>();
+						} else {
+							ensgMappingList = mappingsConverter.createGenes(mappingList, gInput, altBases.of(input, gInput, mappingList),
+									caddScores, scoreMap, variationMap, pocketMap, interactionMap, foldxMap, structureMap, params);
+						}
 
-			// retrieve AA scores
-			Map<String, List<Score>> scoreMap = protVarDataRepo.getScores(accPosSet)
-					.stream().collect(Collectors.groupingBy(Score::getGroupBy));
+						GenomeProteinMapping mapping = GenomeProteinMapping.builder().genes(ensgMappingList).build();
+						gInput.getMappings().add(mapping);
+					} catch (Exception ex) {
+						gInput.getErrors().add("An exception occurred while processing this input");
+						LOGGER.error(ex.getMessage());
+					}
+				}
+			}));
+		}
+		LOGGER.debug("Mapped {} inputs: {}", params.getInputs().size(), timings);
+		return response;
+	}
 
-			Map<String, List<GenomeToProteinMapping>> map = g2pMappings.stream()
-					.collect(Collectors.groupingBy(GenomeToProteinMapping::getGroupBy));
+	private static Set<String> rsAccs(InputParams params) {
+		Set<String> rsAccs = new HashSet<>();
+		params.getInputs().stream().forEach(userInput -> {
+			String rsAcc = null;
+			if (userInput instanceof HGVSp)
+				rsAcc = ((HGVSp) userInput).getRsAcc();
+			else if (userInput instanceof HGVSc)
+				rsAcc = ((HGVSc) userInput).getRsAcc();
 
-			params.getInputs().stream().filter(UserInput::isValid).map(i -> (GenomicInput) i).forEach(gInput -> { // all inputs are genomic
+			if (rsAcc != null && rsAcc.length() > 0) {
+				int dotIdx = rsAcc.lastIndexOf(".");
+				if (dotIdx != -1)
+					rsAcc = rsAcc.substring(0, dotIdx);
+				if (!rsAccs.contains(rsAcc))
+					rsAccs.add(rsAcc);
+			}
+		});
+		return rsAccs;
+	}
 
-				try {
-					List<GenomeToProteinMapping> mappingList = map.get(gInput.groupByChrAndPos());
-					List<CADDPrediction> caddScores = predictionMap.get(gInput.groupByChrAndPos());
+	/**
+	 * Alt bases of user inputs, checking (and correcting) the alleles of genomic inputs against
+	 * the reference.
+	 */
+	private Set<String> inputAltBases(UserInput input, GenomicInput gInput, List<GenomeToProteinMapping> mappingList) {
+		Set<String> altBases = new HashSet<>();
+		if (gInput.getAlt() != null)
+			altBases.add(gInput.getAlt());
+
+		if (input instanceof GenomicInput || input instanceof VCF ||
+				input instanceof Gnomad || input instanceof HGVSg) {
+
+			String refBase = mappingList.get(0).getBaseNucleotide();
+
+			if (gInput.getRef() == null && gInput.getAlt() == null) {
+				gInput.addWarning(ErrorConstants.ERR_REF_ALLELE_EMPTY);
+				gInput.setRef(refBase);
+				altBases = GenomicInput.getAlternates(refBase);
+			} else if (gInput.getRef() != null) {
+
+				if (!gInput.getRef().equalsIgnoreCase(refBase)) {
+					gInput.addWarning(
+							String.format(ErrorConstants.ERR_REF_ALLELE_MISMATCH.toString(),
+									gInput.getRef(),
+									refBase));
+					gInput.setRef(refBase);
+				}
 
-					List<Gene> ensgMappingList;
+				altBases = GenomicInput.getAlternates(gInput.getRef());
 
-					if (mappingList == null || mappingList.isEmpty()) {
-						ensgMappingList = new ArrayList<>();
+				if (gInput.getAlt() == null) {
+					gInput.addWarning(ErrorConstants.ERR_VAR_ALLELE_EMPTY);
+				} else {
+					// alt should not be same as ref
+					if (gInput.getAlt().equalsIgnoreCase(refBase)) {
+						gInput.addWarning(ErrorConstants.ERR_REF_AND_VAR_ALLELE_SAME);
+						// use all alt bases
 					} else {
-						Set<String> altBases = GenomicInput.getAlternates(gInput.getRef());
-						ensgMappingList = mappingsConverter.createGenes(mappingList, gInput, altBases, caddScores, scoreMap, variationMap, params);
+						altBases = Set.of(gInput.getAlt());
 					}
-
-					GenomeProteinMapping mapping = GenomeProteinMapping.builder().genes(ensgMappingList).build();
-					gInput.getMappings().add(mapping);
-				} catch (Exception ex) {
-					gInput.getErrors().add("An exception occurred while processing this input");
-					LOGGER.error(ex.getMessage());
 				}
-			});
 
+			}
 		}
-		return response;
+		return altBases;
 	}
 
 }
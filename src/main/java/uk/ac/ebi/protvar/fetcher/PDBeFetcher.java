@@ -7,8 +7,12 @@ import org.springframework.stereotype.Service;
 import uk.ac.ebi.pdbe.api.PDBeAPI;
 import uk.ac.ebi.pdbe.cache.PDBeCache;
 import uk.ac.ebi.pdbe.model.PDBeStructureResidue;
+import uk.ac.ebi.protvar.model.Coord;
+import uk.ac.ebi.protvar.model.CoordSet;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @AllArgsConstructor
@@ -30,4 +34,23 @@ public class PDBeFetcher {
 		}
 		return pdbeAPI.get(accession, position);
 	}
+
+	/**
+	 * Structures of all the positions of the set, one pass per accession.
+	 * @return structure residues by acc-pos; positions in no structure are absent
+	 */
+	public Map<Coord.Prot, List<PDBeStructureResidue>> fetch(CoordSet accPosSet) {
+		Map<Coord.Prot, List<PDBeStructureResidue>> structureMap = new HashMap<>();
+		for (String accession : accPosSet.seqs()) {
+			int[] positions = accPosSet.positions(accession);
+			if (CACHE) {
+				pdbeCache.get(accession, positions)
+						.forEach((position, residues) -> structureMap.put(new Coord.Prot(accession, position), residues));
+			} else {
+				for (int position : positions)
+					structureMap.put(new Coord.Prot(accession, position), pdbeAPI.get(accession, position));
+			}
+		}
+		return structureMap;
+	}
 }
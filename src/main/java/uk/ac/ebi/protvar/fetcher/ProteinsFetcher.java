@@ -3,11 +3,14 @@ package uk.ac.ebi.protvar.fetcher;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import uk.ac.ebi.protvar.cache.ProteinCache;
 import uk.ac.ebi.protvar.converter.ProteinsAPI2ProteinConverter;
+import uk.ac.ebi.protvar.model.Coord;
+import uk.ac.ebi.protvar.model.data.Foldx;
+import uk.ac.ebi.protvar.model.data.Interaction;
+import uk.ac.ebi.protvar.model.data.Pocket;
 import uk.ac.ebi.protvar.model.response.Protein;
 import uk.ac.ebi.protvar.repo.ProtVarDataRepo;
 import uk.ac.ebi.protvar.utils.FetcherUtils;
@@ -16,10 +19,7 @@ import uk.ac.ebi.uniprot.proteins.api.ProteinsAPI;
 import uk.ac.ebi.uniprot.proteins.model.DataServiceProtein;
 import uk.ac.ebi.uniprot.proteins.model.ProteinFeature;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,18 +27,12 @@ import java.util.stream.Collectors;
 public class ProteinsFetcher {
 	private static final Logger logger = LoggerFactory.getLogger(ProteinsFetcher.class);
 
-	// first option tried
-	//private final Map<String, DataServiceProtein> dspCache = new ConcurrentHashMap<>();
-	// second option, guava cache offered automatic eviction when cache reaches specified max
-	//private final Cache<String, DataServiceProtein> dspCache = CacheBuilder.newBuilder().build();
-	// third option, disk-based cache (injected as bean)
-
 	private ProteinsAPI2ProteinConverter converter;
 	private ProteinsAPI proteinsAPI;
 
 	private ProtVarDataRepo protVarDataRepo;
 
-	private RedisTemplate dspCache;
+	private ProteinCache proteinCache;
 
 
 	/**
@@ -47,12 +41,9 @@ public class ProteinsFetcher {
 	 */
 	public void prefetch(Set<String> accessions) {
 
-		Map<Boolean, List<String>> partitioned =
-				accessions.stream().collect(
-						Collectors.partitioningBy(acc -> dspCache.hasKey(ProteinCache.keyOf(acc))));
-
-		Set<String> cached = new HashSet(partitioned.get(true));
-		Set<String> notCached = new HashSet(partitioned.get(false));
+		Set<String> cached = proteinCache.cached(accessions);
+		Set<String> notCached = new HashSet<>(accessions);
+		notCached.removeAll(cached);
 
 		logger.info("Cached proteins: {}", String.join(",", cached.toString()));
 		logger.info("Not cached proteins: {}", String.join(",", notCached.toString()));
@@ -61,12 +52,10 @@ public class ProteinsFetcher {
 
 		notCachedPartitions.stream().parallel().forEach(accessionsSet -> {
 			DataServiceProtein[] dataServiceProteins = proteinsAPI.getProtein(String.join(",", accessionsSet));
-			Set<String> newCached = new HashSet<>();
-			for (DataServiceProtein dsp : dataServiceProteins) {
-				dspCache.opsForValue().set(ProteinCache.keyOf(dsp.getAccession()), dsp);
-				newCached.add(dsp.getAccession());
-			}
-			logger.info("New cached proteins: {}", String.join(",", newCached.toString()));
+			List<DataServiceProtein> newCached = Arrays.asList(dataServiceProteins);
+			proteinCache.putAll(newCached);
+			logger.info("New cached proteins: {}", newCached.stream().map(DataServiceProtein::getAccession)
+					.collect(Collectors.joining(",")));
 		});
 	}
 
@@ -76,18 +65,47 @@ public class ProteinsFetcher {
 	 * @return Protein
 	 */
 	public Protein fetch(String accession, int position, String variantAA) {
+		Protein protein = fetchProtein(accession, position);
+		if (protein != null) {
+			// add novel predictions
+			protein.setPockets(protVarDataRepo.getPockets(accession, position));
+			protein.setInteractions(protVarDataRepo.getInteractions(accession, position));
+			protein.setFoldxs(protVarDataRepo.getFoldxs(accession, position, variantAA));
+		}
+		return protein;
+	}
+
+	/**
+	 * Same as above, with the novel predictions taken from the prefetched maps (keyed by acc-pos)
+	 * instead of being queried for each protein.
+	 * @return Protein
+	 */
+	public Protein fetch(String accession, int position, String variantAA, Map<Coord.Prot, List<Pocket>> pocketMap,
+						 Map<Coord.Prot, List<Interaction>> interactionMap, Map<Coord.Prot, List<Foldx>> foldxMap) {
+		Protein protein = fetchProtein(accession, position);
+		if (protein != null) {
+			Coord.Prot key = new Coord.Prot(accession, position);
+			protein.setPockets(pocketMap.getOrDefault(key, Collections.emptyList()));
+			protein.setInteractions(interactionMap.getOrDefault(key, Collections.emptyList()));
+			List<Foldx> foldxs = foldxMap.getOrDefault(key, Collections.emptyList());
+			if (variantAA != null && !variantAA.isEmpty()) {
+				foldxs = foldxs.stream().filter(f -> variantAA.equals(f.getMutatedType())).collect(Collectors.toList());
+			}
+			protein.setFoldxs(foldxs);
+		}
+		return protein;
+	}
+
+	private Protein fetchProtein(String accession, int position) {
 
 		if (!StringUtils.isEmpty(accession)) {
 
-			DataServiceProtein dsp = null;
-			String key = ProteinCache.keyOf(accession);
-			if (dspCache.hasKey(key))
-				dsp = (DataServiceProtein) dspCache.opsForValue().get(key);
+			DataServiceProtein dsp = proteinCache.get(accession);
 			if (dsp == null) {
 				DataServiceProtein[] dataServiceProteins = proteinsAPI.getProtein(accession);
 				if (dataServiceProteins != null && dataServiceProteins.length > 0) {
 					dsp = dataServiceProteins[0];
-					dspCache.opsForValue().set(key, dsp);
+					proteinCache.put(dsp);
 				}
 			}
 
@@ -96,10 +114,6 @@ public class ProteinsFetcher {
 				List<ProteinFeature> features = ProteinHelper.filterFeatures(protein.getFeatures(), position, position);
 				protein.setFeatures(features);
 				protein.setPosition(position);
-				// add novel predictions
-				protein.setPockets(protVarDataRepo.getPockets(accession, position));
-				protein.setInteractions(protVarDataRepo.getInteractions(accession, position));
-				protein.setFoldxs(protVarDataRepo.getFoldxs(accession, position, variantAA));
 				return protein;
 			}
 		}
@@ -0,0 +1,83 @@
+package uk.ac.ebi.protvar.fetcher;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import uk.ac.ebi.protvar.model.Coord;
+import uk.ac.ebi.protvar.model.CoordSet;
+import uk.ac.ebi.protvar.model.score.Score;
+import uk.ac.ebi.protvar.repo.ProtVarDataRepo;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Amino acid scores of a set of positions, one query per score source (conservation, EVE, ESM1b,
+ * AlphaMissense) run concurrently on the score executor - each on its own DB connection - and
+ * merged by acc-pos.
+ * Per-source query times are recorded in the protvar.score.fetch timer (tag source) and logged at
+ * debug level.
+ */
+@Service
+public class ScoreFetcher {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ScoreFetcher.class);
+
+	public static final Set<Score.Name> ALL = Collections.unmodifiableSet(EnumSet.allOf(Score.Name.class));
+
+	private final ProtVarDataRepo protVarDataRepo;
+	private final Executor executor;
+	private final Map<Score.Name, Timer> timers = new EnumMap<>(Score.Name.class);
+
+	public ScoreFetcher(ProtVarDataRepo protVarDataRepo, @Qualifier("scoreExecutor") Executor executor,
+						MeterRegistry meterRegistry) {
+		this.protVarDataRepo = protVarDataRepo;
+		this.executor = executor;
+		for (Score.Name name : Score.Name.values())
+			timers.put(name, Timer.builder("protvar.score.fetch").tag("source", name.name()).register(meterRegistry));
+	}
+
+	/**
+	 * @return the scores of the given sources, by acc-pos; positions without scores are absent.
+	 */
+	public Map<Coord.Prot, List<Score>> fetch(CoordSet accPosSet, Set<Score.Name> names) {
+		Map<Coord.Prot, List<Score>> scoreMap = new HashMap<>();
+		if (accPosSet == null || accPosSet.isEmpty() || names.isEmpty())
+			return scoreMap;
+
+		Map<Score.Name, CompletableFuture<List<Score>>> futures = new EnumMap<>(Score.Name.class);
+		for (Score.Name name : names) {
+			// a single source is run on the calling thread
+			futures.put(name, names.size() == 1
+					? CompletableFuture.completedFuture(fetch(accPosSet, name))
+					: CompletableFuture.supplyAsync(() -> fetch(accPosSet, name), executor));
+		}
+		try {
+			for (CompletableFuture<List<Score>> future : futures.values()) {
+				for (Score score : future.join())
+					scoreMap.computeIfAbsent(score.protCoord(), k -> new ArrayList<>()).add(score);
+			}
+		} catch (CompletionException ex) {
+			futures.values().forEach(f -> f.cancel(true));
+			if (ex.getCause() instanceof RuntimeException)
+				throw (RuntimeException) ex.getCause();
+			throw ex;
+		}
+		return scoreMap;
+	}
+
+	private List<Score> fetch(CoordSet accPosSet, Score.Name name) {
+		long start = System.nanoTime();
+		List<Score> scores = protVarDataRepo.getScores(accPosSet, name);
+		long elapsed = System.nanoTime() - start;
+		timers.get(name).record(elapsed, TimeUnit.NANOSECONDS);
+		LOGGER.debug("{} scores: {} rows for {} positions in {}ms", name, scores.size(), accPosSet.size(),
+				TimeUnit.NANOSECONDS.toMillis(elapsed));
+		return scores;
+	}
+}
@@ -0,0 +1,136 @@
+package uk.ac.ebi.protvar.fetcher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent lookups of a mapping stage concurrently and waits for all of them, up to
+ * the stage timeout, so a stage takes as long as its slowest lookup rather than the sum of them.
+ * The timeout runs from the start of each lookup: time queued behind other jobs' lookups, when
+ * the executor is busy, doesn't count.
+ * On timeout or failure of any lookup, the stage's other lookups are cancelled (a cancelled lookup
+ * already running still runs to completion, its result is dropped) and the failure is rethrown
+ * on the calling thread.
+ */
+public class StageExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StageExecutor.class);
+
+    private static final long QUEUED_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Executor executor;
+    private final Duration lookupTimeout;
+    private final Duration annotationTimeout;
+
+    public StageExecutor(Executor executor, Duration lookupTimeout, Duration annotationTimeout) {
+        this.executor = executor;
+        this.lookupTimeout = lookupTimeout;
+        this.annotationTimeout = annotationTimeout;
+    }
+
+    /**
+     * Timeout of the lookup stage: CADD predictions and genomic to protein mappings.
+     */
+    public Duration lookupTimeout() {
+        return lookupTimeout;
+    }
+
+    /**
+     * Timeout of the annotation stage, run on the mappings: scores, variation, proteins, novel
+     * predictions.
+     */
+    public Duration annotationTimeout() {
+        return annotationTimeout;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> lookup) {
+        Lookup<T> future = new Lookup<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) // cancelled while queued
+                    return;
+                future.startedAt = System.nanoTime();
+                try {
+                    future.complete(lookup.get());
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    /**
+     * Lookup result, with the time its lookup started running.
+     */
+    private static class Lookup<T> extends CompletableFuture<T> {
+        volatile long startedAt; // 0 while queued
+    }
+
+    /**
+     * Wait for all the lookups of a stage.
+     * @throws QueryTimeoutException if they didn't all complete within the timeout
+     */
+    public void await(String stage, Duration timeout, CompletableFuture<?>... lookups) {
+        // completes on the first failure, not waiting for the other lookups
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        for (CompletableFuture<?> lookup : lookups)
+            lookup.whenComplete((result, ex) -> { if (ex != null) failed.completeExceptionally(ex); });
+        CompletableFuture<Object> done = CompletableFuture.anyOf(CompletableFuture.allOf(lookups), failed);
+        long awaitStart = System.nanoTime();
+        try {
+            long wait;
+            while ((wait = untilDeadline(timeout, awaitStart, lookups)) > 0) {
+                try {
+                    done.get(wait, TimeUnit.NANOSECONDS);
+                    return;
+                } catch (TimeoutException ex) {
+                    // a lookup may have started meanwhile: check deadlines again
+                }
+            }
+            throw new TimeoutException();
+        } catch (TimeoutException ex) {
+            cancel(lookups);
+            LOGGER.warn("Mapping stage {} timed out after {}ms", stage, timeout.toMillis());
+            throw new QueryTimeoutException("Mapping stage " + stage + " timed out after " + timeout.toMillis() + "ms", ex);
+        } catch (InterruptedException ex) {
+            cancel(lookups);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted waiting for mapping stage " + stage);
+        } catch (ExecutionException ex) {
+            cancel(lookups);
+            Throwable cause = ex.getCause() instanceof CompletionException && ex.getCause().getCause() != null
+                    ? ex.getCause().getCause() : ex.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            throw new CompletionException(cause);
+        }
+    }
+
+    /**
+     * @return nanos until the earliest deadline of the running lookups, or until the next check
+     * when they are all still queued
+     */
+    private static long untilDeadline(Duration timeout, long awaitStart, CompletableFuture<?>... lookups) {
+        long now = System.nanoTime();
+        long wait = timeout.toNanos();
+        for (CompletableFuture<?> lookup : lookups) {
+            if (lookup.isDone())
+                continue;
+            long start = lookup instanceof Lookup ? ((Lookup<?>) lookup).startedAt : awaitStart;
+            wait = Math.min(wait, start == 0 ? QUEUED_CHECK_NANOS : start + timeout.toNanos() - now);
+        }
+        return wait;
+    }
+
+    private static void cancel(CompletableFuture<?>... lookups) {
+        for (CompletableFuture<?> lookup : lookups)
+            lookup.cancel(true);
+    }
+}
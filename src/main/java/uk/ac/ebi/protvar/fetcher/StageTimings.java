@@ -0,0 +1,52 @@
+package uk.ac.ebi.protvar.fetcher;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time taken by each stage of one mapping request, recorded in the protvar.mapping.stage timer
+ * (tag stage) and listed, in stage order, by toString() for logging.
+ */
+public class StageTimings {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Long> nanos = new LinkedHashMap<>();
+
+    public StageTimings(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void time(String stage, Runnable runnable) {
+        long start = System.nanoTime();
+        try {
+            runnable.run();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            nanos.merge(stage, elapsed, Long::sum);
+            Timer.builder("protvar.mapping.stage").tag("stage", stage).register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @return elapsed milliseconds by stage, in stage order
+     */
+    public Map<String, Long> millis() {
+        Map<String, Long> millis = new LinkedHashMap<>();
+        nanos.forEach((stage, elapsed) -> millis.put(stage, TimeUnit.NANOSECONDS.toMillis(elapsed)));
+        return Collections.unmodifiableMap(millis);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ");
+        millis().forEach((stage, elapsed) -> sj.add(stage + " " + elapsed + "ms"));
+        return sj.toString();
+    }
+}
@@ -5,8 +5,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import uk.ac.ebi.protvar.cache.RedisBatch;
 import uk.ac.ebi.protvar.cache.VariationCache;
 import uk.ac.ebi.protvar.converter.VariationAPI2VariationConverter;
+import uk.ac.ebi.protvar.model.Coord;
+import uk.ac.ebi.protvar.model.CoordSet;
 import uk.ac.ebi.protvar.model.response.PopulationObservation;
 import uk.ac.ebi.protvar.model.response.Variation;
 import uk.ac.ebi.protvar.repo.VariationRepo;
@@ -36,12 +39,12 @@ public class VariationFetcher {
 	 * subsequent retrieval.
 	 */
 	public void prefetch(Set<String> accessionLocations) {
-		Map<Boolean, List<String>> partitioned =
-				accessionLocations.stream().collect(
-						Collectors.partitioningBy(accLoc -> variationCache.hasKey(VariationCache.keyOf(accLoc))));
+		Set<String> cachedKeys = RedisBatch.existing(variationCache,
+				accessionLocations.stream().map(VariationCache::keyOf).collect(Collectors.toList()));
 
-		Set<String> cached = new HashSet(partitioned.get(true));
-		Set<String> notCached = new HashSet(partitioned.get(false));
+		Set<String> cached = new HashSet<>();
+		Set<String> notCached = new HashSet<>();
+		accessionLocations.forEach(accLoc -> (cachedKeys.contains(VariationCache.keyOf(accLoc)) ? cached : notCached).add(accLoc));
 
 		logger.info("Cached variation: {}", String.join(",", cached.toString()));
 		logger.info("Not cached: {}", String.join(",", notCached.toString()));
@@ -53,7 +56,10 @@ public class VariationFetcher {
 		});
 	}
 
-	private void cacheAPIResponse(Set<String> accessionLocations) {
+	/**
+	 * @return the variations cached, by accession location; null if none could be retrieved.
+	 */
+	private Map<String, List<Variation>> cacheAPIResponse(Set<String> accessionLocations) {
 		Map<String, List<Variation>> variationMap = new ConcurrentHashMap<>();
 		for (String k: accessionLocations) {
 			variationMap.put(k, new ArrayList<>());
@@ -79,26 +85,27 @@ public class VariationFetcher {
 				}
 				logger.info("Caching variation: {}", String.join(",", accessionLocations));
 				// update cache
-				for (String key : variationMap.keySet()) {
-					variationCache.opsForValue().set(VariationCache.keyOf(key), variationMap.get(key));
-				}
+				Map<String, List<Variation>> entries = new HashMap<>();
+				variationMap.forEach((accLoc, variations) -> entries.put(VariationCache.keyOf(accLoc), variations));
+				RedisBatch.multiSet(variationCache, entries, null);
+				return variationMap;
 			}
 		}
 		catch (Exception ex) {
 			logger.error(ex.getMessage());
 		}
+		return null;
 	}
 
 	public List<Variation> fetch(String uniprotAccession, int proteinLocation) {
 		String accLoc = uniprotAccession + ":" + proteinLocation;
-		String key = VariationCache.keyOf(accLoc);
-		if (variationCache.hasKey(key))
-			return (List<Variation>) variationCache.opsForValue().get(key);
-
-		cacheAPIResponse(new HashSet<>(Arrays.asList(accLoc)));
+		List<Variation> variations = (List<Variation>) variationCache.opsForValue().get(VariationCache.keyOf(accLoc));
+		if (variations != null)
+			return variations;
 
-		if (variationCache.hasKey(key))
-			return (List<Variation>) variationCache.opsForValue().get(key);
+		Map<String, List<Variation>> variationMap = cacheAPIResponse(new HashSet<>(Arrays.asList(accLoc)));
+		if (variationMap != null && variationMap.containsKey(accLoc))
+			return variationMap.get(accLoc);
 
 		return Collections.emptyList();
 	}
@@ -117,9 +124,9 @@ public class VariationFetcher {
 		return populationObservation;
 	}
 
-	public Map<String, List<Variation>> prefetchdb(Set<Object[]> accPosSet) {
-		Map<String, List<Feature>> featureMap = variationRepo.getFeatureMap(accPosSet);
-		Map<String, List<Variation>> varMap = featureMap.entrySet()
+	public Map<Coord.Prot, List<Variation>> prefetchdb(CoordSet accPosSet) {
+		Map<Coord.Prot, List<Feature>> featureMap = variationRepo.getFeatureMap(accPosSet);
+		Map<Coord.Prot, List<Variation>> varMap = featureMap.entrySet()
 				.stream()
 				.collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().stream()
 						.filter(Objects::nonNull)
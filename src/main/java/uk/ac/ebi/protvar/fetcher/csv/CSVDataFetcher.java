@@ -8,7 +8,8 @@ import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Streams;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,7 +31,6 @@ import uk.ac.ebi.protvar.input.type.ProteinInput;
 import uk.ac.ebi.protvar.model.DownloadRequest;
 import uk.ac.ebi.protvar.model.response.*;
 import uk.ac.ebi.protvar.repo.ProtVarDataRepo;
-import uk.ac.ebi.protvar.service.PagedMappingService;
 import uk.ac.ebi.protvar.utils.*;
 
 import static uk.ac.ebi.protvar.config.PagedMapping.DEFAULT_PAGE_SIZE;
@@ -75,104 +75,100 @@ public class CSVDataFetcher {
 
 	private BuildProcessor buildProcessor;
 
+	private DownloadExecutor downloadExecutor;
+
 	public void writeCSVResult(DownloadRequest request) {
-		List<String> inputs = null;
-		String inputId = null;
-		InputBuild inputBuild = null;
+		List<String> firstInputs = new ArrayList<>(); // kept for error notifications only
 		try {
-			Path zipPath = Paths.get(downloadDir, request.getFname() + ".csv.zip");
+			Path zipPath = Paths.get(downloadDir, request.getFname() + CSVZipWriter.ZIP_EXTENSION);
 			if (Files.exists(zipPath)) {
 				LOGGER.warn("{} exists", zipPath.getFileName());
 				return;
 			}
 
+			String inputId = null;
+			InputBuild inputBuild = null;
+			Stream<List<UserInput>> inputs = null; // parsed, by partition
+			Integer pageSize = request.getPageSize() == null ? DEFAULT_PAGE_SIZE : request.getPageSize();
 			switch (request.getType()) {
 				case ID:
 					inputId = request.getInput();
-					String originalInput = inputCache.getInput(inputId);
-					if (originalInput == null) {
+					String id = inputId;
+					if (request.getPage() != null) {
+						int from = (request.getPage() - 1) * pageSize;
+						List<UserInput> pageInputs = from < 0 ? List.of() : inputCache.getUserInputs(id, from, from + pageSize);
+						inputs = pageInputs == null ? null : Stream.of(pageInputs);
+					} else {
+						inputs = inputCache.getUserInputs(id); // partitioned by input chunk
+					}
+					if (inputs == null) {
 						LOGGER.warn("{} id not found", inputId);
 						return;
-					} else {
-						List<String> originalInputList = Arrays.asList(originalInput.split("\\R|,"));
-						inputBuild = buildProcessor.determinedBuild(inputId, originalInputList, request.getAssembly());
-						if (request.getPage() == null) {
-							inputs = originalInputList;
-						} else {
-							Integer pageSize = request.getPageSize() == null ? DEFAULT_PAGE_SIZE : request.getPageSize();
-							inputs = PagedMappingService.getPage(originalInputList, request.getPage(), pageSize);
-						}
 					}
+					inputBuild = buildProcessor.determinedBuild(id, () -> inputCache.getInputLines(id), request.getAssembly());
 					break;
 
 				case PROTEIN_ACCESSION:
 					// assembly irrelevant for protein accession input
 					String proteinAcc = request.getInput();
-					if (request.getPage() == null) {
-						inputs = protVarDataRepo.getGenInputsByAccession(proteinAcc, null, null);
-					} else {
-						Integer pageSize = request.getPageSize() == null ? DEFAULT_PAGE_SIZE : request.getPageSize();
-						inputs = protVarDataRepo.getGenInputsByAccession(proteinAcc, request.getPage(), pageSize);
-					}
+					List<String> accInputs = request.getPage() == null
+							? protVarDataRepo.getGenInputsByAccession(proteinAcc, null, null)
+							: protVarDataRepo.getGenInputsByAccession(proteinAcc, request.getPage(), pageSize);
+					inputs = accInputs == null ? Stream.empty()
+							: Streams.stream(Iterators.partition(accInputs.iterator(), PARTITION_SIZE)).map(InputProcessor::parse);
 					break;
 
 				case SINGLE_VARIANT:
-					String singleVariant = request.getInput();
-					inputs = Arrays.asList(singleVariant);
+					inputs = Stream.of(InputProcessor.parse(Collections.singletonList(request.getInput())));
 					break;
 
 			}
 
-			if (inputs == null || inputs.size() == 0) {
+			if (inputs == null) {
 				LOGGER.warn("no inputs to generate download file");
 				return;
 			}
 
-			// write csv
-			Path csvPath = Paths.get(downloadDir, request.getFname() + ".csv");
-			try (OutputStreamWriter outputStreamWriter = new OutputStreamWriter(Files.newOutputStream(csvPath));
-				 CSVWriter writer = new CSVWriter(outputStreamWriter)) {
-				writer.writeNext(CSV_HEADER.split(","));
-
-				if (inputs.size() <= PARTITION_SIZE) {
-					InputParams params = InputParams.builder()
-							.id(inputId)
-							.inputs(InputProcessor.parse(inputs))
-							.fun(request.isFunction())
-							.pop(request.isPopulation())
-							.str(request.isStructure())
-							.assembly(request.getAssembly())
-							.inputBuild(inputBuild)
-							.build();
-					List<String[]> result = buildCSVResult(params);
-					writer.writeAll(result);
-				} else {
+			try (Stream<List<UserInput>> parsedInputs = inputs) {
+				Iterator<List<UserInput>> partitions = parsedInputs
+						.filter(partition -> !partition.isEmpty())
+						.peek(partition -> partition.stream()
+								.limit(Math.max(0, 11 - firstInputs.size()))
+								.forEach(input -> firstInputs.add(input.getInputStr())))
+						.iterator();
+
+				if (!partitions.hasNext()) {
+					LOGGER.warn("no inputs to generate download file");
+					return;
+				}
+
+				// write csv rows straight into the zip, partitions are mapped concurrently but written in order
+				try (CSVZipWriter zipWriter = new CSVZipWriter(downloadDir, request.getFname())) {
+					CSVWriter writer = zipWriter.writer;
+					writer.writeNext(CSV_HEADER.split(","));
+
 					final String id = inputId;
 					final InputBuild detectedBuild = inputBuild;
-					Lists.partition(inputs, PARTITION_SIZE).parallelStream()
-							.map(partition -> {
-								InputParams params = InputParams.builder()
-										.id(id)
-										.inputs(InputProcessor.parse(partition))
-										.fun(request.isFunction())
-										.pop(request.isPopulation())
-										.str(request.isStructure())
-										.assembly(request.getAssembly())
-										.inputBuild(detectedBuild)
-										.build();
-								return buildCSVResult(params);
-							})
-							.forEachOrdered(writer::writeAll);
+					downloadExecutor.runOrdered(partitions, partition -> {
+						InputParams params = InputParams.builder()
+								.id(id)
+								.inputs(partition)
+								.fun(request.isFunction())
+								.pop(request.isPopulation())
+								.str(request.isStructure())
+								.assembly(request.getAssembly())
+								.inputBuild(detectedBuild)
+								.build();
+						return buildCSVResult(params);
+					}, writer::writeAll);
+					zipWriter.complete();
 				}
 			}
-
-			// zip csv
-			FileUtils.zipFile(csvPath.toString(), zipPath.toString());
 			// results ready
 			Email.notifyUser(request);
 		} catch (Throwable t) {
-			Email.notifyUserErr(request, inputs);
-			Email.notifyDevErr(request, inputs, t);
+			Email.notifyUserErr(request, firstInputs);
+			Email.notifyDevErr(request, firstInputs, t);
 		}
 	}
 
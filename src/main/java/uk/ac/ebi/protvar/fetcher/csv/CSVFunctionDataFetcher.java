@@ -126,13 +126,10 @@ public class CSVFunctionDataFetcher {
 
 	private String buildFamily(DSPComment comment) {
 		if (comment.getText() != null && !comment.getText().isEmpty()) {
-			if (comment.getText().get(0) instanceof Map) {
-				Map<?,?> complexMap = ((Map<?,?>) comment.getText().get(0));
-				String text = complexMap.get("value").toString();
-				if (text != null && text.contains("."))
-					return text.split("\\.")[0];
-				return text;
-			}
+			String text = comment.getText().get(0).getValue();
+			if (text != null && text.contains("."))
+				return text.split("\\.")[0];
+			return text;
 		}
 		return null;
 	}
@@ -162,13 +159,10 @@ public class CSVFunctionDataFetcher {
 
 	private String buildComplex(DSPComment comment) {
 		if (comment.getText() != null && !comment.getText().isEmpty()) {
-			if (comment.getText().get(0) instanceof Map) {
-				Map<?,?> complexMap = ((Map<?,?>) comment.getText().get(0));
-				String text = complexMap.get("value").toString();
-				if (text != null && text.contains("."))
-					text = text.split("\\.")[0];
-				return text;
-			}
+			String text = comment.getText().get(0).getValue();
+			if (text != null && text.contains("."))
+				text = text.split("\\.")[0];
+			return text;
 		}
 		return null;
 
@@ -3,7 +3,9 @@ package uk.ac.ebi.protvar.fetcher.csv;
 import com.opencsv.CSVWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.ac.ebi.protvar.utils.FileUtils;
 
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
@@ -12,29 +14,59 @@ import java.nio.file.Path;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+/**
+ * Writes CSV rows straight into a zip, in a single pass.
+ * The zip is written to an in-progress file which is only renamed to its final name
+ * once complete; closing the writer without completing it discards the in-progress file.
+ */
 public class CSVZipWriter implements Closeable {
   private static final Logger logger = LoggerFactory.getLogger(CSVZipWriter.class);
+  public static final String ZIP_EXTENSION = ".csv.zip";
+  // Marks a download that is being generated
+  public static final String IN_PROGRESS_EXTENSION = ".csv.zip.part";
+  private static final int BUFFER_SIZE = 1 << 16;
+
   public final Path path;
+  public final Path inProgressPath;
   public final CSVWriter writer;
   private final ZipOutputStream zos;
+  private boolean completed;
 
   public CSVZipWriter(String dir, String id) throws IOException {
     logger.debug("Using directory: " + dir);
     String unzippedFileName = id + ".csv";
-    String zippedFileName = unzippedFileName + ".zip";
-    path = Path.of(dir, zippedFileName);
-    logger.debug("Result File created at : " + path);
-    zos = new ZipOutputStream(Files.newOutputStream(path));
+    path = Path.of(dir, id + ZIP_EXTENSION);
+    inProgressPath = Path.of(dir, id + IN_PROGRESS_EXTENSION);
+    logger.debug("Result File created at : " + inProgressPath);
+    zos = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(inProgressPath), BUFFER_SIZE));
     ZipEntry entry = new ZipEntry(unzippedFileName);
     zos.putNextEntry(entry);
     writer = new CSVWriter(new OutputStreamWriter(zos));
   }
 
+  /**
+   * Finish the zip and move it to its final path.
+   */
+  public void complete() throws IOException {
+    closeStreams();
+    FileUtils.moveAtomically(inProgressPath, path);
+    completed = true;
+  }
+
   @Override
   public void close() throws IOException {
+    if (!completed) {
+      try {
+        closeStreams();
+      } finally {
+        FileUtils.tryDelete(inProgressPath);
+      }
+    }
+  }
+
+  private void closeStreams() throws IOException {
     writer.flush();
     zos.closeEntry();
     writer.close();
-    zos.close();
   }
 }
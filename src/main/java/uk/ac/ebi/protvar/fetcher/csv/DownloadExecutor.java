@@ -0,0 +1,106 @@
+package uk.ac.ebi.protvar.fetcher.csv;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs download partitions concurrently on a dedicated executor and hands their results
+ * back in input order.
+ *
+ * In-flight partitions (submitted but not yet written) are capped globally, across all
+ * download jobs, and per job. A partition is only read from its input once a permit is
+ * obtained, so a job stops reading inputs while its results are waiting to be written.
+ */
+public class DownloadExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DownloadExecutor.class);
+
+    private final Executor executor;
+    private final Semaphore inFlight;
+    private final int maxInFlightPerJob;
+
+    public DownloadExecutor(Executor executor, int maxInFlight, int maxInFlightPerJob) {
+        this.executor = executor;
+        this.inFlight = new Semaphore(maxInFlight, true);
+        this.maxInFlightPerJob = Math.max(1, Math.min(maxInFlight, maxInFlightPerJob));
+    }
+
+    /**
+     * A submitted partition: its result, and the end of its task, which is when its permit is
+     * given back - a cancelled result doesn't stop a task already running.
+     */
+    private static class Partition<R> {
+        final CompletableFuture<R> result = new CompletableFuture<>();
+        final CompletableFuture<Void> finished = new CompletableFuture<>();
+    }
+
+    /**
+     * Map each partition with the mapper and pass the results to the writer, in partition order.
+     * The writer is only ever called from the calling thread.
+     */
+    public <T, R> void runOrdered(Iterator<T> partitions, Function<T, R> mapper, Consumer<R> writer)
+            throws InterruptedException, ExecutionException {
+        // reorder buffer: results are written from the head only, whatever order they complete in
+        Deque<Partition<R>> pending = new ArrayDeque<>();
+        try {
+            while (true) {
+                while (partitions.hasNext() && pending.size() < maxInFlightPerJob) {
+                    // Only wait for a permit when holding none, otherwise a job could wait on
+                    // permits that can only be freed by itself writing its pending results.
+                    if (pending.isEmpty()) {
+                        inFlight.acquire();
+                    } else if (!inFlight.tryAcquire()) {
+                        break;
+                    }
+                    pending.add(submit(partitions.next(), mapper));
+                }
+                Partition<R> head = pending.poll();
+                if (head == null)
+                    break;
+                try {
+                    writer.accept(head.result.get());
+                } finally {
+                    head.finished.thenRun(inFlight::release);
+                }
+            }
+        } finally {
+            if (!pending.isEmpty()) {
+                LOGGER.warn("Cancelling {} pending partitions", pending.size());
+                // partitions not started are skipped, running ones release their permit once done
+                pending.forEach(p -> {
+                    p.result.cancel(true);
+                    p.finished.thenRun(inFlight::release);
+                });
+            }
+        }
+    }
+
+    private <T, R> Partition<R> submit(T input, Function<T, R> mapper) {
+        Partition<R> partition = new Partition<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    if (!partition.result.isDone())
+                        partition.result.complete(mapper.apply(input));
+                } catch (Throwable ex) {
+                    partition.result.completeExceptionally(ex);
+                } finally {
+                    partition.finished.complete(null);
+                }
+            });
+        } catch (RuntimeException ex) { // rejected
+            inFlight.release();
+            throw ex;
+        }
+        return partition;
+    }
+}
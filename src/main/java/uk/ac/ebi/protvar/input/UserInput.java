@@ -6,6 +6,7 @@ import lombok.Setter;
 import uk.ac.ebi.protvar.input.format.id.ClinVarID;
 import uk.ac.ebi.protvar.input.format.id.CosmicID;
 import uk.ac.ebi.protvar.input.type.GenomicInput;
+import uk.ac.ebi.protvar.model.CoordSet;
 import uk.ac.ebi.protvar.model.response.Message;
 
 import java.util.*;
@@ -87,16 +88,16 @@ public abstract class UserInput {
 		return "";
 	}
 
-	abstract public List<Object[]> chrPos();
 	abstract public List<GenomicInput> genInputs();
 
-	protected List<Object[]> chrPosForDerivedGenomicInputs(List<GenomicInput> derivedGenomicInputs) {
-		List<Object[]> chrPosList = new ArrayList<>();
-		for (GenomicInput genomicInput : derivedGenomicInputs) {
+	/**
+	 * Add the chr-pos of the input, or of its derived genomic inputs, to the set.
+	 */
+	public void addChrPos(CoordSet chrPosSet) {
+		for (GenomicInput genomicInput : genInputs()) {
 			if (genomicInput.getChr() != null && genomicInput.getPos() != null)
-				chrPosList.add(new Object[]{genomicInput.getChr(), genomicInput.getPos()});
+				chrPosSet.add(genomicInput.getChr(), genomicInput.getPos());
 		}
-		return chrPosList;
 	}
 
 
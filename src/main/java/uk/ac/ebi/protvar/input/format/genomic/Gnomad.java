@@ -25,6 +25,13 @@ public class Gnomad extends GenomicInput {
         setFormat(Format.GNOMAD);
     }
 
+    /**
+     * Unparsed instance, for restoring a previously parsed input (see ParsedInputChunk).
+     */
+    public static Gnomad of(String inputStr) {
+        return new Gnomad(inputStr);
+    }
+
     // Level 1 check
     // Matches pattern: ?-?-?-?
     public static boolean matchesPattern(String inputStr) {
@@ -49,6 +49,13 @@ public class VCF extends GenomicInput {
         setFormat(Format.VCF);
     }
 
+    /**
+     * Unparsed instance, for restoring a previously parsed input (see ParsedInputChunk).
+     */
+    public static VCF of(String inputStr) {
+        return new VCF(inputStr);
+    }
+
     public static boolean matchesPattern(String inputStr) {
         return PATTERN.matcher(inputStr).find();
     }
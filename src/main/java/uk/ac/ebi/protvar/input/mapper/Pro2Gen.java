@@ -11,6 +11,7 @@ import uk.ac.ebi.protvar.input.format.coding.HGVSc;
 import uk.ac.ebi.protvar.input.format.protein.HGVSp;
 import uk.ac.ebi.protvar.input.type.GenomicInput;
 import uk.ac.ebi.protvar.input.type.ProteinInput;
+import uk.ac.ebi.protvar.model.CoordSet;
 import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
 import uk.ac.ebi.protvar.model.response.Message;
 import uk.ac.ebi.protvar.repo.ProtVarDataRepo;
@@ -46,7 +47,7 @@ public class Pro2Gen {
 
     private void convert(List<UserInput> proteinInputs, TreeMap<String, List<String>> rsAccsMap) {
         // 1. get all the accessions and positions
-        Set<Object[]> accPosSet = new HashSet<>();
+        CoordSet accPosSet = new CoordSet();
         for (UserInput input : proteinInputs) {
 
             if (input instanceof HGVSp) {
@@ -57,7 +58,8 @@ public class Pro2Gen {
                     List<String> tail =  uniprotAccs.subList(1, uniprotAccs.size());
 
                     hgvsProt.setAcc(head.get(0));
-                    accPosSet.add(new Object[]{head.get(0), hgvsProt.getPos()});
+                    if (hgvsProt.getPos() != null)
+                        accPosSet.add(head.get(0), hgvsProt.getPos());
 
                     if (tail != null) {
                         /*
@@ -84,7 +86,8 @@ public class Pro2Gen {
 
             } else if(input instanceof ProteinInput) { // custom Protein
                 ProteinInput customProt = (ProteinInput) input;
-                accPosSet.add(new Object[]{customProt.getAcc(), customProt.getPos()});
+                if (customProt.getAcc() != null && customProt.getPos() != null)
+                    accPosSet.add(customProt.getAcc(), customProt.getPos());
 
                 if (!uniprotEntryCache.isValidEntry(customProt.getAcc())) {
                     customProt.addError(String.format(ErrorConstants.PROT_UNIPROT_ACC_NOT_FOUND.toString(), customProt.getAcc()));
@@ -101,8 +104,8 @@ public class Pro2Gen {
                         cDNAProt.addWarning(
                                 String.format(ErrorConstants.HGVS_UNIPROT_ACC_NOT_FOUND.getErrorMessage()
                                         , cDNAProt.getRsAcc(), cDNAProt.getDerivedUniprotAcc()));
-                    if (cDNAProt.getDerivedProtPos() != null)
-                        accPosSet.add(new Object[]{cDNAProt.getDerivedUniprotAcc(), cDNAProt.getDerivedProtPos()});
+                    if (cDNAProt.getDerivedUniprotAcc() != null && cDNAProt.getDerivedProtPos() != null)
+                        accPosSet.add(cDNAProt.getDerivedUniprotAcc(), cDNAProt.getDerivedProtPos());
                 }
             }
         }
@@ -20,11 +20,10 @@ import uk.ac.ebi.protvar.model.grc.Assembly;
 import uk.ac.ebi.protvar.model.response.Message;
 import uk.ac.ebi.protvar.repo.ProtVarDataRepo;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class BuildProcessor {
@@ -39,11 +38,26 @@ public class BuildProcessor {
 
 
     public InputBuild determinedBuild(String id, List<String> originalInputList, String assembly) {
+        return determinedBuild(id, originalInputList::stream, assembly);
+    }
+
+    /**
+     * Same as above, but the inputs are only read (once) if the build has to be detected, and only a
+     * random sample of the genomic inputs is kept in memory while reading.
+     * @param id
+     * @param inputs supplier of the original inputs stream
+     * @param assembly
+     * @return
+     */
+    public InputBuild determinedBuild(String id, Supplier<Stream<String>> inputs, String assembly) {
         InputBuild inputBuild = null;
         if (Assembly.autodetect(assembly)) {
             inputBuild = inputCache.getInputBuild(id); // if already detected
             if (inputBuild == null) { // if not
-                List<UserInput> genomicInputs = filterGenomicInputs(originalInputList);
+                List<UserInput> genomicInputs;
+                try (Stream<String> stream = inputs.get()) {
+                    genomicInputs = sampleGenomicInputs(stream, AUTO_DETECT_SAMPLE_SIZE);
+                }
                 if (!genomicInputs.isEmpty()) {
                     inputBuild = detect(genomicInputs);
                     inputCache.cacheInputBuild(id, inputBuild);
@@ -60,23 +74,52 @@ public class BuildProcessor {
      */
     public List<UserInput> filterGenomicInputs(List<String> inputs) {
         return inputs.stream()
-                .map(inputStr -> {
-                    if (GenomicInput.startsWithChromo(inputStr)) {
-                        if (Gnomad.matchesPattern(inputStr)) // ^chr-pos-ref-alt$
-                            return Gnomad.parse(inputStr);
-
-                        if (VCF.matchesPattern(inputStr)) // ^chr pos id ref alt...
-                            return VCF.parse(inputStr);
-
-                        if (GenomicInput.matchesPattern(inputStr)) // ^chr pos( ref( alt)?)?$
-                            return GenomicInput.parse(inputStr);
-                    }
-                    return GenomicInput.invalid(inputStr);
-                })
+                .map(BuildProcessor::parseGenomicInput)
                 .filter(UserInput::isValid)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Reservoir sample of at most sampleSize valid genomic inputs, read in a single pass.
+     * @param inputs
+     * @param sampleSize
+     * @return
+     */
+    public List<UserInput> sampleGenomicInputs(Stream<String> inputs, int sampleSize) {
+        List<UserInput> sample = new ArrayList<>(sampleSize);
+        Random random = new Random();
+        long seen = 0;
+        Iterator<String> iterator = inputs.iterator();
+        while (iterator.hasNext()) {
+            UserInput input = parseGenomicInput(iterator.next());
+            if (!input.isValid())
+                continue;
+            seen++;
+            if (sample.size() < sampleSize) {
+                sample.add(input);
+            } else {
+                long j = (long) (random.nextDouble() * seen);
+                if (j < sampleSize)
+                    sample.set((int) j, input);
+            }
+        }
+        return sample;
+    }
+
+    private static UserInput parseGenomicInput(String inputStr) {
+        if (GenomicInput.startsWithChromo(inputStr)) {
+            if (Gnomad.matchesPattern(inputStr)) // ^chr-pos-ref-alt$
+                return Gnomad.parse(inputStr);
+
+            if (VCF.matchesPattern(inputStr)) // ^chr pos id ref alt...
+                return VCF.parse(inputStr);
+
+            if (GenomicInput.matchesPattern(inputStr)) // ^chr pos( ref( alt)?)?$
+                return GenomicInput.parse(inputStr);
+        }
+        return GenomicInput.invalid(inputStr);
+    }
+
 
     /**
      * TODO review and maybe incorporate following.
@@ -21,11 +21,6 @@ public abstract class CodingInput extends UserInput {
         setInputStr(inputStr);
     }
 
-    @Override
-    public List<Object[]> chrPos() {
-        return chrPosForDerivedGenomicInputs(derivedGenomicInputs);
-    }
-
     @Override
     public List<GenomicInput> genInputs() {
         return derivedGenomicInputs;
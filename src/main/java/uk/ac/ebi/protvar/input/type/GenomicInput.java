@@ -9,6 +9,7 @@ import uk.ac.ebi.protvar.input.ErrorConstants;
 import uk.ac.ebi.protvar.input.Format;
 import uk.ac.ebi.protvar.input.Type;
 import uk.ac.ebi.protvar.input.UserInput;
+import uk.ac.ebi.protvar.model.Coord;
 import uk.ac.ebi.protvar.model.response.GenomeProteinMapping;
 import uk.ac.ebi.protvar.utils.Commons;
 import uk.ac.ebi.protvar.utils.Constants;
@@ -260,6 +261,15 @@ public class GenomicInput extends UserInput {
         return Commons.joinWithDash(this.chr, this.pos);
     }
 
+    /**
+     * @return chr-pos as a long key (see Coord.chrPos), NO_CHR_POS if either is missing
+     */
+    public long chrPosKey() {
+        if (this.chr == null || this.pos == null)
+            return Coord.NO_CHR_POS;
+        return Coord.chrPos(this.chr, this.pos);
+    }
+
     // Overriding equals() to compare two Genomic objects
     @Override
     public boolean equals(Object o) {
@@ -286,14 +296,6 @@ public class GenomicInput extends UserInput {
                 && this.getInputStr().equals(g.getInputStr());
     }
 
-    @Override
-    public List<Object[]> chrPos() {
-        List<Object[]> chrPosList = new ArrayList<>();
-        if (this.chr != null && this.pos != null)
-            chrPosList.add(new Object[]{this.chr, this.pos});
-        return chrPosList;
-    }
-
     @Override
     public List<GenomicInput> genInputs() {
         return List.of(this);
@@ -33,12 +33,6 @@ public class IDInput extends UserInput {
         return "ID [id=" + id + "]";
     }
 
-    @Override
-    public List<Object[]> chrPos() {
-        return chrPosForDerivedGenomicInputs(derivedGenomicInputs);
-    }
-
-
     @Override
     public List<GenomicInput> genInputs() {
         return derivedGenomicInputs;
@@ -187,11 +187,6 @@ public class ProteinInput extends UserInput {
                 .flatMap(List::stream).collect(Collectors.toList());
     }
 
-    @Override
-    public List<Object[]> chrPos() {
-        return chrPosForDerivedGenomicInputs(derivedGenomicInputs);
-    }
-
     @Override
     public List<GenomicInput> genInputs() {
         return derivedGenomicInputs;
@@ -3,8 +3,42 @@ package uk.ac.ebi.protvar.model;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class Coord {
 
+    private static final Map<String, Integer> CHR_CODES = new ConcurrentHashMap<>();
+    static {
+        for (int i = 1; i <= 22; i++)
+            CHR_CODES.put(String.valueOf(i), i);
+        CHR_CODES.put("X", 23);
+        CHR_CODES.put("Y", 24);
+        CHR_CODES.put("MT", 25);
+    }
+    // codes of other chromosomes, taken once per name (computeIfAbsent is atomic per key)
+    private static final AtomicInteger NEXT_CHR_CODE = new AtomicInteger(26);
+
+    public static final long NO_CHR_POS = -1L; // not a valid key, chromosome codes are positive
+
+    /**
+     * Genomic position as a single long, chromosome code in the high int and position in the
+     * low int, for keying maps by chr-pos without building strings.
+     * Chromosomes other than 1-22, X, Y and MT get a code on first use, unique within this JVM.
+     */
+    public static long chrPos(String chr, int pos) {
+        return ((long) chrCode(chr) << 32) | (pos & 0xFFFFFFFFL);
+    }
+
+    static int chrCode(String chr) {
+        Integer code = CHR_CODES.get(chr);
+        if (code != null)
+            return code;
+        return CHR_CODES.computeIfAbsent(chr.toUpperCase(Locale.ROOT), k -> NEXT_CHR_CODE.getAndIncrement());
+    }
+
     @AllArgsConstructor
     @Getter
     public static class Gen {
@@ -29,33 +63,52 @@ public class Coord {
 
         @Override
         public int hashCode() {
-            return (this.chr.hashCode() + this.pos.hashCode());
+            return 31 * this.chr.hashCode() + this.pos.hashCode();
         }
 
     }
 
-    @AllArgsConstructor
+    /**
+     * Protein position (accession, position), the key of the per-position maps (scores,
+     * variations, pockets, interactions, foldx) in the mapping pipeline.
+     */
     public static class Prot {
-        String acc;
-        Integer pos;
+        @Getter
+        final String acc;
+        @Getter
+        final int pos;
+        private final int hash;
+
+        public Prot(String acc, int pos) {
+            this.acc = acc;
+            this.pos = pos;
+            this.hash = 31 * acc.hashCode() + pos;
+        }
+
         public Object[] toObjectArray() {
             return new Object[] {acc, pos};
         }
 
         @Override
         public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
             if(obj instanceof Prot)
             {
                 Prot prot = (Prot) obj;
-                if(this.acc.equals(prot.acc) && this.pos.equals(prot.pos))
-                    return true;
+                return this.pos == prot.pos && this.acc.equals(prot.acc);
             }
             return false;
         }
 
         @Override
         public int hashCode() {
-            return (this.acc.hashCode() + this.pos.hashCode());
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return acc + ":" + pos;
         }
     }
 }
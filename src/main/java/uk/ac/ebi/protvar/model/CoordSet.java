@@ -0,0 +1,151 @@
+package uk.ac.ebi.protvar.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Set of (seq, pos) coordinates - chromosome or accession, and position - used as query parameter
+ * set (chrPosSet, accPosSet) in place of Set<Object[]>, which never dedupes (arrays hash by identity)
+ * and boxes every position.
+ * Positions are kept as int arrays per seq, sorted and deduped when first read. Adding is
+ * cheapest in position order.
+ */
+public class CoordSet {
+
+    @FunctionalInterface
+    public interface CoordConsumer {
+        void accept(String seq, int pos);
+    }
+
+    /**
+     * The coordinates as two parallel columns, seqs[i] at positions[i].
+     */
+    @AllArgsConstructor
+    @Getter
+    public static class Columns {
+        private final String[] seqs;
+        private final int[] positions;
+    }
+
+    private static class Positions {
+        int[] values = new int[8];
+        int size;
+        boolean compact = true; // sorted, no duplicates
+
+        void add(int pos) {
+            if (size > 0) {
+                int last = values[size - 1];
+                if (pos == last)
+                    return;
+                if (pos < last)
+                    compact = false;
+            }
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+            values[size++] = pos;
+        }
+
+        void compact() {
+            if (compact)
+                return;
+            Arrays.sort(values, 0, size);
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (n == 0 || values[i] != values[n - 1])
+                    values[n++] = values[i];
+            }
+            size = n;
+            compact = true;
+        }
+    }
+
+    private final Map<String, Positions> positions = new LinkedHashMap<>();
+
+    public static CoordSet of(String seq, int pos) {
+        CoordSet set = new CoordSet();
+        set.add(seq, pos);
+        return set;
+    }
+
+    public synchronized void add(String seq, int pos) {
+        positions.computeIfAbsent(seq, k -> new Positions()).add(pos);
+    }
+
+    public void addAll(CoordSet other) {
+        other.forEach(this::add);
+    }
+
+    private synchronized Map<String, Positions> compacted() {
+        positions.values().forEach(Positions::compact);
+        return positions;
+    }
+
+    public boolean isEmpty() {
+        return positions.isEmpty();
+    }
+
+    /**
+     * @return the number of distinct coordinates
+     */
+    public int size() {
+        int size = 0;
+        for (Positions p : compacted().values())
+            size += p.size;
+        return size;
+    }
+
+    public Set<String> seqs() {
+        return Collections.unmodifiableSet(compacted().keySet());
+    }
+
+    /**
+     * @return the distinct positions of the seq, sorted; empty if none
+     */
+    public int[] positions(String seq) {
+        Positions p = compacted().get(seq);
+        return p == null ? new int[0] : Arrays.copyOf(p.values, p.size);
+    }
+
+    public boolean contains(String seq, int pos) {
+        Positions p = compacted().get(seq);
+        return p != null && Arrays.binarySearch(p.values, 0, p.size, pos) >= 0;
+    }
+
+    /**
+     * Coordinates grouped by seq, each in position order.
+     */
+    public void forEach(CoordConsumer consumer) {
+        for (Map.Entry<String, Positions> e : compacted().entrySet()) {
+            Positions p = e.getValue();
+            for (int i = 0; i < p.size; i++)
+                consumer.accept(e.getKey(), p.values[i]);
+        }
+    }
+
+    /**
+     * @return the coordinates as columns, in forEach order, for binding as arrays (see
+     * repo.SqlArray)
+     */
+    public synchronized Columns columns() {
+        int size = size();
+        String[] seqs = new String[size];
+        int[] positions = new int[size];
+        int i = 0;
+        for (Map.Entry<String, Positions> e : compacted().entrySet()) {
+            Positions p = e.getValue();
+            Arrays.fill(seqs, i, i + p.size, e.getKey());
+            System.arraycopy(p.values, 0, positions, i, p.size);
+            i += p.size;
+        }
+        return new Columns(seqs, positions);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", "[", "]");
+        forEach((seq, pos) -> sj.add(seq + ":" + pos));
+        return sj.toString();
+    }
+}
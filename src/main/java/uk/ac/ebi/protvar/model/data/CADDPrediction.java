@@ -2,6 +2,7 @@ package uk.ac.ebi.protvar.model.data;
 
 import lombok.Getter;
 import lombok.Setter;
+import uk.ac.ebi.protvar.model.Coord;
 
 @Getter
 @Setter
@@ -26,4 +27,8 @@ public class CADDPrediction {
 	public String getGroupBy() {
 		return this.chromosome+"-"+this.getPosition();
 	}
+
+	public long chrPosKey() {
+		return Coord.chrPos(this.chromosome, this.position);
+	}
 }
@@ -2,6 +2,7 @@ package uk.ac.ebi.protvar.model.data;
 
 import lombok.Builder;
 import lombok.Getter;
+import uk.ac.ebi.protvar.model.Coord;
 
 @Getter
 @Builder
@@ -35,6 +36,10 @@ public class GenomeToProteinMapping implements Comparable<GenomeToProteinMapping
 		return this.chromosome + "-" + this.getGenomeLocation();
 	}
 
+	public long chrPosKey() {
+		return Coord.chrPos(this.chromosome, this.genomeLocation);
+	}
+
 	public String getGroupByProteinAccAndPos() {
 		return this.accession + "-" + this.isoformPosition;
 	}
@@ -0,0 +1,41 @@
+package uk.ac.ebi.protvar.model.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * CADD scores of one input coordinate, one per line of the /cadd NDJSON response.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CADDScoreResponse {
+    private String input;
+    private String chr;
+    private Integer pos; // GRCh38, after conversion if any
+    private Boolean converted;
+    private List<Score> scores;
+    private String error;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Score {
+        private String ref;
+        private String alt;
+        private Double rawScore; // not available from the local CADD store
+        private double score;
+    }
+
+    public static CADDScoreResponse error(String input, String error) {
+        CADDScoreResponse response = new CADDScoreResponse();
+        response.setInput(input);
+        response.setError(error);
+        return response;
+    }
+}
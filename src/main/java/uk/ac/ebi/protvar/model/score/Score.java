@@ -5,8 +5,12 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import uk.ac.ebi.protvar.model.Coord;
 import uk.ac.ebi.protvar.utils.Commons;
 
+import java.util.List;
+import java.util.Objects;
+
 // Amino acid-level prediction
 @JsonInclude(Include.NON_NULL)
 @Getter
@@ -49,4 +53,29 @@ public abstract class Score {
     public String getGroupBy() {
         return Commons.joinWithDash(name, acc, pos, mt);
     }
+
+    /**
+     * @return acc-pos of the score, by which scores are grouped in the mapping pipeline
+     */
+    public Coord.Prot protCoord() {
+        return new Coord.Prot(acc, pos);
+    }
+
+    /**
+     * @return the one score with the given name and mt (mt ignored for CONSERV) among the scores
+     * of a position, or null if there is none or more than one.
+     */
+    public static Score find(List<Score> scores, Name name, String mt) {
+        Score found = null;
+        if (scores == null)
+            return null;
+        for (Score score : scores) {
+            if (score.name == name && (name == Name.CONSERV || Objects.equals(score.mt, mt))) {
+                if (found != null)
+                    return null;
+                found = score;
+            }
+        }
+        return found;
+    }
 }
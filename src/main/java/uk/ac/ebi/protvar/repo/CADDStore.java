@@ -0,0 +1,142 @@
+package uk.ac.ebi.protvar.repo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.protvar.model.data.CADDPrediction;
+import uk.ac.ebi.protvar.service.ReleaseChangedEvent;
+import uk.ac.ebi.protvar.service.ReleaseService;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Optional read-only CADD store, memory-mapped from files built offline by CADDStoreBuilder.
+ * One file per chromosome (<chr>.cadd), starting with the data release it was built from (see
+ * StoreHeader; files of another release than the current one are not used, and the store is
+ * reopened when the release changes), then fixed-width records sorted by position:
+ *   int   position
+ *   short phred score * 100 for each of the three alt alleles, in A, C, G, T order less the ref
+ *         (NO_SCORE if missing)
+ *   byte  ref allele (A, C, G or T)
+ *   byte  unused
+ * Lookups are a binary search on position (see MappedRecords).
+ * Raw scores aren't stored (not used in responses); predictions from the store have a NaN raw score.
+ * Disabled (enabled() false) unless protvar.cadd.store.dir points to a directory with store files.
+ */
+@Component
+public class CADDStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CADDStore.class);
+
+    public static final String FILE_EXTENSION = ".cadd";
+    public static final int RECORD_SIZE = 12;
+    public static final short NO_SCORE = -1;
+    static final char[] BASES = {'A', 'C', 'G', 'T'};
+
+    private final String dir;
+    private final ReleaseService releaseService;
+    private volatile Map<String, MappedRecords> chromosomes = Map.of();
+
+    public CADDStore(@Value("${protvar.cadd.store.dir:}") String dir, ReleaseService releaseService) {
+        this.dir = dir;
+        this.releaseService = releaseService;
+    }
+
+    @PostConstruct
+    public void open() {
+        chromosomes = Map.of();
+        if (dir == null || dir.isBlank())
+            return;
+        Path path = Path.of(dir);
+        if (!Files.isDirectory(path)) {
+            LOGGER.warn("CADD store {} not found, using the database", dir);
+            return;
+        }
+        String release = releaseService.current();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path, "*" + FILE_EXTENSION)) {
+            Map<String, MappedRecords> opened = new HashMap<>();
+            for (Path file : files) {
+                String chr = file.getFileName().toString().replace(FILE_EXTENSION, "");
+                MappedRecords records = MappedRecords.map(file, RECORD_SIZE);
+                if (release.equals(records.release()))
+                    opened.put(chr, records);
+                else
+                    LOGGER.error("CADD store file {} of release {}, not {}: not used", file, records.release(), release);
+            }
+            chromosomes = opened;
+            LOGGER.info("CADD store {} opened for chromosomes {}, release {}", dir, opened.keySet(), release);
+        } catch (IOException ex) {
+            LOGGER.error("CADD store {} couldn't be opened, using the database", dir, ex);
+        }
+    }
+
+    @EventListener
+    public void onReleaseChanged(ReleaseChangedEvent event) {
+        open();
+    }
+
+    public boolean enabled() {
+        return !chromosomes.isEmpty();
+    }
+
+    public boolean contains(String chr) {
+        return chromosomes.containsKey(chr);
+    }
+
+    /**
+     * @return predictions for the three alt alleles at the position (empty if none), or null if
+     * the chromosome is not in the store.
+     */
+    public List<CADDPrediction> get(String chr, int pos) {
+        MappedRecords records = chromosomes.get(chr);
+        if (records == null)
+            return null;
+        long record = records.first(pos);
+        if (record < 0)
+            return List.of();
+        return predictions(chr, records, record);
+    }
+
+    static int baseIndex(char base) {
+        switch (Character.toUpperCase(base)) {
+            case 'A': return 0;
+            case 'C': return 1;
+            case 'G': return 2;
+            case 'T': return 3;
+            default: return -1;
+        }
+    }
+
+    /**
+     * Alt alleles for the ref, in record order.
+     */
+    static char[] alts(char ref) {
+        char[] alts = new char[3];
+        int i = 0;
+        for (char base : BASES) {
+            if (base != ref)
+                alts[i++] = base;
+        }
+        return alts;
+    }
+
+    private static List<CADDPrediction> predictions(String chr, MappedRecords records, long record) {
+        int pos = records.key(record);
+        char ref = (char) records.get(record, 10);
+        char[] alts = alts(ref);
+        List<CADDPrediction> predictions = new ArrayList<>(3);
+        for (int i = 0; i < 3; i++) {
+            short score = records.getShort(record, 4 + 2 * i);
+            if (score != NO_SCORE)
+                predictions.add(new CADDPrediction(chr, pos, String.valueOf(ref), String.valueOf(alts[i]),
+                        Double.NaN, (score & 0xFFFF) / 100.0));
+        }
+        return predictions;
+    }
+}
@@ -0,0 +1,150 @@
+package uk.ac.ebi.protvar.repo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds the CADDStore files from the cadd_prediction table, offline, one file per chromosome.
+ * Usage: CADDStoreBuilder <jdbc-url> <username> <store-dir> [chromosome...]
+ * with the database password in PROTVAR_DB_PASSWORD. Files are tagged with the release of the
+ * database (see StoreHeader).
+ * Each file is written to a temporary file first and moved into place once complete, so a
+ * running application never maps a partially written file.
+ */
+public class CADDStoreBuilder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CADDStoreBuilder.class);
+
+    private static final List<String> CHROMOSOMES = List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10",
+            "11", "12", "13", "14", "15", "16", "17", "18", "19", "20", "21", "22", "X", "Y", "MT");
+
+    // the table has duplicate rows
+    private static final String SELECT_CADD_BY_CHR = """
+            SELECT DISTINCT position, allele, altallele, scores FROM cadd_prediction
+            WHERE chromosome=? ORDER BY position
+            """;
+    private static final int FETCH_SIZE = 100000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: CADDStoreBuilder <jdbc-url> <username> <store-dir> [chromosome...]"
+                    + " (password in " + StoreHeader.PASSWORD_ENV + ")");
+            System.exit(1);
+        }
+        Path dir = Files.createDirectories(Path.of(args[2]));
+        List<String> chromosomes = args.length > 3 ? Arrays.asList(args).subList(3, args.length) : CHROMOSOMES;
+        try (Connection connection = DriverManager.getConnection(args[0], args[1], StoreHeader.password())) {
+            String release = StoreHeader.release(connection);
+            LOGGER.info("Building CADD store of release {}", release);
+            connection.setAutoCommit(false); // needed for the fetch size to apply
+            for (String chr : chromosomes)
+                build(connection, release, chr, dir);
+        }
+    }
+
+    static void build(Connection connection, String release, String chr, Path dir) throws SQLException, IOException {
+        long start = System.currentTimeMillis();
+        Path file = dir.resolve(chr + CADDStore.FILE_EXTENSION);
+        Path tmp = dir.resolve(chr + CADDStore.FILE_EXTENSION + ".tmp");
+        long records;
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_CADD_BY_CHR);
+             Writer writer = new Writer(tmp, release)) {
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setString(1, chr);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next())
+                    writer.add(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getDouble(4));
+            }
+            records = writer.records();
+        }
+        if (records == 0) {
+            Files.delete(tmp);
+            LOGGER.info("No CADD predictions for chromosome {}", chr);
+            return;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.info("Chromosome {}: {} positions written in {}ms", chr, records, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Writes store records from predictions in position order, one record per position.
+     */
+    static class Writer implements Closeable {
+        private final DataOutputStream out;
+        private int pos = -1;
+        private char ref;
+        private final short[] scores = new short[3];
+        private long records;
+
+        Writer(Path file, String release) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+            StoreHeader.write(out, release);
+        }
+
+        void add(int pos, String ref, String alt, double score) throws IOException {
+            if (ref == null || alt == null || ref.length() != 1 || alt.length() != 1
+                    || CADDStore.baseIndex(ref.charAt(0)) < 0 || CADDStore.baseIndex(alt.charAt(0)) < 0)
+                return;
+            if (pos < this.pos)
+                throw new IllegalStateException("Predictions not in position order at " + pos);
+            char refBase = Character.toUpperCase(ref.charAt(0));
+            if (pos != this.pos) {
+                flush();
+                this.pos = pos;
+                this.ref = refBase;
+                Arrays.fill(scores, CADDStore.NO_SCORE);
+            } else if (refBase != this.ref) {
+                return; // conflicting ref, keep the first
+            }
+            int i = altIndex(Character.toUpperCase(alt.charAt(0)));
+            if (i >= 0)
+                scores[i] = (short) Math.round(Math.max(0, Math.min(score, 655.34)) * 100);
+        }
+
+        private int altIndex(char alt) {
+            char[] alts = CADDStore.alts(ref);
+            for (int i = 0; i < alts.length; i++) {
+                if (alts[i] == alt)
+                    return i;
+            }
+            return -1;
+        }
+
+        private void flush() throws IOException {
+            if (pos < 0)
+                return;
+            out.writeInt(pos);
+            for (short score : scores)
+                out.writeShort(score);
+            out.writeByte(ref);
+            out.writeByte(0);
+            records++;
+        }
+
+        long records() throws IOException {
+            flush();
+            pos = -1;
+            out.flush();
+            return records;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -8,29 +8,29 @@ import org.springframework.stereotype.Repository;
 import uk.ac.ebi.protvar.model.data.ClinVar;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 @Repository
 @AllArgsConstructor
 public class ClinVarRepo {
     public static final String SELECT_CLINVAR_WHERE_RCV_IN = """
         SELECT DISTINCT c.rcv, c.chr, c.pos, c.ref, c.alt FROM clinvar c
-        INNER JOIN (VALUES :rcvs) AS t(rcv)
+        INNER JOIN unnest(CAST(:rcvs AS text[])) AS t(rcv)
         ON t.rcv=c.rcv
         """;
     public static final String SELECT_CLINVAR_WHERE_VCV_IN = """
         SELECT DISTINCT c.vcv, c.chr, c.pos, c.ref, c.alt FROM clinvar c
-        INNER JOIN (VALUES :vcvs) AS t(vcv)
+        INNER JOIN unnest(CAST(:vcvs AS text[])) AS t(vcv)
         ON t.vcv=c.vcv
         """;
 
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
-    public List<ClinVar> getByRCV(Set<Object[]> rcvs) {
+    public List<ClinVar> getByRCV(Collection<String> rcvs) {
         if (rcvs == null || rcvs.isEmpty())
             return new ArrayList<>();
-        SqlParameterSource parameters = new MapSqlParameterSource("rcvs", rcvs);
+        SqlParameterSource parameters = new MapSqlParameterSource("rcvs", SqlArray.text(rcvs));
         return namedParameterJdbcTemplate.query(SELECT_CLINVAR_WHERE_RCV_IN, parameters, (rs, rowNum) ->
                 ClinVar.builder().rcv(rs.getString("rcv"))
                         .chr(rs.getString("chr"))
@@ -40,10 +40,10 @@ public class ClinVarRepo {
                         .build());
     }
 
-    public List<ClinVar> getByVCV(Set<Object[]> vcvs) {
+    public List<ClinVar> getByVCV(Collection<String> vcvs) {
         if (vcvs == null || vcvs.isEmpty())
             return new ArrayList<>();
-        SqlParameterSource parameters = new MapSqlParameterSource("vcvs", vcvs);
+        SqlParameterSource parameters = new MapSqlParameterSource("vcvs", SqlArray.text(vcvs));
         return namedParameterJdbcTemplate.query(SELECT_CLINVAR_WHERE_VCV_IN, parameters, (rs, rowNum) ->
                 ClinVar.builder().vcv(rs.getString("vcv"))
                         .chr(rs.getString("chr"))
@@ -10,29 +10,29 @@ import uk.ac.ebi.protvar.model.data.Cosmic;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 @Repository
 @AllArgsConstructor
 public class CosmicRepo {
     public static final String SELECT_COSMIC_WHERE_ID_IN = """
             SELECT DISTINCT c.id, c.chr, c.pos, c.ref, c.alt FROM cosmic c
-            INNER JOIN (VALUES :ids) AS t(id)
+            INNER JOIN unnest(CAST(:ids AS text[])) AS t(id)
             ON t.id=c.id
             """;
     public static final String SELECT_COSMIC_WHERE_LEGACY_ID_IN = """
             SELECT DISTINCT c.legacy_id, c.chr, c.pos, c.ref, c.alt FROM cosmic c
-            INNER JOIN (VALUES :ids) AS t(id)
+            INNER JOIN unnest(CAST(:ids AS text[])) AS t(id)
             ON t.id=c.legacy_id
             """;
 
     private NamedParameterJdbcTemplate jdbcTemplate;
 
-    public List<Cosmic> getById(Set<Object[]> ids) {
+    public List<Cosmic> getById(Collection<String> ids) {
         if (ids == null || ids.isEmpty())
             return new ArrayList<>();
-        SqlParameterSource parameters = new MapSqlParameterSource("ids", ids);
+        SqlParameterSource parameters = new MapSqlParameterSource("ids", SqlArray.text(ids));
         return jdbcTemplate.query(SELECT_COSMIC_WHERE_ID_IN, parameters, (rs, rowNum) -> {
             Cosmic cosmic = createCosmic(rs);
             cosmic.setId(rs.getString("id"));
@@ -40,10 +40,10 @@ public class CosmicRepo {
         });
     }
 
-    public List<Cosmic> getByLegacyId(Set<Object[]> ids) {
+    public List<Cosmic> getByLegacyId(Collection<String> ids) {
         if (ids == null || ids.isEmpty())
             return new ArrayList<>();
-        SqlParameterSource parameters = new MapSqlParameterSource("ids", ids);
+        SqlParameterSource parameters = new MapSqlParameterSource("ids", SqlArray.text(ids));
         return jdbcTemplate.query(SELECT_COSMIC_WHERE_LEGACY_ID_IN, parameters, (rs, rowNum) -> {
             Cosmic cosmic = createCosmic(rs);
             cosmic.setLegacyId(rs.getString("legacy_id"));
@@ -10,23 +10,23 @@ import uk.ac.ebi.protvar.model.data.Dbsnp;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 @Repository
 @AllArgsConstructor
 public class DbsnpRepo {
     public static final String SELECT_DBSNP_WHERE_ID_IN = """
         SELECT DISTINCT d.* FROM dbsnp d
-        INNER JOIN (VALUES :ids) AS t(id)
+        INNER JOIN unnest(CAST(:ids AS text[])) AS t(id)
         ON t.id=d.id
         """;
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
-    public List<Dbsnp> getById(Set<Object[]> ids) {
+    public List<Dbsnp> getById(Collection<String> ids) {
         if (ids == null || ids.isEmpty())
             return new ArrayList<>();
-        SqlParameterSource parameters = new MapSqlParameterSource("ids", ids);
+        SqlParameterSource parameters = new MapSqlParameterSource("ids", SqlArray.text(ids));
         return namedParameterJdbcTemplate.query(SELECT_DBSNP_WHERE_ID_IN, parameters, (rs, rowNum) -> createDbsnp(rs));
     }
 
@@ -0,0 +1,97 @@
+package uk.ac.ebi.protvar.repo;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only file of fixed-size records sorted by an int key at offset 0, memory-mapped in
+ * segments so files larger than what a single buffer can map (2GB) are supported.
+ * Records follow the file header (see StoreHeader).
+ */
+class MappedRecords {
+    private final MappedByteBuffer[] segments;
+    private final int recordSize;
+    private final int segmentRecords;
+    private final long records;
+    private final String release;
+
+    private MappedRecords(MappedByteBuffer[] segments, int recordSize, int segmentRecords, long records, String release) {
+        this.segments = segments;
+        this.recordSize = recordSize;
+        this.segmentRecords = segmentRecords;
+        this.records = records;
+        this.release = release;
+    }
+
+    static MappedRecords map(Path file, int recordSize) throws IOException {
+        int segmentRecords = (Integer.MAX_VALUE / recordSize) & ~0xFFFF;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            String release = StoreHeader.read(channel);
+            long header = channel.position();
+            long records = (channel.size() - header) / recordSize;
+            int n = (int) ((records + segmentRecords - 1) / segmentRecords);
+            MappedByteBuffer[] segments = new MappedByteBuffer[n];
+            for (int i = 0; i < n; i++) {
+                long first = (long) i * segmentRecords;
+                long size = Math.min(segmentRecords, records - first) * recordSize;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, header + first * recordSize, size);
+                segments[i].order(ByteOrder.BIG_ENDIAN);
+            }
+            return new MappedRecords(segments, recordSize, segmentRecords, records, release); // mapping outlives the channel
+        }
+    }
+
+    /**
+     * @return the data release the file was built from
+     */
+    String release() {
+        return release;
+    }
+
+    long records() {
+        return records;
+    }
+
+    private MappedByteBuffer segment(long record) {
+        return segments[(int) (record / segmentRecords)];
+    }
+
+    private int offset(long record, int field) {
+        return (int) (record % segmentRecords) * recordSize + field;
+    }
+
+    int getInt(long record, int field) {
+        return segment(record).getInt(offset(record, field));
+    }
+
+    short getShort(long record, int field) {
+        return segment(record).getShort(offset(record, field));
+    }
+
+    byte get(long record, int field) {
+        return segment(record).get(offset(record, field));
+    }
+
+    int key(long record) {
+        return getInt(record, 0);
+    }
+
+    /**
+     * @return the first record with the given key, or -1 if none.
+     */
+    long first(int key) {
+        long lo = 0, hi = records;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (key(mid) < key)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo < records && key(lo) == key ? lo : -1;
+    }
+}
@@ -0,0 +1,229 @@
+package uk.ac.ebi.protvar.repo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
+import uk.ac.ebi.protvar.service.ReleaseChangedEvent;
+import uk.ac.ebi.protvar.service.ReleaseService;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Optional read-only genomic to protein mapping index, memory-mapped from files built at import
+ * time by MappingIndexBuilder, serving getMappingsByChrPos without the database.
+ * Every file starts with the data release it was built from (see StoreHeader); files of another
+ * release than the current one are not used, and the index is reopened when the release changes.
+ * - strings.dict: dictionary of the string columns (accessions, Ensembl IDs with version, gene
+ *   and protein names, ...), each stored once and loaded on heap, so mappings read from the
+ *   index share their strings rather than allocating new ones per row.
+ * - <chr>.g2p: fixed-width records sorted by genomic position, canonical first, one per row
+ *   of genomic_protein_mapping with a codon:
+ *     int  genomic position, protein position
+ *     int  codon, packed (PACKED_CODON flag, 3 bits per base: A, C, G, T + lowercase bit), or
+ *          dictionary id if it doesn't pack
+ *     int  dictionary id (NULL_ID for null) of allele, protein_seq, accession, ensg, ensp,
+ *          enst, ense, patch_name, gene_name, protein_name
+ *     byte codon position
+ *     byte flags (reverse strand, is match, canonical, MANE select)
+ *     short unused
+ * Disabled (enabled() false) unless protvar.mapping.index.dir points to a directory with index files.
+ */
+@Component
+public class MappingIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappingIndex.class);
+
+    public static final String DICTIONARY_FILE = "strings.dict";
+    public static final String FILE_EXTENSION = ".g2p";
+    public static final int RECORD_SIZE = 56;
+    public static final int NULL_ID = -1;
+    static final int PACKED_CODON = 1 << 31;
+
+    // record fields
+    static final int PROTEIN_POSITION = 4;
+    static final int CODON = 8;
+    static final int ALLELE = 12;
+    static final int AA = 16;
+    static final int ACCESSION = 20;
+    static final int ENSG = 24;
+    static final int ENSP = 28;
+    static final int ENST = 32;
+    static final int ENSE = 36;
+    static final int PATCH_NAME = 40;
+    static final int GENE_NAME = 44;
+    static final int PROTEIN_NAME = 48;
+    static final int CODON_POSITION = 52;
+    static final int FLAGS = 53;
+
+    static final int REVERSE_STRAND = 1;
+    static final int IS_MATCH = 2;
+    static final int CANONICAL = 4;
+    static final int MANE_SELECT = 8;
+
+    private static final String BASES = "ACGTacgt";
+
+    private final String dir;
+    private final ReleaseService releaseService;
+    // replaced as a whole on (re)opening, so lookups always see a consistent pair
+    private volatile Opened opened = Opened.NONE;
+
+    private static class Opened {
+        static final Opened NONE = new Opened(null, Map.of());
+
+        final String[] dictionary;
+        final Map<String, MappedRecords> chromosomes;
+
+        Opened(String[] dictionary, Map<String, MappedRecords> chromosomes) {
+            this.dictionary = dictionary;
+            this.chromosomes = chromosomes;
+        }
+    }
+
+    public MappingIndex(@Value("${protvar.mapping.index.dir:}") String dir, ReleaseService releaseService) {
+        this.dir = dir;
+        this.releaseService = releaseService;
+    }
+
+    @PostConstruct
+    public void open() {
+        opened = Opened.NONE;
+        if (dir == null || dir.isBlank())
+            return;
+        Path path = Path.of(dir);
+        if (!Files.isRegularFile(path.resolve(DICTIONARY_FILE))) {
+            LOGGER.warn("Mapping index {} not found, using the database", dir);
+            return;
+        }
+        String release = releaseService.current();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path, "*" + FILE_EXTENSION)) {
+            String[] dictionary = readDictionary(path.resolve(DICTIONARY_FILE), release);
+            if (dictionary == null) {
+                LOGGER.error("Mapping index {} not of release {}, using the database", dir, release);
+                return;
+            }
+            Map<String, MappedRecords> chromosomes = new HashMap<>();
+            for (Path file : files) {
+                String chr = file.getFileName().toString().replace(FILE_EXTENSION, "");
+                MappedRecords records = MappedRecords.map(file, RECORD_SIZE);
+                if (release.equals(records.release()))
+                    chromosomes.put(chr, records);
+                else
+                    LOGGER.error("Mapping index file {} of release {}, not {}: not used", file, records.release(), release);
+            }
+            opened = new Opened(dictionary, chromosomes);
+            LOGGER.info("Mapping index {} opened for chromosomes {}, {} strings, release {}", dir, chromosomes.keySet(),
+                    dictionary.length, release);
+        } catch (IOException ex) {
+            LOGGER.error("Mapping index {} couldn't be opened, using the database", dir, ex);
+        }
+    }
+
+    @EventListener
+    public void onReleaseChanged(ReleaseChangedEvent event) {
+        open();
+    }
+
+    /**
+     * @return the dictionary, or null if not of the release
+     */
+    static String[] readDictionary(Path file, String release) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (!release.equals(in.readUTF()))
+                return null;
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++)
+                strings[i] = in.readUTF();
+            return strings;
+        }
+    }
+
+    public boolean enabled() {
+        return !opened.chromosomes.isEmpty();
+    }
+
+    public boolean contains(String chr) {
+        return opened.chromosomes.containsKey(chr);
+    }
+
+    /**
+     * @return mappings at the position (empty if none), canonical first, or null if the chromosome
+     * is not in the index.
+     */
+    public List<GenomeToProteinMapping> get(String chr, int pos) {
+        Opened index = opened;
+        MappedRecords records = index.chromosomes.get(chr);
+        if (records == null)
+            return null;
+        long record = records.first(pos);
+        if (record < 0)
+            return List.of();
+        List<GenomeToProteinMapping> mappings = new ArrayList<>();
+        for (; record < records.records() && records.key(record) == pos; record++)
+            mappings.add(mapping(index.dictionary, chr, records, record));
+        return mappings;
+    }
+
+    private static GenomeToProteinMapping mapping(String[] dictionary, String chr, MappedRecords records, long record) {
+        int flags = records.get(record, FLAGS);
+        return GenomeToProteinMapping.builder()
+                .chromosome(chr)
+                .genomeLocation(records.key(record))
+                .isoformPosition(records.getInt(record, PROTEIN_POSITION))
+                .baseNucleotide(string(dictionary, records, record, ALLELE))
+                .aa(string(dictionary, records, record, AA))
+                .codon(codon(dictionary, records.getInt(record, CODON)))
+                .accession(string(dictionary, records, record, ACCESSION))
+                .ensg(string(dictionary, records, record, ENSG))
+                .ensp(string(dictionary, records, record, ENSP))
+                .enst(string(dictionary, records, record, ENST))
+                .ense(string(dictionary, records, record, ENSE))
+                .reverseStrand((flags & REVERSE_STRAND) != 0)
+                .isValidRecord((flags & IS_MATCH) != 0)
+                .patchName(string(dictionary, records, record, PATCH_NAME))
+                .geneName(string(dictionary, records, record, GENE_NAME))
+                .codonPosition(records.get(record, CODON_POSITION))
+                .isCanonical((flags & CANONICAL) != 0)
+                .isManeSelect((flags & MANE_SELECT) != 0)
+                .proteinName(string(dictionary, records, record, PROTEIN_NAME))
+                .build();
+    }
+
+    private static String string(String[] dictionary, MappedRecords records, long record, int field) {
+        int id = records.getInt(record, field);
+        return id == NULL_ID ? null : dictionary[id];
+    }
+
+    private static String codon(String[] dictionary, int codon) {
+        if ((codon & PACKED_CODON) == 0)
+            return dictionary[codon];
+        char[] bases = new char[3];
+        for (int i = 0; i < 3; i++)
+            bases[i] = BASES.charAt((codon >>> (3 * i)) & 7);
+        return new String(bases);
+    }
+
+    /**
+     * @return the packed codon, or -1 if it doesn't pack (not three of A, C, G, T in any case).
+     */
+    static int packCodon(String codon) {
+        if (codon.length() != 3)
+            return -1;
+        int packed = PACKED_CODON;
+        for (int i = 0; i < 3; i++) {
+            int base = BASES.indexOf(codon.charAt(i));
+            if (base < 0)
+                return -1;
+            packed |= base << (3 * i);
+        }
+        return packed;
+    }
+}
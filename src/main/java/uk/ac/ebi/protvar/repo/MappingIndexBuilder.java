@@ -0,0 +1,198 @@
+package uk.ac.ebi.protvar.repo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static uk.ac.ebi.protvar.repo.MappingIndex.*;
+
+/**
+ * Builds the MappingIndex files from the genomic_protein_mapping table, at import time.
+ * Usage: MappingIndexBuilder <jdbc-url> <username> <index-dir> [chromosome...]
+ * with the database password in PROTVAR_DB_PASSWORD. Files are tagged with the release of the
+ * database (see StoreHeader).
+ * All files are written to temporary files first and moved into place once every chromosome is
+ * done, the dictionary last, as the chromosome files refer to it.
+ */
+public class MappingIndexBuilder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappingIndexBuilder.class);
+
+    private static final List<String> CHROMOSOMES = List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10",
+            "11", "12", "13", "14", "15", "16", "17", "18", "19", "20", "21", "22", "X", "Y", "MT");
+
+    // same order as SELECT_FROM_MAPPING_WHERE_CHR_POS_IN within a position
+    private static final String SELECT_MAPPING_BY_CHR = """
+            SELECT genomic_position, protein_position, codon, allele, protein_seq, accession,
+                ensg, ensg_ver, ensp, ensp_ver, enst, enst_ver, ense, patch_name, gene_name, protein_name,
+                codon_position, reverse_strand, is_match, is_canonical, is_mane_select
+            FROM genomic_protein_mapping
+            WHERE chromosome=? AND codon IS NOT NULL
+            ORDER BY genomic_position, is_canonical DESC
+            """;
+    private static final int FETCH_SIZE = 100000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: MappingIndexBuilder <jdbc-url> <username> <index-dir> [chromosome...]"
+                    + " (password in " + StoreHeader.PASSWORD_ENV + ")");
+            System.exit(1);
+        }
+        Path dir = Files.createDirectories(Path.of(args[2]));
+        List<String> chromosomes = args.length > 3 ? Arrays.asList(args).subList(3, args.length) : CHROMOSOMES;
+        Dictionary dictionary = new Dictionary();
+        List<String> built = new ArrayList<>();
+        String release;
+        try (Connection connection = DriverManager.getConnection(args[0], args[1], StoreHeader.password())) {
+            release = StoreHeader.release(connection);
+            connection.setAutoCommit(false); // needed for the fetch size to apply
+            for (String chr : chromosomes) {
+                if (build(connection, release, chr, dir, dictionary))
+                    built.add(chr);
+            }
+        }
+        dictionary.write(tmp(dir.resolve(DICTIONARY_FILE)), release);
+        for (String chr : built)
+            moveIntoPlace(dir.resolve(chr + FILE_EXTENSION));
+        moveIntoPlace(dir.resolve(DICTIONARY_FILE));
+        LOGGER.info("Mapping index of release {} written for chromosomes {}, {} strings", release, built, dictionary.size());
+    }
+
+    static boolean build(Connection connection, String release, String chr, Path dir, Dictionary dictionary) throws SQLException, IOException {
+        long start = System.currentTimeMillis();
+        Path tmp = tmp(dir.resolve(chr + FILE_EXTENSION));
+        long records;
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_MAPPING_BY_CHR);
+             Writer writer = new Writer(tmp, release, dictionary)) {
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setString(1, chr);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    int flags = (rs.getBoolean("reverse_strand") ? REVERSE_STRAND : 0)
+                            | (rs.getBoolean("is_match") ? IS_MATCH : 0)
+                            | (rs.getBoolean("is_canonical") ? CANONICAL : 0)
+                            | (rs.getBoolean("is_mane_select") ? MANE_SELECT : 0);
+                    writer.add(rs.getInt("genomic_position"), rs.getInt("protein_position"), rs.getString("codon"),
+                            rs.getInt("codon_position"), flags,
+                            rs.getString("allele"), rs.getString("protein_seq"), rs.getString("accession"),
+                            ensXVersion(rs.getString("ensg"), rs.getString("ensg_ver")),
+                            ensXVersion(rs.getString("ensp"), rs.getString("ensp_ver")),
+                            ensXVersion(rs.getString("enst"), rs.getString("enst_ver")),
+                            rs.getString("ense"), rs.getString("patch_name"), rs.getString("gene_name"),
+                            rs.getString("protein_name"));
+                }
+            }
+            records = writer.records();
+        }
+        if (records == 0) {
+            Files.delete(tmp);
+            LOGGER.info("No mappings for chromosome {}", chr);
+            return false;
+        }
+        LOGGER.info("Chromosome {}: {} mappings written in {}ms", chr, records, System.currentTimeMillis() - start);
+        return true;
+    }
+
+    // as StringInterner.internVersion
+    private static String ensXVersion(String ens, String ver) {
+        return (ens == null ? "" : ens) + "." + (ver == null ? "" : ver);
+    }
+
+    static Path tmp(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    static void moveIntoPlace(Path file) throws IOException {
+        Files.move(tmp(file), file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * String dictionary, ids in order of first use.
+     */
+    static class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        int id(String s) {
+            if (s == null)
+                return NULL_ID;
+            return ids.computeIfAbsent(s, k -> {
+                strings.add(k);
+                return strings.size() - 1;
+            });
+        }
+
+        int size() {
+            return strings.size();
+        }
+
+        void write(Path file, String release) throws IOException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+                StoreHeader.write(out, release);
+                out.writeInt(strings.size());
+                for (String s : strings)
+                    out.writeUTF(s);
+            }
+        }
+    }
+
+    /**
+     * Writes index records from mappings in position order.
+     */
+    static class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final Dictionary dictionary;
+        private int pos = Integer.MIN_VALUE;
+        private long records;
+
+        Writer(Path file, String release, Dictionary dictionary) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+            this.dictionary = dictionary;
+            StoreHeader.write(out, release);
+        }
+
+        /**
+         * @param strings allele, protein_seq, accession, ensg, ensp, enst, ense, patch_name,
+         *                gene_name and protein_name, in record order
+         */
+        void add(int pos, int proteinPos, String codon, int codonPos, int flags, String... strings) throws IOException {
+            if (pos < this.pos)
+                throw new IllegalStateException("Mappings not in position order at " + pos);
+            if (strings.length != 10)
+                throw new IllegalArgumentException("Expected 10 strings, got " + strings.length);
+            this.pos = pos;
+            int packed = packCodon(codon);
+            out.writeInt(pos);
+            out.writeInt(proteinPos);
+            out.writeInt(packed == -1 ? dictionary.id(codon) : packed);
+            for (String s : strings)
+                out.writeInt(dictionary.id(s));
+            out.writeByte(codonPos);
+            out.writeByte(flags);
+            out.writeShort(0);
+            records++;
+        }
+
+        long records() throws IOException {
+            out.flush();
+            return records;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
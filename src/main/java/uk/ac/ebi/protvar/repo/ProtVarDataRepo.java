@@ -2,12 +2,15 @@ package uk.ac.ebi.protvar.repo;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import uk.ac.ebi.protvar.model.Coord;
+import uk.ac.ebi.protvar.model.CoordSet;
 import uk.ac.ebi.protvar.input.UserInput;
 import uk.ac.ebi.protvar.model.data.*;
 import uk.ac.ebi.protvar.model.score.EVEScore;
 import uk.ac.ebi.protvar.model.score.Score;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public interface ProtVarDataRepo {
@@ -15,8 +18,8 @@ public interface ProtVarDataRepo {
 	//================================================================================
 	// GenomeToProteinMapping
 	//================================================================================
-	List<GenomeToProteinMapping> getMappingsByChrPos(Set<Object[]> chrPosSet);
-	List<GenomeToProteinMapping> getMappingsByAccPos(Set<Object[]> accPosList);
+	List<GenomeToProteinMapping> getMappingsByChrPos(CoordSet chrPosSet);
+	List<GenomeToProteinMapping> getMappingsByAccPos(CoordSet accPosSet);
 
 
 	List<String> getGenInputsByAccession(String accession, Integer page, Integer pageSize);
@@ -25,7 +28,7 @@ public interface ProtVarDataRepo {
 	//================================================================================
 	// CADDPrediction
 	//================================================================================
-	List<CADDPrediction> getCADDByChrPos(Set<Object[]> chrPosSet);
+	List<CADDPrediction> getCADDByChrPos(CoordSet chrPosSet);
 
 
 	//================================================================================
@@ -50,11 +53,14 @@ public interface ProtVarDataRepo {
 	// unneeded data) in the response.
 	List<Score> getScores(String acc, Integer pos, String mt, Score.Name name);
 
-	// Used in MappingFetcher
-	// This one needs to set the acc and pos (but not wt) to enable the use of groupBy
-	// joinWithDash(name, acc, pos, mt)
-	// in building the MappingResponse.
-	List<Score> getScores(Set<Object[]> accPosSet);
+	// Used in MappingFetcher (through ScoreFetcher)
+	// These need to set the acc and pos (but not wt) to enable grouping by
+	// Score.protCoord (acc-pos) in building the MappingResponse.
+	// All sources, one after another.
+	List<Score> getScores(CoordSet accPosSet);
+
+	// One source
+	List<Score> getScores(CoordSet accPosSet, Score.Name name);
 
 	//================================================================================
 	// Foldxs, pockets, and protein interactions
@@ -64,4 +70,9 @@ public interface ProtVarDataRepo {
 	List<Interaction> getInteractions(String accession, Integer resid);
 	String getInteractionModel(String a, String b);
 
+	// Used in MappingFetcher, keyed by acc-pos
+	Map<Coord.Prot, List<Foldx>> getFoldxs(CoordSet accPosSet);
+	Map<Coord.Prot, List<Pocket>> getPockets(CoordSet accPosSet);
+	Map<Coord.Prot, List<Interaction>> getInteractions(CoordSet accPosSet);
+
 }
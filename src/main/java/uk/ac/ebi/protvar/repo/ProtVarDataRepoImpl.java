@@ -7,10 +7,13 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Repository;
+import uk.ac.ebi.protvar.model.Coord;
+import uk.ac.ebi.protvar.model.CoordSet;
 import uk.ac.ebi.protvar.input.UserInput;
 import uk.ac.ebi.protvar.input.type.GenomicInput;
 import uk.ac.ebi.protvar.model.data.*;
@@ -37,16 +40,18 @@ public class ProtVarDataRepoImpl implements ProtVarDataRepo {
 	// SQL query optimised for large "IN" input
 	// Refer to https://stackoverflow.com/questions/1009706/
 	// PostgreSQL - max number of parameters in "IN" clause
+	// Coordinates are bound as two arrays (see SqlArray.coords) and joined on unnest(...), one
+	// statement whatever the batch size.
 
 	private static final String SELECT_FROM_CADD_WHERE_CHR_POS_IN = """
    			SELECT * FROM cadd_prediction 
-   			INNER JOIN (VALUES :chrPosSet) AS t(chr,pos) 
+   			INNER JOIN unnest(CAST(:seqs AS text[]), CAST(:positions AS int[])) AS t(chr,pos) 
    			ON t.chr=chromosome AND t.pos=position
    			""";
 
 	private static final String SELECT_FROM_MAPPING_WHERE_CHR_POS_IN = """
    			SELECT * FROM genomic_protein_mapping 
-   			INNER JOIN (VALUES :chrPosSet) AS t(chr,pos) 
+   			INNER JOIN unnest(CAST(:seqs AS text[]), CAST(:positions AS int[])) AS t(chr,pos) 
    			ON t.chr=chromosome AND t.pos=genomic_position 
    			ORDER BY is_canonical DESC
    			""";
@@ -58,7 +63,7 @@ public class ProtVarDataRepoImpl implements ProtVarDataRepo {
 				chromosome, genomic_position, allele, accession, protein_position, protein_seq, 
 				codon, codon_position, reverse_strand
 			FROM genomic_protein_mapping 
-			INNER JOIN (VALUES :accPosSet) as t(acc,pos) 
+			INNER JOIN unnest(CAST(:seqs AS text[]), CAST(:positions AS int[])) AS t(acc,pos) 
 			ON t.acc=accession AND t.pos=protein_position
 			""";
 
@@ -123,6 +128,40 @@ public class ProtVarDataRepoImpl implements ProtVarDataRepo {
 		   WHERE (a=:accession AND (:resid)=ANY("a_residues_5A" || "a_residues_8A")) 
 		   OR (b=:accession AND (:resid)=ANY("b_residues_5A" || "b_residues_8A"))
 		   """;
+	// Batch versions of the above, for a set of (accession, position)
+	private static final String SELECT_POCKETS_BY_ACC_POS_IN = """
+			SELECT t._acc, t._pos, struct_id, pocket_id,
+				pocket_rad_gyration as rad_gyration,
+				pocket_energy_per_vol as energy_per_vol,
+				pocket_buriedness as buriedness,
+				pocket_resid as resid,
+				"pocket_pLDDT_mean" as mean_plddt,
+				pocket_score_combined_scaled as score
+			FROM pocket_v2
+			INNER JOIN unnest(CAST(:seqs AS text[]), CAST(:positions AS int[])) AS t(_acc,_pos)
+			ON t._acc=struct_id AND t._pos=ANY(pocket_resid)
+			ORDER BY pocket_score_combined_scaled DESC
+			""";
+
+	private static final String SELECT_FOLDXS_BY_ACC_POS_IN = """
+			SELECT t._acc, t._pos, afdb_foldx.* FROM afdb_foldx
+			INNER JOIN unnest(CAST(:seqs AS text[]), CAST(:positions AS int[])) AS t(_acc,_pos)
+			ON t._acc=protein_acc AND t._pos=position
+			""";
+
+	// union of both sides rather than an OR in the join condition
+	private static final String SELECT_INTERACTIONS_BY_ACC_POS_IN = """
+			SELECT t._acc, t._pos, a, a_residues, b, b_residues, pdockq
+			FROM af2complexes_interaction
+			INNER JOIN unnest(CAST(:seqs AS text[]), CAST(:positions AS int[])) AS t(_acc,_pos)
+			ON t._acc=a AND t._pos=ANY(a_residues)
+			UNION
+			SELECT t._acc, t._pos, a, a_residues, b, b_residues, pdockq
+			FROM af2complexes_interaction
+			INNER JOIN unnest(CAST(:seqs AS text[]), CAST(:positions AS int[])) AS t(_acc,_pos)
+			ON t._acc=b AND t._pos=ANY(b_residues)
+			""";
+
 	private static final String SELECT_INTERACTION_MODEL = "SELECT pdb_model FROM af2complexes_interaction WHERE a=:a AND b=:b";
 	private static final String SELECT_INTERACTION_MODEL_NEW = "SELECT pdb_model FROM interaction_v2 WHERE a=:a AND b=:b";
 
@@ -150,27 +189,34 @@ public class ProtVarDataRepoImpl implements ProtVarDataRepo {
 			where accession=:acc and position=:pos
 			""";
 
-	private static final String SCORES = """
-    		select 'CONSERV' as type, acc as accession, pos as position, null as mt_aa, score, null as class
-    		from conserv_score 
-    		inner join (values :accPosSet) as t(_acc,_pos)
+	// One query per source, so sources can be fetched concurrently and only those needed
+	// (see ScoreFetcher). DISTINCT keeps the de-duplication the former UNION of all four did,
+	// within each source only.
+	private static final Map<Score.Name, String> SCORES = Map.of(
+			Score.Name.CONSERV, """
+    		select distinct 'CONSERV' as type, acc as accession, pos as position, null as mt_aa, score, null as class
+    		from conserv_score
+    		inner join unnest(CAST(:seqs AS text[]), CAST(:positions AS int[])) as t(_acc,_pos)
     		on t._acc=acc and t._pos=pos
-			union    		
-         	select 'EVE' as type, accession, position, mt_aa, score, class 
-			from eve_score 
-			inner join (values :accPosSet) as t(_acc,_pos)
+    		""",
+			Score.Name.EVE, """
+			select distinct 'EVE' as type, accession, position, mt_aa, score, class
+			from eve_score
+			inner join unnest(CAST(:seqs AS text[]), CAST(:positions AS int[])) as t(_acc,_pos)
 			on t._acc=accession and t._pos=position
-			union
-			select 'ESM' as type, accession, position, mt_aa, score, null as class 
-			from esm 
-    		inner join (values :accPosSet) as t(_acc,_pos)
+			""",
+			Score.Name.ESM, """
+			select distinct 'ESM' as type, accession, position, mt_aa, score, null as class
+			from esm
+			inner join unnest(CAST(:seqs AS text[]), CAST(:positions AS int[])) as t(_acc,_pos)
 			on t._acc=accession and t._pos=position
-			union
-			select 'AM' as type, accession, position, mt_aa, am_pathogenicity as score, am_class as class 
-			from alphamissense 
-    		inner join (values :accPosSet) as t(_acc,_pos)
+			""",
+			Score.Name.AM, """
+			select distinct 'AM' as type, accession, position, mt_aa, am_pathogenicity as score, am_class as class
+			from alphamissense
+			inner join unnest(CAST(:seqs AS text[]), CAST(:positions AS int[])) as t(_acc,_pos)
 			on t._acc=accession and t._pos=position
-			""";
+			""");
 
 	// TODO add Foldx to getScores
 	private static final String FOLDX = """
@@ -181,6 +227,12 @@ public class ProtVarDataRepoImpl implements ProtVarDataRepo {
 
 	private NamedParameterJdbcTemplate jdbcTemplate;
 
+	private CADDStore caddStore;
+
+	private MappingIndex mappingIndex;
+
+	private StringInterner interner;
+
 	// Joining eve (or other genomic-based) score
 	// One way of doing it, basically to enable sorting at db level
 
@@ -286,10 +338,29 @@ public class ProtVarDataRepoImpl implements ProtVarDataRepo {
 	}
 
 	@Override
-	public List<CADDPrediction> getCADDByChrPos(Set<Object[]> chrPosSet) {
+	public List<CADDPrediction> getCADDByChrPos(CoordSet chrPosSet) {
 		if (chrPosSet == null || chrPosSet.isEmpty())
 			return EMPTY_RESULT;
-		SqlParameterSource parameters = new MapSqlParameterSource("chrPosSet", chrPosSet);
+		if (caddStore.enabled()) {
+			// served from the local store where it has the chromosome, the rest from the db
+			List<CADDPrediction> predictions = new ArrayList<>();
+			CoordSet remaining = new CoordSet();
+			chrPosSet.forEach((chr, pos) -> {
+				List<CADDPrediction> stored = caddStore.get(chr, pos);
+				if (stored == null)
+					remaining.add(chr, pos);
+				else
+					predictions.addAll(stored);
+			});
+			if (!remaining.isEmpty())
+				predictions.addAll(getCADDFromDb(remaining));
+			return predictions;
+		}
+		return getCADDFromDb(chrPosSet);
+	}
+
+	private List<CADDPrediction> getCADDFromDb(CoordSet chrPosSet) {
+		SqlParameterSource parameters = SqlArray.coords(chrPosSet);
 		return jdbcTemplate.query(SELECT_FROM_CADD_WHERE_CHR_POS_IN, parameters, (rs, rowNum) -> createPrediction(rs));
 	}
 
@@ -299,57 +370,73 @@ public class ProtVarDataRepoImpl implements ProtVarDataRepo {
 	}
 
 	@Override
-	public List<GenomeToProteinMapping> getMappingsByChrPos(Set<Object[]> chrPosSet) {
+	public List<GenomeToProteinMapping> getMappingsByChrPos(CoordSet chrPosSet) {
 		if (chrPosSet == null || chrPosSet.isEmpty())
 			return EMPTY_RESULT;
-		SqlParameterSource parameters = new MapSqlParameterSource("chrPosSet", chrPosSet);
+		if (mappingIndex.enabled()) {
+			// served from the local index where it has the chromosome, the rest from the db
+			List<GenomeToProteinMapping> mappings = new ArrayList<>();
+			CoordSet remaining = new CoordSet();
+			chrPosSet.forEach((chr, pos) -> {
+				List<GenomeToProteinMapping> indexed = mappingIndex.get(chr, pos);
+				if (indexed == null)
+					remaining.add(chr, pos);
+				else
+					mappings.addAll(indexed);
+			});
+			if (!remaining.isEmpty())
+				mappings.addAll(getMappingsFromDb(remaining));
+			return mappings;
+		}
+		return getMappingsFromDb(chrPosSet);
+	}
+
+	private List<GenomeToProteinMapping> getMappingsFromDb(CoordSet chrPosSet) {
+		SqlParameterSource parameters = SqlArray.coords(chrPosSet);
 
 		return jdbcTemplate.query(SELECT_FROM_MAPPING_WHERE_CHR_POS_IN, parameters, (rs, rowNum) -> createMapping(rs))
 				.stream().filter(gm -> Objects.nonNull(gm.getCodon())).collect(Collectors.toList());
 	}
 
+	// repeated string columns are interned, rows of the same gene/transcript share them
 	private GenomeToProteinMapping createMapping(ResultSet rs) throws SQLException {
 		return GenomeToProteinMapping.builder()
-				.chromosome(rs.getString("chromosome"))
+				.chromosome(interner.intern(rs.getString("chromosome")))
 				.genomeLocation(rs.getInt("genomic_position"))
 				.isoformPosition(rs.getInt("protein_position"))
-				.baseNucleotide(rs.getString("allele"))
-				.aa(rs.getString("protein_seq"))
-				.codon(rs.getString("codon"))
-				.accession(rs.getString("accession"))
-				.ensg(ensXVersion(rs.getString("ensg"), rs.getString("ensg_ver")))
-				.ensp(ensXVersion(rs.getString("ensp"), rs.getString("ensp_ver")))
-				.enst(ensXVersion(rs.getString("enst"), rs.getString("enst_ver")))
-				.ense(rs.getString("ense"))
+				.baseNucleotide(interner.intern(rs.getString("allele")))
+				.aa(interner.intern(rs.getString("protein_seq")))
+				.codon(interner.intern(rs.getString("codon")))
+				.accession(interner.intern(rs.getString("accession")))
+				.ensg(interner.internVersion(rs.getString("ensg"), rs.getString("ensg_ver")))
+				.ensp(interner.internVersion(rs.getString("ensp"), rs.getString("ensp_ver")))
+				.enst(interner.internVersion(rs.getString("enst"), rs.getString("enst_ver")))
+				.ense(interner.intern(rs.getString("ense")))
 				.reverseStrand(rs.getBoolean("reverse_strand"))
 				.isValidRecord(rs.getBoolean("is_match"))
-				.patchName(rs.getString("patch_name"))
-				.geneName(rs.getString("gene_name"))
+				.patchName(interner.intern(rs.getString("patch_name")))
+				.geneName(interner.intern(rs.getString("gene_name")))
 				.codonPosition(rs.getInt("codon_position"))
 				.isCanonical(rs.getBoolean("is_canonical"))
 				.isManeSelect(rs.getBoolean("is_mane_select"))
-				.proteinName(rs.getString("protein_name"))
+				.proteinName(interner.intern(rs.getString("protein_name")))
 				.build();
 	}
 
-	private String ensXVersion(String ens, String ver) {
-		return (ens == null ? "" : ens) + "." + (ver == null ? "" : ver);
-	}
-
-	public List<GenomeToProteinMapping> getMappingsByAccPos(Set<Object[]> accPosSet) {
+	public List<GenomeToProteinMapping> getMappingsByAccPos(CoordSet accPosSet) {
 		if (accPosSet == null || accPosSet.isEmpty())
 			return EMPTY_RESULT;
-		SqlParameterSource parameters = new MapSqlParameterSource("accPosSet", accPosSet);
+		SqlParameterSource parameters = SqlArray.coords(accPosSet);
 
 		return jdbcTemplate.query(SELECT_FROM_MAPPING_WHERE_ACC_POS_IN, parameters, (rs, rowNum) ->
 						GenomeToProteinMapping.builder()
-								.chromosome(rs.getString("chromosome"))
+								.chromosome(interner.intern(rs.getString("chromosome")))
 								.genomeLocation(rs.getInt("genomic_position"))
-								.baseNucleotide(rs.getString("allele"))
-								.accession(rs.getString("accession"))
+								.baseNucleotide(interner.intern(rs.getString("allele")))
+								.accession(interner.intern(rs.getString("accession")))
 								.isoformPosition(rs.getInt("protein_position"))
-								.aa(rs.getString("protein_seq"))
-								.codon(rs.getString("codon"))
+								.aa(interner.intern(rs.getString("protein_seq")))
+								.codon(interner.intern(rs.getString("codon")))
 								.codonPosition(rs.getInt("codon_position"))
 								.reverseStrand(rs.getBoolean("reverse_strand")).build())
 				.stream().filter(gm -> Objects.nonNull(gm.getCodon())).collect(Collectors.toList());
@@ -433,6 +520,34 @@ public class ProtVarDataRepoImpl implements ProtVarDataRepo {
 		return jdbcTemplate.query(SELECT_INTERACTIONS_BY_ACC_AND_RESID, parameters, (rs, rowNum) -> createInteraction(rs));
 	}
 
+	public Map<Coord.Prot, List<Foldx>> getFoldxs(CoordSet accPosSet) {
+		return queryByAccPos(SELECT_FOLDXS_BY_ACC_POS_IN, accPosSet, (rs, rowNum) -> createFoldx(rs));
+	}
+
+	public Map<Coord.Prot, List<Pocket>> getPockets(CoordSet accPosSet) {
+		return queryByAccPos(SELECT_POCKETS_BY_ACC_POS_IN, accPosSet, (rs, rowNum) -> createPocket(rs));
+	}
+
+	public Map<Coord.Prot, List<Interaction>> getInteractions(CoordSet accPosSet) {
+		return queryByAccPos(SELECT_INTERACTIONS_BY_ACC_POS_IN, accPosSet, (rs, rowNum) -> createInteraction(rs));
+	}
+
+	/**
+	 * Run a query joined on unnest(...) AS t(_acc,_pos) and group the rows, in order,
+	 * by acc-pos.
+	 */
+	private <T> Map<Coord.Prot, List<T>> queryByAccPos(String sql, CoordSet accPosSet, RowMapper<T> rowMapper) {
+		Map<Coord.Prot, List<T>> resultMap = new HashMap<>();
+		if (accPosSet == null || accPosSet.isEmpty())
+			return resultMap;
+		SqlParameterSource parameters = SqlArray.coords(accPosSet);
+		jdbcTemplate.query(sql, parameters, rs -> {
+			Coord.Prot mapKey = new Coord.Prot(rs.getString("_acc"), rs.getInt("_pos"));
+			resultMap.computeIfAbsent(mapKey, k -> new ArrayList<>()).add(rowMapper.mapRow(rs, 0));
+		});
+		return resultMap;
+	}
+
 	public String getInteractionModel(String a, String b) {
 		SqlParameterSource parameters = new MapSqlParameterSource("a", a)
 				.addValue("b", b);
@@ -512,28 +627,34 @@ public class ProtVarDataRepoImpl implements ProtVarDataRepo {
 		return results;
 	}
 
-	public List<Score> getScores(Set<Object[]> accPosSet) {
-		if (accPosSet.size() > 0) {
-			SqlParameterSource parameters = new MapSqlParameterSource("accPosSet", accPosSet);
-			List results = jdbcTemplate.query(SCORES,
-					parameters,
-					(rs, rowNum) -> {
-						String t = rs.getString("type");
-						if (t.equalsIgnoreCase(Score.Name.CONSERV.name())) {
-							return new ConservScore(rs.getString("accession"), rs.getInt("position"), null, rs.getDouble("score"));
-						} else if (t.equalsIgnoreCase(Score.Name.EVE.name())) {
-							return new EVEScore(rs.getString("accession"), rs.getInt("position"), rs.getString("mt_aa"), rs.getDouble("score"), rs.getInt("class"));
-						} else if (t.equalsIgnoreCase(Score.Name.ESM.name())) {
-							return new ESMScore(rs.getString("accession"), rs.getInt("position"), rs.getString("mt_aa"), rs.getDouble("score"));
-						} else if (t.equalsIgnoreCase(Score.Name.AM.name())) {
-							return new AMScore(rs.getString("accession"), rs.getInt("position"), rs.getString("mt_aa"), rs.getDouble("score"), rs.getInt("class"));
-						}
-						return null;
-					});
-			results.removeIf(Objects::isNull);
-			return results;
-		}
-		return EMPTY_RESULT;
+	public List<Score> getScores(CoordSet accPosSet) {
+		List<Score> results = new ArrayList<>();
+		for (Score.Name name : Score.Name.values())
+			results.addAll(getScores(accPosSet, name));
+		return results;
+	}
+
+	public List<Score> getScores(CoordSet accPosSet, Score.Name name) {
+		if (accPosSet == null || accPosSet.isEmpty())
+			return new ArrayList<>();
+		SqlParameterSource parameters = SqlArray.coords(accPosSet);
+		List<Score> results = jdbcTemplate.query(SCORES.get(name),
+				parameters,
+				(rs, rowNum) -> {
+					String t = rs.getString("type");
+					if (t.equalsIgnoreCase(Score.Name.CONSERV.name())) {
+						return new ConservScore(rs.getString("accession"), rs.getInt("position"), null, rs.getDouble("score"));
+					} else if (t.equalsIgnoreCase(Score.Name.EVE.name())) {
+						return new EVEScore(rs.getString("accession"), rs.getInt("position"), rs.getString("mt_aa"), rs.getDouble("score"), rs.getInt("class"));
+					} else if (t.equalsIgnoreCase(Score.Name.ESM.name())) {
+						return new ESMScore(rs.getString("accession"), rs.getInt("position"), rs.getString("mt_aa"), rs.getDouble("score"));
+					} else if (t.equalsIgnoreCase(Score.Name.AM.name())) {
+						return new AMScore(rs.getString("accession"), rs.getInt("position"), rs.getString("mt_aa"), rs.getDouble("score"), rs.getInt("class"));
+					}
+					return null;
+				});
+		results.removeIf(Objects::isNull);
+		return results;
 	}
 
 	private String appendMt(String sql, String mt) {
@@ -0,0 +1,63 @@
+package uk.ac.ebi.protvar.repo;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+import uk.ac.ebi.protvar.model.CoordSet;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * Array query parameter, bound as a single typed SQL array, for batched lookups joined on
+ * unnest(...) rather than a (VALUES :set) list.
+ * A VALUES list is expanded into one placeholder per value, so every batch size is a new
+ * statement to parse and plan, and large batches run into the driver's bind parameter limit.
+ * An array is one placeholder whatever its length, so the statement text - and its plan - is the
+ * same for every batch.
+ */
+public class SqlArray extends AbstractSqlTypeValue {
+
+    // coordinate parameters, see coords()
+    public static final String SEQS = "seqs";
+    public static final String POSITIONS = "positions";
+
+    private final String type;
+    private final Object[] values;
+
+    private SqlArray(String type, Object[] values) {
+        this.type = type;
+        this.values = values;
+    }
+
+    public static SqlArray text(String[] values) {
+        return new SqlArray("text", values);
+    }
+
+    public static SqlArray text(Collection<String> values) {
+        return text(values.toArray(new String[0]));
+    }
+
+    public static SqlArray int4(int[] values) {
+        Integer[] boxed = new Integer[values.length];
+        for (int i = 0; i < values.length; i++)
+            boxed[i] = values[i];
+        return new SqlArray("int4", boxed);
+    }
+
+    /**
+     * Parameters for a join on
+     *   unnest(CAST(:seqs AS text[]), CAST(:positions AS int[])) AS t(seq,pos)
+     * with one row per coordinate of the set.
+     */
+    public static MapSqlParameterSource coords(CoordSet set) {
+        CoordSet.Columns columns = set.columns();
+        return new MapSqlParameterSource(SEQS, text(columns.getSeqs()))
+                .addValue(POSITIONS, int4(columns.getPositions()));
+    }
+
+    @Override
+    protected Object createTypeValue(Connection con, int sqlType, String typeName) throws SQLException {
+        return con.createArrayOf(type, values);
+    }
+}
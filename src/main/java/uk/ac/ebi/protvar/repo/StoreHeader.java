@@ -0,0 +1,65 @@
+package uk.ac.ebi.protvar.repo;
+
+import uk.ac.ebi.protvar.service.ReleaseService;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Header of the files built from the database by MappingIndexBuilder and CADDStoreBuilder: the
+ * data release they were built from (modified UTF-8, as DataOutputStream.writeUTF), so files of
+ * another release are refused rather than served alongside the database of the current one.
+ */
+final class StoreHeader {
+
+    // database password of the builders, not passed on the command line (visible in ps)
+    static final String PASSWORD_ENV = "PROTVAR_DB_PASSWORD";
+    // release to record if the database has no import metadata, as protvar.release
+    static final String RELEASE_ENV = "PROTVAR_RELEASE";
+
+    private StoreHeader() {
+    }
+
+    static void write(DataOutputStream out, String release) throws IOException {
+        out.writeUTF(release);
+    }
+
+    /**
+     * Read the release, leaving the channel positioned at the first record.
+     */
+    static String read(FileChannel channel) throws IOException {
+        channel.position(0);
+        // not closed: would close the channel
+        return new DataInputStream(Channels.newInputStream(channel)).readUTF();
+    }
+
+    /**
+     * @return the release of the database, from its import metadata, else from PROTVAR_RELEASE
+     * @throws IllegalStateException if neither is set
+     */
+    static String release(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(ReleaseService.DEFAULT_RELEASE_QUERY)) {
+            if (rs.next() && rs.getString(1) != null && !rs.getString(1).isBlank())
+                return rs.getString(1).trim();
+        }
+        String release = System.getenv(RELEASE_ENV);
+        if (release == null || release.isBlank())
+            throw new IllegalStateException("Data release unknown: no import metadata and " + RELEASE_ENV + " not set");
+        return release.trim();
+    }
+
+    static String password() {
+        String password = System.getenv(PASSWORD_ENV);
+        if (password == null)
+            throw new IllegalStateException(PASSWORD_ENV + " not set");
+        return password;
+    }
+}
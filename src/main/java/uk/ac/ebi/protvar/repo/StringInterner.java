@@ -0,0 +1,67 @@
+package uk.ac.ebi.protvar.repo;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import uk.ac.ebi.protvar.service.ReleaseChangedEvent;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bounded canonicalising map for the repeated string columns of mapping rows (gene and protein
+ * names, accessions, Ensembl IDs), so rows for the same gene or transcript share one instance
+ * rather than each holding a copy read from the result set.
+ * Least recently used strings are dropped first once full (an evicted string just stops being
+ * shared); cleared when the data release changes.
+ */
+@Component
+public class StringInterner {
+
+    private final Cache<String, String> strings;
+    // Ensembl ID -> ID with version, so the versioned string isn't rebuilt for every row
+    private final Cache<String, String> versioned;
+
+    public StringInterner(MeterRegistry meterRegistry,
+                          @Value("${protvar.mapping.intern.max-size:200000}") long maxSize) {
+        this.strings = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+        this.versioned = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+        GuavaCacheMetrics.monitor(meterRegistry, strings, "mapping.intern");
+        GuavaCacheMetrics.monitor(meterRegistry, versioned, "mapping.intern.versioned");
+    }
+
+    public String intern(String s) {
+        if (s == null)
+            return null;
+        try {
+            // through get (not asMap) for hits and misses to be recorded
+            return strings.get(s, () -> s);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex); // loader can't fail
+        }
+    }
+
+    /**
+     * @return the shared ens.ver string, empty parts for nulls (e.g. ENST00000366667.4, or "." if both null).
+     */
+    public String internVersion(String ens, String ver) {
+        String id = ens == null ? "" : ens;
+        String version = ver == null ? "" : ver;
+        String cached = versioned.getIfPresent(id);
+        if (cached != null && cached.length() == id.length() + 1 + version.length()
+                && cached.startsWith(version, id.length() + 1))
+            return cached;
+        String s = intern(id + "." + version);
+        versioned.put(intern(id), s);
+        return s;
+    }
+
+    @EventListener
+    public void onReleaseChanged(ReleaseChangedEvent event) {
+        strings.invalidateAll();
+        versioned.invalidateAll();
+    }
+}
@@ -1,5 +1,6 @@
 package uk.ac.ebi.protvar.repo;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import uk.ac.ebi.protvar.model.data.UniprotEntry;
 
@@ -9,4 +10,8 @@ public interface UniprotEntryRepo extends CrudRepository<UniprotEntry, String> {
 
     List<UniprotEntry> findAll();
 
+    // accessions only, without loading (and managing) an entity per row
+    @Query("SELECT e.accession FROM UniprotEntry e")
+    List<String> findAllAccessions();
+
 }
@@ -9,10 +9,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.ResultSetExtractor;
-import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Repository;
+import uk.ac.ebi.protvar.model.Coord;
+import uk.ac.ebi.protvar.model.CoordSet;
 import uk.ac.ebi.uniprot.variation.model.Feature;
 
 import java.sql.ResultSet;
@@ -25,35 +26,36 @@ public class VariationRepo {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(VariationRepo.class);
 
-    public static final String SELECT_VARIATION_WHERE_ACC_AND_POS_IN =
-            "SELECT * FROM variation WHERE (accession,position) in (:accPosSet)";
+    public static final String SELECT_VARIATION_WHERE_ACC_AND_POS_IN = """
+            SELECT variation.* FROM variation
+            INNER JOIN unnest(CAST(:seqs AS text[]), CAST(:positions AS int[])) AS t(acc,pos)
+            ON t.acc=accession AND t.pos=position
+            """;
 
     private static final ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 
     private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
     public List<Feature> getFeatures(String accession, int proteinLocation) {
-        Set<Object[]> params = new HashSet<>();
-        params.add(new Object[] {accession, proteinLocation});
-        SqlParameterSource parameters = new MapSqlParameterSource("accPosSet", params);
+        SqlParameterSource parameters = SqlArray.coords(CoordSet.of(accession, proteinLocation));
         return namedParameterJdbcTemplate.query(SELECT_VARIATION_WHERE_ACC_AND_POS_IN, parameters, (rs, rowNum) -> createFeature(rs));
     }
 
-    public Map<String, List<Feature>> getFeatureMap(Set<Object[]> accPosSet) {
+    public Map<Coord.Prot, List<Feature>> getFeatureMap(CoordSet accPosSet) {
         if (accPosSet == null || accPosSet.isEmpty())
             return new HashedMap();
 
-        SqlParameterSource parameters = new MapSqlParameterSource("accPosSet", accPosSet);
+        SqlParameterSource parameters = SqlArray.coords(accPosSet);
         return namedParameterJdbcTemplate.query(SELECT_VARIATION_WHERE_ACC_AND_POS_IN, parameters, new ResultSetExtractor<Map>() {
             @Override
             public Map extractData(ResultSet rs) throws SQLException, DataAccessException {
-                Map<String, List<Feature>> featureMap = new HashMap();
+                Map<Coord.Prot, List<Feature>> featureMap = new HashMap();
                 while(rs.next()){
                     String acc = rs.getString("accession");
                     int pos = rs.getInt("position");
                     Feature f = createFeature(rs);
                     if (f != null) {
-                        String mapKey = acc + ":" + pos;
+                        Coord.Prot mapKey = new Coord.Prot(acc, pos);
                         if (!featureMap.containsKey(mapKey))
                             featureMap.put(mapKey, new ArrayList<>());
                         featureMap.get(mapKey).add(f);
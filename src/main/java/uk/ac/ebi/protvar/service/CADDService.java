@@ -0,0 +1,94 @@
+package uk.ac.ebi.protvar.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.collect.Lists;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import uk.ac.ebi.protvar.input.Type;
+import uk.ac.ebi.protvar.input.UserInput;
+import uk.ac.ebi.protvar.input.params.InputParams;
+import uk.ac.ebi.protvar.input.processor.BuildProcessor;
+import uk.ac.ebi.protvar.input.processor.InputProcessor;
+import uk.ac.ebi.protvar.input.type.GenomicInput;
+import uk.ac.ebi.protvar.model.CoordSet;
+import uk.ac.ebi.protvar.model.data.CADDPrediction;
+import uk.ac.ebi.protvar.model.response.CADDScoreResponse;
+import uk.ac.ebi.protvar.repo.ProtVarDataRepo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk CADD score lookup, for genomic coordinates only (no mapping).
+ * Inputs are processed in windows of WINDOW_SIZE: converted from GRCh37 if requested, looked
+ * up with one query per window for the distinct positions, and written out as NDJSON in input
+ * order, so the response starts streaming before the whole input is scored.
+ */
+@Service
+@AllArgsConstructor
+public class CADDService {
+    static final int WINDOW_SIZE = 5000;
+
+    private ProtVarDataRepo protVarDataRepo;
+    private BuildProcessor buildProcessor;
+    private ObjectMapper objectMapper;
+
+    public void writeScores(List<String> coordinates, String assembly, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(CADDScoreResponse.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        for (List<String> window : Lists.partition(coordinates, WINDOW_SIZE)) {
+            for (CADDScoreResponse response : getScores(window, assembly)) {
+                writer.writeValue(out, response);
+                out.write('\n');
+            }
+            out.flush();
+        }
+    }
+
+    List<CADDScoreResponse> getScores(List<String> coordinates, String assembly) {
+        List<UserInput> inputs = InputProcessor.parse(coordinates);
+        List<UserInput> genomicInputs = inputs.stream()
+                .filter(i -> i instanceof GenomicInput && i.isValid())
+                .collect(Collectors.toList());
+
+        if (!genomicInputs.isEmpty()) {
+            InputParams params = InputParams.builder().assembly(assembly).build();
+            buildProcessor.process(Map.of(Type.GENOMIC, genomicInputs), params); // GRCh37 conversion
+        }
+
+        // distinct positions only
+        CoordSet chrPos = new CoordSet();
+        genomicInputs.stream().filter(UserInput::isValid).forEach(i -> i.addChrPos(chrPos));
+        Map<Long, List<CADDPrediction>> predictions = protVarDataRepo.getCADDByChrPos(chrPos)
+                .stream().collect(Collectors.groupingBy(CADDPrediction::chrPosKey));
+
+        List<CADDScoreResponse> responses = new ArrayList<>(inputs.size());
+        for (UserInput input : inputs) {
+            if (!(input instanceof GenomicInput)) {
+                responses.add(CADDScoreResponse.error(input.getInputStr(), "Not a genomic coordinate"));
+                continue;
+            }
+            GenomicInput gen = (GenomicInput) input;
+            if (!gen.isValid()) {
+                responses.add(CADDScoreResponse.error(gen.getInputStr(), String.join("; ", gen.getErrors())));
+                continue;
+            }
+            // cadd_prediction has duplicate rows (the CADD store doesn't): one score per ref/alt
+            Set<String> alleles = new HashSet<>();
+            List<CADDScoreResponse.Score> scores = predictions.getOrDefault(gen.chrPosKey(), List.of())
+                    .stream()
+                    .filter(p -> gen.getRef() == null || gen.getRef().equalsIgnoreCase(p.getReferenceAllele()))
+                    .filter(p -> gen.getAlt() == null || gen.getAlt().equalsIgnoreCase(p.getAltAllele()))
+                    .filter(p -> alleles.add(p.getReferenceAllele() + ">" + p.getAltAllele()))
+                    .map(p -> new CADDScoreResponse.Score(p.getReferenceAllele(), p.getAltAllele(),
+                            Double.isNaN(p.getRawScore()) ? null : p.getRawScore(), p.getScore()))
+                    .collect(Collectors.toList());
+            responses.add(new CADDScoreResponse(gen.getInputStr(), gen.getChr(), gen.getPos(), gen.getConverted(), scores, null));
+        }
+        return responses;
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 import uk.ac.ebi.protvar.fetcher.csv.CSVDataFetcher;
+import uk.ac.ebi.protvar.fetcher.csv.CSVZipWriter;
 import uk.ac.ebi.protvar.messaging.RabbitMQConfig;
 import uk.ac.ebi.protvar.model.DownloadRequest;
 import uk.ac.ebi.protvar.model.response.DownloadResponse;
@@ -75,7 +76,7 @@ public class DownloadService {
     }
 
     public FileInputStream getFileResource(String filename) {
-        String fileName = downloadDir + "/" + filename + ".csv.zip";
+        String fileName = downloadDir + "/" + filename + CSVZipWriter.ZIP_EXTENSION;
         FileInputStream fileInputStream;
         try {
             fileInputStream = new FileInputStream(fileName);
@@ -89,8 +90,7 @@ public class DownloadService {
     public Map<String, DownloadStatus> getDownloadStatus(List<String> fs) {
         Map<String, DownloadStatus> resultMap = new LinkedHashMap<>();
         fs.stream().forEach(filename -> {
-            String csvFile = downloadDir + "/" + filename + ".csv";
-            String zipFile = csvFile + ".zip";
+            String zipFile = downloadDir + "/" + filename + CSVZipWriter.ZIP_EXTENSION;
             Path zipFilePath = Paths.get(zipFile);
             if (Files.exists(zipFilePath)) {
                 long bytes = 0;
@@ -101,7 +101,7 @@ public class DownloadService {
                 }
                 resultMap.put(filename, new DownloadStatus(1, bytes));
             }
-            else if (Files.exists(Paths.get(csvFile)))
+            else if (Files.exists(Paths.get(downloadDir, filename + CSVZipWriter.IN_PROGRESS_EXTENSION)))
                 resultMap.put(filename, new DownloadStatus(0));
             else
                 resultMap.put(filename, new DownloadStatus(-1));
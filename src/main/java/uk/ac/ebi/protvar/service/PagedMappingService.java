@@ -1,18 +1,22 @@
 package uk.ac.ebi.protvar.service;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import uk.ac.ebi.protvar.cache.InputBuild;
 import uk.ac.ebi.protvar.cache.InputCache;
+import uk.ac.ebi.protvar.cache.InputIndex;
 import uk.ac.ebi.protvar.cache.InputSummary;
+import uk.ac.ebi.protvar.cache.PageResultCache;
 import uk.ac.ebi.protvar.fetcher.MappingFetcher;
 import uk.ac.ebi.protvar.input.UserInput;
 import uk.ac.ebi.protvar.input.params.InputParams;
 import uk.ac.ebi.protvar.input.processor.BuildProcessor;
-import uk.ac.ebi.protvar.input.processor.InputProcessor;
 import uk.ac.ebi.protvar.model.response.MappingResponse;
 import uk.ac.ebi.protvar.model.response.Message;
 import uk.ac.ebi.protvar.model.response.PagedMappingResponse;
@@ -20,23 +24,73 @@ import uk.ac.ebi.protvar.repo.ProtVarDataRepo;
 import uk.ac.ebi.protvar.utils.FetcherUtils;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 @AllArgsConstructor
 public class PagedMappingService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PagedMappingService.class);
+
     private ProtVarDataRepo protVarDataRepo;
     private MappingFetcher mappingFetcher;
     private InputCache inputCache;
 
     private BuildProcessor buildProcessor;
 
+    private PageResultCache pageResultCache;
+    private Executor taskExecutor;
+
+    /**
+     * Cached getInputResult: a page computed before (for the current data release) is served
+     * from the page cache, with its TTL brought up to date. When a page is served, the next one
+     * is computed in the background unless already cached.
+     * @return the page as a JSON tree, or null if the input is not (or no longer) cached.
+     */
+    public ObjectNode getCachedInputResult(String id, int pageNo, int pageSize, String assembly) {
+        String key = pageResultCache.keyOf(id, pageNo, pageSize, assembly);
+        ObjectNode page = pageResultCache.get(key);
+        if (page != null) {
+            page.put("ttl", inputCache.expires(id));
+        } else {
+            PagedMappingResponse response = getInputResult(id, pageNo, pageSize, assembly);
+            if (response == null)
+                return null;
+            page = cache(key, id, response);
+        }
+        if (pageResultCache.prefetchNextPage() && !page.path("last").asBoolean(true))
+            prefetch(id, pageNo + 1, pageSize, assembly);
+        return page;
+    }
+
+    private void prefetch(String id, int pageNo, int pageSize, String assembly) {
+        String key = pageResultCache.keyOf(id, pageNo, pageSize, assembly);
+        try {
+            taskExecutor.execute(() -> {
+                if (pageResultCache.contains(key))
+                    return;
+                PagedMappingResponse response = getInputResult(id, pageNo, pageSize, assembly);
+                if (response != null)
+                    cache(key, id, response);
+            });
+        } catch (RejectedExecutionException ex) {
+            LOGGER.debug("Page {} not prefetched, executor busy", key);
+        }
+    }
+
+    private ObjectNode cache(String key, String id, PagedMappingResponse response) {
+        // pages computed before the input summary is ready only carry the line count; not kept
+        if (inputCache.getInputSummary(id) == null)
+            return pageResultCache.toTree(response);
+        return pageResultCache.put(key, response);
+    }
+
     public PagedMappingResponse getInputResult(String id, int pageNo, int pageSize, String assembly) {
-        String originalInput = inputCache.getInput(id);
-        if (originalInput == null)
+        InputIndex inputIndex = inputCache.getInputIndex(id);
+        if (inputIndex == null)
             return null;
 
-        List<String> originalInputList = Arrays.asList(originalInput.split("\\R|,"));
-        int totalElements = originalInputList.size();
+        int totalElements = inputIndex.getLines();
         int totalPages = totalElements / pageSize + ((totalElements % pageSize == 0) ? 0 : 1);
 
         PagedMappingResponse response = new PagedMappingResponse();
@@ -70,11 +124,11 @@ public class PagedMappingService {
          *  - The same input ID may be requested with a different assembly parameter in another
          *    request, so always verify the submitted assembly.
          */
-        List<String> inputs = getPage(originalInputList, pageNo, pageSize);
-        InputBuild inputBuild = buildProcessor.determinedBuild(id, originalInputList, assembly);
+        List<UserInput> inputs = getPage(id, pageNo, pageSize);
+        InputBuild inputBuild = buildProcessor.determinedBuild(id, () -> inputCache.getInputLines(id), assembly);
         InputParams params = InputParams.builder()
                 .id(id)
-                .inputs(InputProcessor.parse(inputs))
+                .inputs(inputs)
                 .assembly(assembly)
                 .inputBuild(inputBuild)
                 .summarise(true)
@@ -91,7 +145,7 @@ public class PagedMappingService {
         String summary;
         if (inputSummary == null) { // probably still calculating...
             // use tmp/basic summary
-            summary = String.format("%d user input%s ", originalInputList.size(), FetcherUtils.pluralise(originalInputList.size()));
+            summary = String.format("%d user input%s ", totalElements, FetcherUtils.pluralise(totalElements));
         } else {
             summary = inputSummary.toString();
         }
@@ -103,6 +157,15 @@ public class PagedMappingService {
         return response;
     }
 
+    private List<UserInput> getPage(String id, int pageNo, int pageSize) {
+        if(pageSize <= 0 || pageNo <= 0) {
+            return Collections.emptyList();
+        }
+        int fromIndex = (pageNo - 1) * pageSize;
+        List<UserInput> page = inputCache.getUserInputs(id, fromIndex, fromIndex + pageSize);
+        return page == null ? Collections.emptyList() : page;
+    }
+
     public static List getPage(List sourceList, int pageNo, int pageSize) {
         if(pageSize <= 0 || pageNo <= 0) {
             return Collections.emptyList();
@@ -0,0 +1,20 @@
+package uk.ac.ebi.protvar.service;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when the data release in use changes; release-dependent caches should be
+ * cleared or reloaded on receiving it.
+ */
+@Getter
+public class ReleaseChangedEvent extends ApplicationEvent {
+    private final String previousRelease;
+    private final String release;
+
+    public ReleaseChangedEvent(Object source, String previousRelease, String release) {
+        super(source);
+        this.previousRelease = previousRelease;
+        this.release = release;
+    }
+}
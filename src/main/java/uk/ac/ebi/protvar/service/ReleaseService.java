@@ -0,0 +1,99 @@
+package uk.ac.ebi.protvar.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps track of the current data release.
+ * The release is read from the import metadata in the database (protvar.release.query, by
+ * default the latest row of protvar_release, which the data import writes when a release is
+ * loaded - see ProtvarRelease), so all instances sharing the database agree on it. For a
+ * database without import metadata, the protvar.release property is used instead.
+ * Startup fails if the release is known from neither.
+ * The release is checked again periodically, and a ReleaseChangedEvent published whenever it
+ * differs from the one last seen. A check whose query fails keeps the current release: only a
+ * query returning no rows means there is no import metadata.
+ */
+@Service
+public class ReleaseService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReleaseService.class);
+
+    // also run by the store builders (see StoreHeader)
+    public static final String DEFAULT_RELEASE_QUERY =
+            "SELECT uniprot_version || '-' || ensembl_version FROM protvar_release ORDER BY timestamp DESC LIMIT 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String configuredRelease;
+    private final String releaseQuery;
+    private volatile String currentRelease;
+
+    public ReleaseService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                          @Value("${protvar.release:}") String configuredRelease,
+                          @Value("${protvar.release.query:" + DEFAULT_RELEASE_QUERY + "}") String releaseQuery) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.configuredRelease = configuredRelease == null ? "" : configuredRelease.trim();
+        this.releaseQuery = releaseQuery;
+    }
+
+    @PostConstruct
+    public void init() {
+        String release = resolve();
+        if (release == null) // no current release to keep, e.g. no protvar_release table
+            release = configuredRelease;
+        if (release.isEmpty())
+            throw new IllegalStateException("Data release unknown: no import metadata returned by '" + releaseQuery
+                    + "' and protvar.release not set");
+        currentRelease = release;
+        LOGGER.info("Data release {}", release);
+    }
+
+    public String current() {
+        return currentRelease;
+    }
+
+    /**
+     * @return the release from the import metadata, else the configured one if there is no
+     * metadata (empty if not configured either); null if the query failed
+     */
+    private String resolve() {
+        List<String> releases;
+        try {
+            releases = jdbcTemplate.queryForList(releaseQuery, String.class);
+        } catch (DataAccessException ex) {
+            LOGGER.warn("Data release not read from import metadata: {}", ex.getMessage());
+            return null;
+        }
+        if (!releases.isEmpty() && releases.get(0) != null && !releases.get(0).isBlank())
+            return releases.get(0).trim();
+        return configuredRelease;
+    }
+
+    @Scheduled(fixedDelayString = "${protvar.release.check-interval-ms:300000}")
+    public void checkRelease() {
+        String release = resolve();
+        if (release == null) // transient failure, not a release change
+            return;
+        if (release.isEmpty()) {
+            LOGGER.error("Data release unknown, keeping {}", currentRelease);
+            return;
+        }
+        if (!Objects.equals(release, currentRelease)) {
+            String previous = currentRelease;
+            currentRelease = release;
+            LOGGER.info("Data release changed from {} to {}", previous, release);
+            eventPublisher.publishEvent(new ReleaseChangedEvent(this, previous, release));
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package uk.ac.ebi.uniprot.proteins.model;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 @JsonInclude(Include.NON_NULL)
 
@@ -50,6 +56,7 @@ public class DSPComment implements Serializable {
 		return text;
 	}
 
+	@JsonDeserialize(using = TextDeserializer.class)
 	public void setText(Object text) {
     //WEBRESOURCE
 		if (text instanceof String) {
@@ -91,4 +98,17 @@ public class DSPComment implements Serializable {
 	public void setDescription(Description description) {
 		this.description = description;
 	}
+
+	/**
+	 * Text is either a plain string or a list of Text, see setText. Without type metadata (e.g.
+	 * compact Redis values), Jackson would otherwise read the list elements as maps.
+	 */
+	static class TextDeserializer extends JsonDeserializer<Object> {
+		@Override
+		public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+			if (p.currentToken() == JsonToken.VALUE_STRING)
+				return p.getText();
+			return ctxt.readValue(p, ctxt.getTypeFactory().constructCollectionType(List.class, Text.class));
+		}
+	}
 }
@@ -0,0 +1,58 @@
+package uk.ac.ebi.pdbe.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.ac.ebi.pdbe.model.PDBeStructureResidue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PDBeCacheTest {
+
+  @Test
+  void snapshotServesSameStructures(@TempDir Path dir) throws IOException {
+    PDBeCache fromArchive = new PDBeCache(null);
+    fromArchive.initialize();
+    new PDBeCache(null).initialize(dir);
+    Path snapshot;
+    try (Stream<Path> files = Files.list(dir)) {
+      snapshot = files.filter(f -> f.getFileName().toString().startsWith("pdbe-")).findFirst().orElseThrow();
+    }
+
+    PDBeCache fromSnapshot = new PDBeCache(null);
+    fromSnapshot.readSnapshot(snapshot);
+
+    List<PDBeStructureResidue> expected = fromArchive.get("P22304", 200);
+    assertFalse(expected.isEmpty());
+    assertEquals(describe(expected), describe(fromSnapshot.get("P22304", 200)));
+    assertTrue(fromSnapshot.get("P22304", 100000).isEmpty());
+    assertTrue(fromSnapshot.get("NOTANACC", 1).isEmpty());
+
+    Map<Integer, List<PDBeStructureResidue>> batch = fromSnapshot.get("P22304", new int[]{200, 100000, 200});
+    assertEquals(Set.of(200), batch.keySet());
+    assertEquals(describe(expected), describe(batch.get(200)));
+  }
+
+  @Test
+  void corruptSnapshot(@TempDir Path dir) throws IOException {
+    Path snapshot = dir.resolve("pdbe.store");
+    Files.write(snapshot, new byte[]{0x50, 0x44, 0x42, 0x45, 0, 0, 0, 1, 0, 0, 0, 9});
+    assertThrows(IOException.class, () -> new PDBeCache(null).readSnapshot(snapshot));
+  }
+
+  private static List<String> describe(List<PDBeStructureResidue> residues) {
+    return residues.stream()
+        .map(r -> r.getPdb_id() + r.getChain_id() + r.getStart() + r.getExperimental_method() + r.getResolution())
+        .sorted(Comparator.naturalOrder())
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,133 @@
+package uk.ac.ebi.pdbe.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.ac.ebi.pdbe.model.ObservedRegion;
+import uk.ac.ebi.pdbe.model.PDBeStructure;
+import uk.ac.ebi.pdbe.model.PDBeStructureResidue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PDBeStoreTest {
+
+  @Test
+  void covering() {
+    PDBeStore.Builder builder = new PDBeStore.Builder();
+    builder.add("P1", new PDBeStructure[]{
+      structure("1abc", 10, 20, 30, 40), structure("2abc", 15, 35), structure("3abc"), structure("4abc", 1, 5, 4, 12)});
+    builder.add("P2", new PDBeStructure[]{structure("5abc", 1, 100)});
+    PDBeStore store = builder.build();
+    assertEquals(2, store.size());
+    assertEquals(5, store.structures());
+
+    assertEquals(List.of("4abc"), pdbIds(store.get("P1", 1)));
+    assertEquals(List.of("4abc"), pdbIds(store.get("P1", 5))); // two regions, once
+    assertEquals(List.of("1abc", "4abc"), pdbIds(store.get("P1", 10)));
+    assertEquals(List.of("1abc", "2abc"), pdbIds(store.get("P1", 20)));
+    assertEquals(List.of("1abc"), pdbIds(store.get("P1", 40)));
+    assertEquals(List.of(), pdbIds(store.get("P1", 41)));
+    assertEquals(List.of("5abc"), pdbIds(store.get("P2", 41)));
+    assertEquals(List.of(), pdbIds(store.get("P3", 1)));
+    assertEquals(List.of(), pdbIds(PDBeStore.EMPTY.get("P1", 1)));
+  }
+
+  @Test
+  void residue() {
+    PDBeStructure structure = structure("1abc", 10, 20);
+    structure.setChain_id("A");
+    structure.setExperimental_method("X-ray diffraction");
+    structure.setResolution(2.1);
+    structure.setStart(105);
+    structure.setUnp_start(5);
+    PDBeStore.Builder builder = new PDBeStore.Builder();
+    builder.add("P1", new PDBeStructure[]{structure, structure("2abc", 10, 20)});
+
+    List<PDBeStructureResidue> residues = builder.build().get("P1", 12);
+    assertEquals(2, residues.size());
+    PDBeStructureResidue residue = residues.get(0);
+    assertEquals("1abc", residue.getPdb_id());
+    assertEquals("A", residue.getChain_id());
+    assertEquals("X-ray diffraction", residue.getExperimental_method());
+    assertEquals(2.1, residue.getResolution());
+    assertEquals(112, residue.getStart());
+    assertNull(residues.get(1).getChain_id());
+  }
+
+  @Test
+  void sameAsScan(@TempDir Path dir) throws IOException {
+    Random random = new Random(42);
+    PDBeStructure[] structures = new PDBeStructure[300];
+    for (int s = 0; s < structures.length; s++) {
+      int[] bounds = new int[2 * (1 + random.nextInt(3))];
+      for (int r = 0; r < bounds.length; r += 2) {
+        bounds[r] = 1 + random.nextInt(3000);
+        bounds[r + 1] = bounds[r] + random.nextInt(400);
+      }
+      structures[s] = structure("pdb" + s, bounds);
+    }
+    PDBeStore.Builder builder = new PDBeStore.Builder();
+    builder.add("Q1", new PDBeStructure[]{structure("other", 1, 5000)});
+    builder.add("P1", structures);
+    Path file = dir.resolve("pdbe.store");
+    builder.build().write(file);
+    PDBeStore store = PDBeStore.read(file);
+    int[] positions = random.ints(500, 0, 3500).toArray();
+
+    Map<Integer, List<PDBeStructureResidue>> swept = store.get("P1", positions);
+    for (int position : positions) {
+      List<String> expected = scan(structures, position);
+      assertEquals(expected, pdbIds(store.get("P1", position)));
+      assertEquals(expected.isEmpty() ? null : expected, swept.containsKey(position) ? pdbIds(swept.get(position)) : null);
+    }
+  }
+
+  @Test
+  void notAStore(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("pdbe.store");
+    Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+    assertThrows(IOException.class, () -> PDBeStore.read(file));
+
+    PDBeStore.Builder builder = new PDBeStore.Builder();
+    builder.add("P1", new PDBeStructure[]{structure("1abc", 1, 2)});
+    builder.build().write(file);
+    byte[] truncated = Arrays.copyOf(Files.readAllBytes(file), (int) Files.size(file) - 1);
+    Files.write(file, truncated);
+    assertThrows(IOException.class, () -> PDBeStore.read(file));
+  }
+
+  private static List<String> scan(PDBeStructure[] structures, int position) {
+    List<String> hits = new ArrayList<>();
+    for (PDBeStructure structure : structures) {
+      for (ObservedRegion region : structure.getObserved_regions()) {
+        if (position >= region.getUnp_start() && position <= region.getUnp_end()) {
+          hits.add(structure.getPdb_id());
+          break;
+        }
+      }
+    }
+    return hits;
+  }
+
+  private static List<String> pdbIds(List<PDBeStructureResidue> residues) {
+    return residues.stream().map(PDBeStructureResidue::getPdb_id).collect(Collectors.toList());
+  }
+
+  private static PDBeStructure structure(String pdbId, int... bounds) {
+    ObservedRegion[] regions = new ObservedRegion[bounds.length / 2];
+    for (int i = 0; i < regions.length; i++) {
+      regions[i] = new ObservedRegion();
+      regions[i].setUnp_start(bounds[2 * i]);
+      regions[i].setUnp_end(bounds[2 * i + 1]);
+    }
+    PDBeStructure structure = new PDBeStructure();
+    structure.setPdb_id(pdbId);
+    structure.setObserved_regions(regions);
+    return structure;
+  }
+}
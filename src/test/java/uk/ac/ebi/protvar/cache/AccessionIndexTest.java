@@ -0,0 +1,67 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessionIndexTest {
+
+  @Test
+  void contains() {
+    AccessionIndex index = AccessionIndex.of(List.of("P22304", "A0A024R161", "Q9Y6K9", "P22304-2", "P22304"));
+    assertEquals(4, index.size());
+    assertTrue(index.contains("P22304"));
+    assertTrue(index.contains("A0A024R161"));
+    assertTrue(index.contains("Q9Y6K9"));
+    assertTrue(index.contains("P22304-2")); // not packed
+    assertFalse(index.contains("P22305"));
+    assertFalse(index.contains("p22304"));
+    assertFalse(index.contains("P2230"));
+    assertFalse(index.contains("A0A024R1612"));
+    assertFalse(index.contains(""));
+    assertFalse(index.contains(null));
+    assertFalse(AccessionIndex.EMPTY.contains("P22304"));
+  }
+
+  @Test
+  void packIsOrderedAndDistinct() {
+    assertTrue(AccessionIndex.pack("A0") < AccessionIndex.pack("A00"));
+    assertTrue(AccessionIndex.pack("A00") < AccessionIndex.pack("A1"));
+    assertTrue(AccessionIndex.pack("P22304") < AccessionIndex.pack("Q00001"));
+    assertTrue(AccessionIndex.pack("ZZZZZZZZZZ") > 0);
+    assertEquals(-1, AccessionIndex.pack("P22304-2"));
+  }
+
+  @Test
+  void compact() {
+    List<String> accessions = new ArrayList<>();
+    for (int i = 0; i < 100000; i++)
+      accessions.add(String.format("P%05d", i));
+    AccessionIndex index = AccessionIndex.of(accessions);
+    assertEquals(100000, index.size());
+    assertTrue(index.bytes() < 100000 * 9);
+    assertTrue(index.contains("P54321"));
+    assertFalse(index.contains("Q54321"));
+  }
+
+  @Test
+  void snapshot(@TempDir Path dir) throws IOException {
+    Path snapshot = dir.resolve("index");
+    AccessionIndex.of(List.of("P22304", "A0A024R161", "P22304-2")).write(snapshot);
+    AccessionIndex read = AccessionIndex.read(snapshot);
+    assertEquals(3, read.size());
+    assertTrue(read.contains("A0A024R161"));
+    assertTrue(read.contains("P22304-2"));
+    assertFalse(read.contains("Q9Y6K9"));
+
+    Files.write(snapshot, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+    assertThrows(IOException.class, () -> AccessionIndex.read(snapshot));
+  }
+}
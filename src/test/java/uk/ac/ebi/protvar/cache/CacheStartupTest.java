@@ -0,0 +1,103 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheStartupTest {
+
+  @Test
+  void blocking() {
+    CacheStartup startup = new CacheStartup("blocking", "", 0);
+    assertNull(startup.snapshotDir());
+    startup.register("ok", () -> {});
+    assertFalse(startup.ready());
+
+    startup.loadAll();
+    assertTrue(startup.ready());
+    assertEquals(CacheStartup.State.LOADED, startup.states().get("ok"));
+  }
+
+  @Test
+  void failedIsOutOfService() {
+    CacheStartup startup = new CacheStartup("blocking", "", 0);
+    CachesHealthIndicator health = new CachesHealthIndicator(startup);
+    startup.register("ok", () -> {});
+    startup.register("broken", () -> { throw new IllegalStateException("no data"); });
+
+    startup.loadAll();
+    assertFalse(startup.ready());
+    assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus());
+    assertEquals(CacheStartup.State.FAILED, startup.states().get("broken"));
+  }
+
+  @Test
+  void failedIsRetried() throws InterruptedException {
+    CacheStartup startup = new CacheStartup("blocking", "", 1);
+    AtomicInteger attempts = new AtomicInteger();
+    startup.register("flaky", () -> {
+      if (attempts.incrementAndGet() == 1)
+        throw new IllegalStateException("db down");
+    });
+
+    startup.loadAll();
+    assertEquals(CacheStartup.State.FAILED, startup.states().get("flaky"));
+    for (int i = 0; i < 150 && !startup.ready(); i++)
+      Thread.sleep(20);
+    assertTrue(startup.ready());
+    assertEquals(2, attempts.get());
+  }
+
+  @Test
+  void reloadFailureIsRetried() throws InterruptedException {
+    CacheStartup startup = new CacheStartup("blocking", "", 1);
+    AtomicInteger attempts = new AtomicInteger();
+    startup.register("release", () -> {
+      int attempt = attempts.incrementAndGet();
+      if (attempt == 2)
+        throw new IllegalStateException("db down");
+    });
+    startup.loadAll();
+    assertTrue(startup.ready());
+
+    startup.reload("release"); // doesn't throw
+    assertFalse(startup.ready());
+    assertEquals(CacheStartup.State.FAILED, startup.states().get("release"));
+    for (int i = 0; i < 150 && !startup.ready(); i++)
+      Thread.sleep(20);
+    assertTrue(startup.ready());
+    assertEquals(3, attempts.get());
+  }
+
+  @Test
+  void backgroundIsOutOfServiceUntilLoaded() throws InterruptedException {
+    CacheStartup startup = new CacheStartup("background", "/tmp/snapshots", 0);
+    CachesHealthIndicator health = new CachesHealthIndicator(startup);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch loaded = new CountDownLatch(1);
+    startup.register("slow", () -> {
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      loaded.countDown();
+    });
+
+    startup.loadAll(); // returns straight away
+    assertFalse(startup.ready());
+    assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus());
+
+    release.countDown();
+    assertTrue(loaded.await(5, TimeUnit.SECONDS));
+    for (int i = 0; i < 50 && !startup.ready(); i++)
+      Thread.sleep(20);
+    assertTrue(startup.ready());
+    assertEquals(Status.UP, health.health().getStatus());
+  }
+}
@@ -0,0 +1,53 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.ebi.protvar.cache.CompactRedisSerializer.Format;
+import uk.ac.ebi.protvar.utils.TestUtils;
+import uk.ac.ebi.uniprot.proteins.model.DataServiceProtein;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Payload size and decode time of each Redis value format, on the proteins in the test data,
+ * logged per format. Not part of the unit tests, run with
+ *   mvn test -Dtest=CompactRedisSerializerBenchmarkIT
+ */
+public class CompactRedisSerializerBenchmarkIT {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompactRedisSerializerBenchmarkIT.class);
+
+    private static final String PROTEIN_JSON = "src/test/resources/jsons/protein.json";
+    private static final int ROUNDS = 200;
+
+    @Test
+    void sizeAndDecodeTime() throws IOException {
+        DataServiceProtein[] dsps = TestUtils.getProtein(PROTEIN_JSON);
+        Map<Format, Integer> sizes = new EnumMap<>(Format.class);
+        for (Format format : Format.values()) {
+            CompactRedisSerializer<DataServiceProtein> serializer = new CompactRedisSerializer<>(DataServiceProtein.class, format);
+            byte[][] payloads = new byte[dsps.length][];
+            int size = 0;
+            for (int i = 0; i < dsps.length; i++) {
+                payloads[i] = serializer.serialize(dsps[i]);
+                size += payloads[i].length;
+            }
+            for (int r = 0; r < ROUNDS / 4; r++) // warm up
+                for (byte[] payload : payloads)
+                    serializer.deserialize(payload);
+            long start = System.nanoTime();
+            for (int r = 0; r < ROUNDS; r++)
+                for (byte[] payload : payloads)
+                    serializer.deserialize(payload);
+            long decodeMicros = (System.nanoTime() - start) / 1000 / ((long) ROUNDS * dsps.length);
+            sizes.put(format, size);
+            LOGGER.info("{}: {} bytes, {}us/decode", format, size, decodeMicros);
+        }
+        assertTrue(sizes.get(Format.SMILE) < sizes.get(Format.JSON));
+        assertTrue(sizes.get(Format.SMILE_DEFLATE) < sizes.get(Format.SMILE));
+    }
+}
@@ -0,0 +1,53 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import uk.ac.ebi.protvar.cache.CompactRedisSerializer.Format;
+import uk.ac.ebi.protvar.utils.TestUtils;
+import uk.ac.ebi.uniprot.proteins.model.DataServiceProtein;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactRedisSerializerTest {
+
+  static final String PROTEIN_JSON = "src/test/resources/jsons/protein.json";
+  GenericJackson2JsonRedisSerializer legacy = new GenericJackson2JsonRedisSerializer();
+
+  @Test
+  void roundTripInEachFormat() throws IOException {
+    DataServiceProtein dsp = TestUtils.getProtein(PROTEIN_JSON)[0];
+    byte[] expected = legacy.serialize(dsp);
+    for (Format format : Format.values()) {
+      CompactRedisSerializer<DataServiceProtein> serializer = new CompactRedisSerializer<>(DataServiceProtein.class, format);
+      DataServiceProtein read = serializer.deserialize(serializer.serialize(dsp));
+      assertArrayEquals(expected, legacy.serialize(read), format.name());
+    }
+  }
+
+  @Test
+  void readsLegacyJsonWhateverTheFormat() throws IOException {
+    DataServiceProtein dsp = TestUtils.getProtein(PROTEIN_JSON)[0];
+    byte[] legacyBytes = legacy.serialize(dsp);
+    for (Format format : Format.values()) {
+      DataServiceProtein read = new CompactRedisSerializer<>(DataServiceProtein.class, format).deserialize(legacyBytes);
+      assertEquals(dsp.getAccession(), read.getAccession());
+      assertEquals(dsp.getFeatures().size(), read.getFeatures().size());
+    }
+  }
+
+  @Test
+  void readsOtherCompactFormats() throws IOException {
+    DataServiceProtein dsp = TestUtils.getProtein(PROTEIN_JSON)[0];
+    byte[] deflated = new CompactRedisSerializer<>(DataServiceProtein.class, Format.SMILE_DEFLATE).serialize(dsp);
+    DataServiceProtein read = new CompactRedisSerializer<>(DataServiceProtein.class, Format.SMILE).deserialize(deflated);
+    assertEquals(dsp.getAccession(), read.getAccession());
+  }
+
+  @Test
+  void formatFromProperty() {
+    assertEquals(Format.SMILE_DEFLATE, Format.of("smile-deflate"));
+    assertEquals(Format.JSON, Format.of(" JSON "));
+  }
+}
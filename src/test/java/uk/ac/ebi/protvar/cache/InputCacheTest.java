@@ -0,0 +1,151 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import uk.ac.ebi.protvar.input.UserInput;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InputCacheTest {
+
+  static final String ID = "abc";
+  static final int LINES = 2500; // 3 chunks
+
+  RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+  RedisTemplate<String, byte[]> inputChunkCache = mock(RedisTemplate.class);
+  ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
+  ListOperations<String, byte[]> listOps = mock(ListOperations.class);
+  RedisTemplate<String, ParsedInputChunk> parsedInputCache = mock(RedisTemplate.class);
+  ListOperations<String, ParsedInputChunk> parsedListOps = mock(ListOperations.class);
+  InputCache inputCache = new InputCache(redisTemplate, inputChunkCache, parsedInputCache);
+
+  List<String> lines = IntStream.range(0, LINES).mapToObj(i -> "line" + i).collect(Collectors.toList());
+
+  @BeforeEach
+  void setUp() {
+    when(redisTemplate.opsForValue()).thenReturn(valueOps);
+    when(inputChunkCache.opsForList()).thenReturn(listOps);
+    when(parsedInputCache.opsForList()).thenReturn(parsedListOps);
+    when(valueOps.get("INPUT-INDEX-" + ID)).thenReturn(new InputIndex(LINES, InputCache.CHUNK_LINES));
+    List<byte[]> chunks = new ArrayList<>();
+    for (int from = 0; from < LINES; from += InputCache.CHUNK_LINES)
+      chunks.add(InputCache.deflate(String.join("\n", lines.subList(from, Math.min(from + InputCache.CHUNK_LINES, LINES)))));
+    when(listOps.size("INPUT-CHUNKS-" + ID)).thenReturn((long) chunks.size());
+    when(listOps.range(eq("INPUT-CHUNKS-" + ID), anyLong(), anyLong())).thenAnswer(inv ->
+      chunks.subList((int) (long) inv.getArgument(1), (int) Math.min(chunks.size(), (long) inv.getArgument(2) + 1)));
+  }
+
+  @Test
+  void pageWithinChunk() {
+    assertEquals(lines.subList(25, 50), inputCache.getInputLines(ID, 25, 50));
+    verify(listOps).range("INPUT-CHUNKS-" + ID, 0, 0);
+  }
+
+  @Test
+  void pageAcrossChunks() {
+    assertEquals(lines.subList(990, 1010), inputCache.getInputLines(ID, 990, 1010));
+    verify(listOps).range("INPUT-CHUNKS-" + ID, 0, 1);
+  }
+
+  @Test
+  void lastPage() {
+    assertEquals(lines.subList(2490, 2500), inputCache.getInputLines(ID, 2490, 2510));
+    assertEquals(List.of(), inputCache.getInputLines(ID, 2500, 2525));
+  }
+
+  @Test
+  void allLines() {
+    assertEquals(lines, inputCache.getInputLines(ID).collect(Collectors.toList()));
+  }
+
+  @Test
+  void legacyInput() {
+    when(valueOps.get("INPUT-old")).thenReturn("a\nb,c\r\nd");
+    assertEquals(List.of("b", "c"), inputCache.getInputLines("old", 1, 3));
+    assertEquals(4, inputCache.getInputIndex("old").getLines());
+    assertNull(inputCache.getInputLines("missing", 0, 10));
+  }
+
+  @Test
+  void userInputsFromParsedChunks() {
+    List<ParsedInputChunk> parsed = new ArrayList<>();
+    for (int from = 0; from < LINES; from += InputCache.CHUNK_LINES)
+      parsed.add(ParsedInputChunk.parse(lines.subList(from, Math.min(from + InputCache.CHUNK_LINES, LINES)), input -> {}));
+    when(parsedListOps.range("INPUT-PARSED-" + ID, 0, 1)).thenReturn(parsed.subList(0, 2));
+
+    List<UserInput> inputs = inputCache.getUserInputs(ID, 990, 1010);
+    assertEquals(lines.subList(990, 1010), inputs.stream().map(UserInput::getInputStr).collect(Collectors.toList()));
+    verify(listOps, never()).range(anyString(), anyLong(), anyLong());
+  }
+
+  @Test
+  void userInputsParsedWhenNoParsedChunks() {
+    List<UserInput> inputs = inputCache.getUserInputs(ID, 990, 1010);
+    assertEquals(lines.subList(990, 1010), inputs.stream().map(UserInput::getInputStr).collect(Collectors.toList()));
+  }
+
+  @Test
+  void allUserInputsByChunk() {
+    List<List<UserInput>> partitions = inputCache.getUserInputs(ID).collect(Collectors.toList());
+    assertEquals(List.of(1000, 1000, 500), partitions.stream().map(List::size).collect(Collectors.toList()));
+  }
+
+  @Test
+  void chunksMissingBehindIndex() {
+    // list being replaced or evicted: short or empty
+    when(listOps.range(eq("INPUT-CHUNKS-" + ID), anyLong(), anyLong())).thenReturn(List.of());
+    assertNull(inputCache.getInputLines(ID, 990, 1010));
+    assertNull(inputCache.getUserInputs(ID, 990, 1010));
+    when(listOps.size("INPUT-CHUNKS-" + ID)).thenReturn(0L);
+    assertNull(inputCache.getInputLines(ID));
+    assertNull(inputCache.getUserInputs(ID));
+  }
+
+  @Test
+  void chunkExpiredDuringRead() {
+    Iterator<List<UserInput>> userInputs = inputCache.getUserInputs(ID).iterator();
+    assertEquals(InputCache.CHUNK_LINES, userInputs.next().size());
+    // second chunk gone once reading started: fails rather than skipping its inputs
+    when(listOps.range("INPUT-CHUNKS-" + ID, 1, 1)).thenReturn(List.of());
+    IllegalStateException ex = assertThrows(IllegalStateException.class, userInputs::next);
+    assertTrue(ex.getMessage().contains("expired"));
+
+    when(listOps.range("INPUT-CHUNKS-" + ID, 0, 2)).thenReturn(List.of(InputCache.deflate("line0")));
+    assertThrows(IllegalStateException.class, () -> inputCache.getInputLines(ID).count());
+  }
+
+  @Test
+  void cachedInputNotRewritten() {
+    String text = String.join("\n", lines);
+    String id = InputCache.checksum(text);
+    when(valueOps.get("INPUT-INDEX-" + id)).thenReturn(new InputIndex(LINES, InputCache.CHUNK_LINES));
+    when(listOps.size("INPUT-CHUNKS-" + id)).thenReturn(3L);
+    when(redisTemplate.expire(eq("INPUT-INDEX-" + id), any())).thenReturn(true);
+
+    assertEquals(id, inputCache.cache(text));
+    verify(inputChunkCache, never()).executePipelined(any(SessionCallback.class));
+    verify(valueOps, never()).set(anyString(), any(), any(Duration.class));
+    verify(inputChunkCache).expire(eq("INPUT-CHUNKS-" + id), any());
+  }
+
+  @Test
+  void emptyLinesKept() {
+    assertEquals("a\n\n", InputCache.inflate(InputCache.deflate("a\n\n")));
+  }
+}
@@ -0,0 +1,55 @@
+package uk.ac.ebi.protvar.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import uk.ac.ebi.protvar.model.response.MappingResponse;
+import uk.ac.ebi.protvar.model.response.PagedMappingResponse;
+import uk.ac.ebi.protvar.service.ReleaseService;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PageResultCacheTest {
+
+  RedisTemplate<String, byte[]> template = mock(RedisTemplate.class);
+  ValueOperations<String, byte[]> ops = mock(ValueOperations.class);
+  ReleaseService releaseService = mock(ReleaseService.class);
+  PageResultCache pageResultCache = new PageResultCache(template, new ObjectMapper(), releaseService, true);
+  Map<String, byte[]> redis = new HashMap<>();
+
+  PageResultCacheTest() {
+    when(template.opsForValue()).thenReturn(ops);
+    doAnswer(inv -> redis.put(inv.getArgument(0), inv.getArgument(1)))
+      .when(ops).set(anyString(), any(byte[].class), any(Duration.class));
+    when(ops.get(anyString())).thenAnswer(inv -> redis.get((String) inv.getArgument(0)));
+  }
+
+  @Test
+  void keyIncludesRelease() {
+    when(releaseService.current()).thenReturn("2024.01");
+    String key = pageResultCache.keyOf("abc", 2, 25, "AUTO");
+    when(releaseService.current()).thenReturn("2024.02");
+    assertNotEquals(key, pageResultCache.keyOf("abc", 2, 25, "AUTO"));
+  }
+
+  @Test
+  void putThenGet() {
+    PagedMappingResponse response = new PagedMappingResponse(new MappingResponse(List.of()), "abc", 2, 25, "AUTO", 60, 3, false, 100);
+    String key = pageResultCache.keyOf("abc", 2, 25, "AUTO");
+    assertNull(pageResultCache.get(key));
+
+    ObjectNode put = pageResultCache.put(key, response);
+    ObjectNode got = pageResultCache.get(key);
+    assertEquals(put.toString(), got.toString());
+    assertEquals(3, got.get("totalPages").asInt());
+  }
+}
@@ -0,0 +1,71 @@
+package uk.ac.ebi.protvar.cache;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.ebi.protvar.input.UserInput;
+import uk.ac.ebi.protvar.input.processor.InputProcessor;
+import uk.ac.ebi.protvar.input.type.GenomicInput;
+import uk.ac.ebi.protvar.input.type.ProteinInput;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParsedInputChunkTest {
+
+  static final List<String> LINES = List.of(
+    "19 1010539 G C",
+    "19-1010539-G-C",
+    "X\t149498202\t.\tC\tG",
+    " P22304 A205P ",
+    "P22304 205",
+    "rs1042779",
+    "NC_000019.10:g.1010539G>C",
+    "",
+    "# comment",
+    "19 1010539 G Z",
+    "chr99 100",
+    "P22304 A205Z");
+
+  @Test
+  void restoredAsParsed() {
+    List<UserInput> parsed = new ArrayList<>();
+    ParsedInputChunk chunk = ParsedInputChunk.parse(LINES, parsed::add);
+    assertEquals(LINES.size(), chunk.size());
+    assertEquals(InputProcessor.parse(LINES).size(), parsed.size());
+
+    // through redis serialization
+    CompactRedisSerializer<ParsedInputChunk> serializer = new CompactRedisSerializer<>(ParsedInputChunk.class,
+      CompactRedisSerializer.Format.SMILE_DEFLATE);
+    ParsedInputChunk read = serializer.deserialize(serializer.serialize(chunk));
+
+    List<UserInput> restored = read.userInputs(0, read.size());
+    List<UserInput> expected = InputProcessor.parse(LINES);
+    assertEquals(expected.size(), restored.size());
+    for (int i = 0; i < expected.size(); i++) {
+      UserInput e = expected.get(i), r = restored.get(i);
+      String inputStr = e.getInputStr();
+      assertEquals(e.getClass(), r.getClass(), inputStr);
+      assertEquals(inputStr, r.getInputStr());
+      assertEquals(e.getType(), r.getType(), inputStr);
+      assertEquals(e.getFormat(), r.getFormat(), inputStr);
+      assertEquals(e.getMessages().toString(), r.getMessages().toString(), inputStr);
+      if (e instanceof GenomicInput) {
+        GenomicInput eg = (GenomicInput) e, rg = (GenomicInput) r;
+        assertEquals(eg.toString(), rg.toString());
+        assertEquals(eg.getId(), rg.getId());
+      } else if (e instanceof ProteinInput) {
+        assertEquals(e.toString(), r.toString());
+      }
+    }
+  }
+
+  @Test
+  void partialRange() {
+    ParsedInputChunk chunk = ParsedInputChunk.parse(LINES, input -> {});
+    List<UserInput> restored = chunk.userInputs(6, 10); // hgvs, empty, comment, genomic
+    assertEquals(2, restored.size());
+    assertEquals("NC_000019.10:g.1010539G>C", restored.get(0).getInputStr());
+    assertEquals("19 1010539 G Z", restored.get(1).getInputStr());
+  }
+}
@@ -0,0 +1,68 @@
+package uk.ac.ebi.protvar.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import uk.ac.ebi.protvar.service.ReleaseChangedEvent;
+import uk.ac.ebi.uniprot.proteins.model.DataServiceProtein;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProteinCacheTest {
+
+  RedisTemplate<String, DataServiceProtein> dspCache = mock(RedisTemplate.class);
+  ValueOperations<String, DataServiceProtein> ops = mock(ValueOperations.class);
+  ProteinCache proteinCache;
+
+  @BeforeEach
+  void setUp() {
+    when(dspCache.opsForValue()).thenReturn(ops);
+    proteinCache = new ProteinCache(dspCache, new SimpleMeterRegistry(), 1);
+  }
+
+  @Test
+  void secondGetServedInHeap() {
+    DataServiceProtein dsp = new DataServiceProtein();
+    dsp.setAccession("P12345");
+    when(ops.get("PROT-P12345")).thenReturn(dsp);
+
+    assertSame(dsp, proteinCache.get("P12345"));
+    assertSame(dsp, proteinCache.get("P12345"));
+    verify(ops, times(1)).get("PROT-P12345");
+  }
+
+  @Test
+  void releaseChangeClearsHeap() {
+    DataServiceProtein dsp = new DataServiceProtein();
+    dsp.setAccession("P12345");
+    when(ops.get("PROT-P12345")).thenReturn(dsp);
+
+    proteinCache.get("P12345");
+    proteinCache.onReleaseChanged(new ReleaseChangedEvent(this, "2024.01", "2024.02"));
+    proteinCache.get("P12345");
+    verify(ops, times(2)).get("PROT-P12345");
+  }
+
+  @Test
+  void cachedReadsL2InOneMultiGet() {
+    DataServiceProtein dsp = new DataServiceProtein();
+    dsp.setAccession("P12345");
+    when(ops.multiGet(List.of("PROT-P12345", "PROT-Q00000"))).thenReturn(Arrays.asList(dsp, null));
+
+    assertEquals(Set.of("P12345"), proteinCache.cached(List.of("P12345", "Q00000")));
+    assertSame(dsp, proteinCache.get("P12345"));
+    verify(ops, never()).get(anyString());
+  }
+
+  @Test
+  void missReturnsNull() {
+    assertNull(proteinCache.get("Q00000"));
+  }
+}
@@ -0,0 +1,119 @@
+package uk.ac.ebi.protvar.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestTemplateCacheTest {
+
+  private static final URI URL = URI.create("http://api/coordinates/P22304");
+
+  SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  List<HttpHeaders> requests = Collections.synchronizedList(new ArrayList<>());
+
+  private RestTemplateCache restTemplate(Duration ttl, boolean revalidate, Function<HttpHeaders, ClientHttpResponse> server) {
+    RestTemplateCache restTemplate = new RestTemplateCache("test", registry, 1, ttl, revalidate);
+    restTemplate.setRequestFactory((uri, method) -> new MockClientHttpRequest(method, uri) {
+      @Override
+      protected ClientHttpResponse executeInternal() {
+        requests.add(getHeaders());
+        return server.apply(getHeaders());
+      }
+    });
+    return restTemplate;
+  }
+
+  private static MockClientHttpResponse ok(String body, String etag) {
+    MockClientHttpResponse response = new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+    response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+    if (etag != null)
+      response.getHeaders().setETag(etag);
+    return response;
+  }
+
+  @Test
+  void cachedWithinTtl() {
+    RestTemplateCache restTemplate = restTemplate(Duration.ofMinutes(1), false, headers -> ok("one", null));
+    assertEquals("one", restTemplate.getForEntity(URL, String.class).getBody());
+    assertEquals("one", restTemplate.getForEntity(URL, String.class).getBody());
+    assertEquals(1, requests.size());
+    assertEquals(1, registry.get("cache.gets").tag("cache", "rest.test").tag("result", "hit").functionCounter().count());
+  }
+
+  @Test
+  void fetchedAgainOnceExpired() {
+    AtomicInteger n = new AtomicInteger();
+    RestTemplateCache restTemplate = restTemplate(Duration.ZERO, false, headers -> ok("v" + n.incrementAndGet(), null));
+    assertEquals("v1", restTemplate.getForEntity(URL, String.class).getBody());
+    assertEquals("v2", restTemplate.getForEntity(URL, String.class).getBody());
+  }
+
+  @Test
+  void staleRevalidated() {
+    RestTemplateCache restTemplate = restTemplate(Duration.ZERO, true, headers -> {
+      if ("\"v1\"".equals(headers.getFirst(HttpHeaders.IF_NONE_MATCH)))
+        return new MockClientHttpResponse(new byte[0], HttpStatus.NOT_MODIFIED);
+      return ok("one", "\"v1\"");
+    });
+    assertEquals("one", restTemplate.getForEntity(URL, String.class).getBody());
+    assertEquals("one", restTemplate.getForEntity(URL, String.class).getBody());
+    assertEquals(2, requests.size());
+    assertNull(requests.get(0).getFirst(HttpHeaders.IF_NONE_MATCH));
+    assertEquals(1, registry.get("rest.cache.revalidations").tag("result", "not_modified").counter().count());
+  }
+
+  @Test
+  void concurrentMissesCoalesced() throws Exception {
+    CountDownLatch waiting = new CountDownLatch(1);
+    RestTemplateCache restTemplate = restTemplate(Duration.ofMinutes(1), false, headers -> {
+      try {
+        waiting.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      return ok("one", null);
+    });
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 4; i++)
+        results.add(executor.submit(() -> restTemplate.getForEntity(URL, String.class).getBody()));
+      // let the other calls find the first one in flight
+      for (int i = 0; i < 100 && registry.get("rest.cache.coalesced").counter().count() < 3; i++)
+        Thread.sleep(20);
+      waiting.countDown();
+      for (Future<String> result : results)
+        assertEquals("one", result.get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, requests.size());
+    assertEquals(3, registry.get("rest.cache.coalesced").counter().count());
+  }
+
+  @Test
+  void boundedBySize() {
+    String body = "x".repeat(300 * 1024);
+    RestTemplateCache restTemplate = restTemplate(Duration.ofMinutes(1), false, headers -> ok(body, null));
+    for (int i = 0; i < 10; i++)
+      restTemplate.getForEntity(URI.create("http://api/" + i), String.class);
+    assertTrue(registry.get("cache.size").tag("cache", "rest.test").gauge().value() <= 3);
+  }
+}
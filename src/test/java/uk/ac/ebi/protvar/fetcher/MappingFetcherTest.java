@@ -0,0 +1,75 @@
+package uk.ac.ebi.protvar.fetcher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import uk.ac.ebi.protvar.converter.Mappings2GeneConverter;
+import uk.ac.ebi.protvar.input.UserInput;
+import uk.ac.ebi.protvar.input.mapper.Coding2Pro;
+import uk.ac.ebi.protvar.input.mapper.ID2Gen;
+import uk.ac.ebi.protvar.input.mapper.Pro2Gen;
+import uk.ac.ebi.protvar.input.params.InputParams;
+import uk.ac.ebi.protvar.input.processor.BuildProcessor;
+import uk.ac.ebi.protvar.input.type.GenomicInput;
+import uk.ac.ebi.protvar.model.CoordSet;
+import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
+import uk.ac.ebi.protvar.repo.ProtVarDataRepo;
+import uk.ac.ebi.protvar.repo.UniprotRefseqRepo;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MappingFetcherTest {
+
+  ProtVarDataRepo protVarDataRepo = mock(ProtVarDataRepo.class);
+  Mappings2GeneConverter converter = mock(Mappings2GeneConverter.class);
+  BuildProcessor buildProcessor = mock(BuildProcessor.class);
+  ID2Gen id2Gen = mock(ID2Gen.class);
+  SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  MappingFetcher fetcher = new MappingFetcher(protVarDataRepo, mock(UniprotRefseqRepo.class), id2Gen, mock(Pro2Gen.class),
+    converter, mock(ProteinsFetcher.class), mock(VariationFetcher.class), mock(ScoreFetcher.class), mock(PDBeFetcher.class),
+    new StageExecutor(Runnable::run, Duration.ofSeconds(5), Duration.ofSeconds(5)), buildProcessor, mock(Coding2Pro.class), registry);
+
+  @BeforeEach
+  void mappings() {
+    when(protVarDataRepo.getMappingsByChrPos(any(CoordSet.class))).thenReturn(List.of(GenomeToProteinMapping.builder()
+      .chromosome("1").genomeLocation(100).baseNucleotide("A").accession("P1").isoformPosition(10).isCanonical(true).build()));
+    when(converter.createGenes(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(List.of());
+  }
+
+  @Test
+  void inputMappingRunsInputStages() {
+    GenomicInput input = new GenomicInput("1 100 A", "1", 100, "A");
+    fetcher.getMapping(InputParams.builder().inputs(List.of(input)).build());
+
+    verify(buildProcessor).process(any(), any());
+    verify(id2Gen).map(any());
+    assertEquals(1, input.getMappings().size());
+    assertEquals(Set.of("build", "id2gen", "refseq", "coding2pro", "pro2gen", "lookup", "annotation", "convert"), stages());
+  }
+
+  @Test
+  void genomicMappingSharesTheCore() {
+    GenomicInput input = new GenomicInput("P1", "1", 100, "A");
+    fetcher.getGenMappings(InputParams.builder().inputs(List.<UserInput>of(input)).build());
+
+    verifyNoInteractions(buildProcessor, id2Gen);
+    ArgumentCaptor<Set<String>> altBases = ArgumentCaptor.forClass(Set.class);
+    verify(converter).createGenes(any(), eq(input), altBases.capture(), any(), any(), any(), any(), any(), any(), any(), any());
+    assertEquals(Set.of("C", "G", "T"), altBases.getValue());
+    assertEquals(1, input.getMappings().size());
+    assertEquals(Set.of("lookup", "annotation", "convert"), stages());
+  }
+
+  private Set<String> stages() {
+    return registry.get("protvar.mapping.stage").timers().stream()
+      .map(t -> t.getId().getTag("stage")).collect(Collectors.toSet());
+  }
+}
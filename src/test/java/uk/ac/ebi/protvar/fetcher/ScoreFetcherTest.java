@@ -0,0 +1,64 @@
+package uk.ac.ebi.protvar.fetcher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import uk.ac.ebi.protvar.model.Coord;
+import uk.ac.ebi.protvar.model.CoordSet;
+import uk.ac.ebi.protvar.model.score.AMScore;
+import uk.ac.ebi.protvar.model.score.ConservScore;
+import uk.ac.ebi.protvar.model.score.Score;
+import uk.ac.ebi.protvar.repo.ProtVarDataRepo;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ScoreFetcherTest {
+
+  ProtVarDataRepo repo = mock(ProtVarDataRepo.class);
+  SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  ScoreFetcher fetcher = new ScoreFetcher(repo, Executors.newFixedThreadPool(4), registry);
+
+  @Test
+  void mergesSourcesByPosition() {
+    CoordSet accPosSet = CoordSet.of("P1", 10);
+    accPosSet.add("P1", 11);
+    when(repo.getScores(any(CoordSet.class), eq(Score.Name.CONSERV)))
+      .thenReturn(List.of(new ConservScore("P1", 10, null, 0.5), new ConservScore("P1", 11, null, 0.7)));
+    when(repo.getScores(any(CoordSet.class), eq(Score.Name.AM)))
+      .thenReturn(List.of(new AMScore("P1", 10, "A", 0.9, 1)));
+
+    Map<Coord.Prot, List<Score>> scoreMap = fetcher.fetch(accPosSet, ScoreFetcher.ALL);
+
+    assertEquals(2, scoreMap.size());
+    assertEquals(2, scoreMap.get(new Coord.Prot("P1", 10)).size());
+    assertNotNull(Score.find(scoreMap.get(new Coord.Prot("P1", 10)), Score.Name.AM, "A"));
+    assertEquals(1, scoreMap.get(new Coord.Prot("P1", 11)).size());
+    for (Score.Name name : Score.Name.values()) {
+      verify(repo).getScores(any(CoordSet.class), eq(name));
+      assertEquals(1, registry.get("protvar.score.fetch").tag("source", name.name()).timer().count());
+    }
+  }
+
+  @Test
+  void onlyRequestedSources() {
+    when(repo.getScores(any(CoordSet.class), any(Score.Name.class))).thenReturn(List.of());
+    assertTrue(fetcher.fetch(CoordSet.of("P1", 10), EnumSet.of(Score.Name.EVE, Score.Name.ESM)).isEmpty());
+    verify(repo).getScores(any(CoordSet.class), eq(Score.Name.EVE));
+    verify(repo).getScores(any(CoordSet.class), eq(Score.Name.ESM));
+    verifyNoMoreInteractions(repo);
+    assertTrue(fetcher.fetch(new CoordSet(), ScoreFetcher.ALL).isEmpty());
+  }
+
+  @Test
+  void sourceFailurePropagates() {
+    when(repo.getScores(any(CoordSet.class), any(Score.Name.class))).thenReturn(List.of());
+    when(repo.getScores(any(CoordSet.class), eq(Score.Name.ESM))).thenThrow(new IllegalStateException("db down"));
+    assertThrows(IllegalStateException.class, () -> fetcher.fetch(CoordSet.of("P1", 10), ScoreFetcher.ALL));
+  }
+}
@@ -0,0 +1,89 @@
+package uk.ac.ebi.protvar.fetcher;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageExecutorTest {
+
+  ExecutorService pool = Executors.newFixedThreadPool(4);
+  StageExecutor stageExecutor = new StageExecutor(pool, Duration.ofSeconds(5), Duration.ofMillis(200));
+
+  @AfterEach
+  void shutdown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  void lookupsRunConcurrently() {
+    // each lookup waits for the other, so they only complete if run at the same time
+    CountDownLatch latch = new CountDownLatch(2);
+    CompletableFuture<String> a = stageExecutor.submit(() -> await(latch, "a"));
+    CompletableFuture<String> b = stageExecutor.submit(() -> await(latch, "b"));
+    stageExecutor.await("test", stageExecutor.lookupTimeout(), a, b);
+    assertEquals("a", a.join());
+    assertEquals("b", b.join());
+  }
+
+  @Test
+  void timeout() {
+    CompletableFuture<String> slow = stageExecutor.submit(() -> await(new CountDownLatch(2), "slow"));
+    CompletableFuture<String> fast = CompletableFuture.completedFuture("fast");
+    assertThrows(QueryTimeoutException.class,
+        () -> stageExecutor.await("test", stageExecutor.annotationTimeout(), fast, slow));
+    assertTrue(slow.isCancelled());
+  }
+
+  @Test
+  void timeoutStartsWhenLookupRuns() {
+    // single thread: the second lookup is queued behind the first, longer in total than the timeout
+    ExecutorService single = Executors.newSingleThreadExecutor();
+    try {
+      StageExecutor stages = new StageExecutor(single, Duration.ofSeconds(5), Duration.ofMillis(300));
+      CompletableFuture<String> first = stages.submit(() -> sleep(200, "first"));
+      CompletableFuture<String> second = stages.submit(() -> sleep(200, "second"));
+      stages.await("test", stages.annotationTimeout(), first, second);
+      assertEquals("second", second.join());
+    } finally {
+      single.shutdownNow();
+    }
+  }
+
+  @Test
+  void failurePropagates() {
+    CompletableFuture<String> failing = stageExecutor.submit(() -> { throw new IllegalStateException("db down"); });
+    CompletableFuture<String> slow = stageExecutor.submit(() -> await(new CountDownLatch(2), "slow"));
+    // without waiting for the slow lookup
+    assertTimeoutPreemptively(Duration.ofSeconds(1), () ->
+        assertThrows(IllegalStateException.class, () -> stageExecutor.await("test", stageExecutor.lookupTimeout(), failing, slow)));
+    assertTrue(slow.isCancelled());
+  }
+
+  private static String sleep(long millis, String result) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    return result;
+  }
+
+  private static String await(CountDownLatch latch, String result) {
+    latch.countDown();
+    try {
+      latch.await(2, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    return result;
+  }
+}
@@ -16,7 +16,7 @@ class CSVDataFetcherTest {
   private static final int TOTAL_CSV_COLUMNS = 43;
   CSVDataFetcher mockDeps = new CSVDataFetcher(mock(MappingFetcher.class), mock(CSVFunctionDataFetcher.class),
     mock(CSVPopulationDataFetcher.class), mock(CSVStructureDataFetcher.class), mock(ProtVarDataRepo.class),
-          "", mock(InputCache.class), mock(BuildProcessor.class));
+          "", mock(InputCache.class), mock(BuildProcessor.class), mock(DownloadExecutor.class));
 
   @Nested
   class Header {
@@ -0,0 +1,53 @@
+package uk.ac.ebi.protvar.fetcher.csv;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import uk.ac.ebi.protvar.cache.CompactRedisSerializer;
+import uk.ac.ebi.protvar.cache.CompactRedisSerializer.Format;
+import uk.ac.ebi.protvar.converter.ProteinsAPI2ProteinConverter;
+import uk.ac.ebi.protvar.model.response.IsoFormMapping;
+import uk.ac.ebi.uniprot.proteins.model.DataServiceProtein;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CSVFunctionDataFetcherTest {
+
+  // columns after residue and region functions, and the 4 protein details
+  static final int COMPLEX = 7;
+  static final int FAMILY = 9;
+
+  ProteinsAPI2ProteinConverter converter = new ProteinsAPI2ProteinConverter();
+  CSVFunctionDataFetcher fetcher = new CSVFunctionDataFetcher();
+
+  @Test
+  void complexAndFamilyFromProteinsApi() throws Exception {
+    assertComplexAndFamily(readProtein());
+  }
+
+  @Test
+  void complexAndFamilyFromCache() throws Exception {
+    DataServiceProtein dsp = readProtein();
+    for (Format format : Format.values()) {
+      CompactRedisSerializer<DataServiceProtein> serializer = new CompactRedisSerializer<>(DataServiceProtein.class, format);
+      assertComplexAndFamily(serializer.deserialize(serializer.serialize(dsp)));
+    }
+  }
+
+  // as read from the Proteins API by the RestTemplate (Jackson, not Gson as in TestUtils)
+  private static DataServiceProtein readProtein() throws IOException {
+    ObjectMapper mapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    return mapper.readValue(Path.of("src/test/resources/protein.json").toFile(), DataServiceProtein[].class)[0];
+  }
+
+  private void assertComplexAndFamily(DataServiceProtein dsp) {
+    IsoFormMapping mapping = IsoFormMapping.builder().referenceFunction(converter.fetch(dsp)).build();
+    List<String> columns = fetcher.fetch(mapping);
+    assertEquals("Monomer", columns.get(COMPLEX));
+    assertEquals("Belongs to the tyrosyl-DNA phosphodiesterase family", columns.get(FAMILY));
+  }
+}
@@ -0,0 +1,50 @@
+package uk.ac.ebi.protvar.fetcher.csv;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CSVZipWriterTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void completeRenamesZip() throws Exception {
+    try (CSVZipWriter zipWriter = new CSVZipWriter(dir.toString(), "job")) {
+      assertTrue(Files.exists(dir.resolve("job" + CSVZipWriter.IN_PROGRESS_EXTENSION)));
+      zipWriter.writer.writeNext(new String[]{"a", "b"});
+      zipWriter.writer.writeNext(new String[]{"1", "2"});
+      zipWriter.complete();
+    }
+    assertFalse(Files.exists(dir.resolve("job" + CSVZipWriter.IN_PROGRESS_EXTENSION)));
+    Path zip = dir.resolve("job" + CSVZipWriter.ZIP_EXTENSION);
+    assertTrue(Files.exists(zip));
+
+    try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(zip))) {
+      ZipEntry entry = zis.getNextEntry();
+      assertEquals("job.csv", entry.getName());
+      BufferedReader reader = new BufferedReader(new InputStreamReader(zis));
+      assertEquals("\"a\",\"b\"", reader.readLine());
+      assertEquals("\"1\",\"2\"", reader.readLine());
+      assertNull(reader.readLine());
+    }
+  }
+
+  @Test
+  void closeWithoutCompleteDiscards() throws Exception {
+    try (CSVZipWriter zipWriter = new CSVZipWriter(dir.toString(), "job")) {
+      zipWriter.writer.writeNext(new String[]{"a", "b"});
+    }
+    assertFalse(Files.exists(dir.resolve("job" + CSVZipWriter.IN_PROGRESS_EXTENSION)));
+    assertFalse(Files.exists(dir.resolve("job" + CSVZipWriter.ZIP_EXTENSION)));
+  }
+}
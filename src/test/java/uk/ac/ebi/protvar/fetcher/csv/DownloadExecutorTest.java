@@ -0,0 +1,112 @@
+package uk.ac.ebi.protvar.fetcher.csv;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DownloadExecutorTest {
+
+  ExecutorService pool = Executors.newFixedThreadPool(4);
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  void resultsWrittenInOrder() throws Exception {
+    DownloadExecutor executor = new DownloadExecutor(pool, 8, 4);
+    List<Integer> inputs = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+    List<Integer> written = new ArrayList<>();
+    executor.runOrdered(inputs.iterator(), i -> {
+      sleep(ThreadLocalRandom.current().nextInt(3));
+      return i * 2;
+    }, written::add);
+    assertEquals(inputs.stream().map(i -> i * 2).collect(Collectors.toList()), written);
+  }
+
+  @Test
+  void inFlightPerJobCapped() throws Exception {
+    DownloadExecutor executor = new DownloadExecutor(pool, 8, 2);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    executor.runOrdered(IntStream.range(0, 20).iterator(), i -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      sleep(2);
+      running.decrementAndGet();
+      return i;
+    }, i -> {});
+    assertTrue(maxRunning.get() <= 2);
+  }
+
+  @Test
+  void failurePropagatesAndReleasesPermits() throws Exception {
+    DownloadExecutor executor = new DownloadExecutor(pool, 2, 2);
+    assertThrows(ExecutionException.class, () -> executor.runOrdered(IntStream.range(0, 10).iterator(), i -> {
+      if (i == 3)
+        throw new IllegalStateException("failed");
+      return i;
+    }, i -> {}));
+    // permits were given back, a following job still runs to completion
+    List<Integer> written = new ArrayList<>();
+    executor.runOrdered(IntStream.range(0, 5).iterator(), i -> i, written::add);
+    assertEquals(List.of(0, 1, 2, 3, 4), written);
+  }
+
+  @Test
+  void runningPartitionsKeepTheirPermitsUntilDone() throws Exception {
+    DownloadExecutor executor = new DownloadExecutor(pool, 2, 2);
+    CountDownLatch slowStarted = new CountDownLatch(1);
+    CountDownLatch slowRelease = new CountDownLatch(1);
+    assertThrows(ExecutionException.class, () -> executor.runOrdered(IntStream.range(0, 2).iterator(), i -> {
+      if (i == 0) {
+        await(slowStarted);
+        throw new IllegalStateException("failed");
+      }
+      slowStarted.countDown();
+      await(slowRelease);
+      return i;
+    }, i -> {}));
+
+    // one permit is still held by the running partition: a new job runs one partition at a time
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    executor.runOrdered(IntStream.range(0, 6).iterator(), i -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      sleep(2);
+      running.decrementAndGet();
+      return i;
+    }, i -> {});
+    assertEquals(1, maxRunning.get());
+    slowRelease.countDown();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void sleep(long ms) {
+    try {
+      Thread.sleep(ms);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package uk.ac.ebi.protvar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoordSetTest {
+
+  @Test
+  void dedupes() {
+    CoordSet set = new CoordSet();
+    assertTrue(set.isEmpty());
+    set.add("1", 300);
+    set.add("1", 100);
+    set.add("1", 300);
+    set.add("X", 5);
+    set.add("1", 100);
+    set.add("1", 200);
+    assertEquals(4, set.size());
+    assertArrayEquals(new int[]{100, 200, 300}, set.positions("1"));
+    assertArrayEquals(new int[]{5}, set.positions("X"));
+    assertArrayEquals(new int[0], set.positions("2"));
+    assertEquals(Set.of("1", "X"), set.seqs());
+    assertTrue(set.contains("1", 200));
+    assertFalse(set.contains("1", 250));
+    assertFalse(set.contains("2", 200));
+  }
+
+  @Test
+  void addAfterRead() {
+    CoordSet set = CoordSet.of("P22304", 205);
+    assertEquals(1, set.size());
+    set.add("P22304", 10);
+    set.add("P22304", 205);
+    assertArrayEquals(new int[]{10, 205}, set.positions("P22304"));
+  }
+
+  @Test
+  void growsAndAddAll() {
+    CoordSet set = new CoordSet();
+    for (int i = 1000; i > 0; i--)
+      set.add("2", i % 500);
+    assertEquals(500, set.size());
+    CoordSet other = new CoordSet();
+    other.add("3", 1);
+    other.addAll(set);
+    assertEquals(501, other.size());
+  }
+
+  @Test
+  void params() {
+    CoordSet set = new CoordSet();
+    set.add("Q1", 2);
+    set.add("Q1", 1);
+    set.add("Q2", 1);
+    List<String> coords = new ArrayList<>();
+    set.forEach((seq, pos) -> coords.add(seq + ":" + pos));
+    assertEquals(List.of("Q1:1", "Q1:2", "Q2:1"), coords);
+    CoordSet.Columns columns = set.columns();
+    assertArrayEquals(new String[]{"Q1", "Q1", "Q2"}, columns.getSeqs());
+    assertArrayEquals(new int[]{1, 2, 1}, columns.getPositions());
+    assertEquals("[Q1:1, Q1:2, Q2:1]", set.toString());
+  }
+}
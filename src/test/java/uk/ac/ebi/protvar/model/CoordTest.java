@@ -0,0 +1,81 @@
+package uk.ac.ebi.protvar.model;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.ebi.protvar.model.score.AMScore;
+import uk.ac.ebi.protvar.model.score.ConservScore;
+import uk.ac.ebi.protvar.model.score.Score;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoordTest {
+
+  @Test
+  void chrPos() {
+    assertEquals(Coord.chrPos("1", 100), Coord.chrPos("1", 100));
+    assertNotEquals(Coord.chrPos("1", 100), Coord.chrPos("2", 100));
+    assertNotEquals(Coord.chrPos("1", 100), Coord.chrPos("1", 101));
+    assertEquals(Coord.chrPos("X", 248956422), Coord.chrPos("x", 248956422));
+    assertNotEquals(Coord.chrPos("MT", 1), Coord.chrPos("Y", 1));
+    // other chromosome names get a code of their own
+    assertEquals(Coord.chrPos("HG1_PATCH", 5), Coord.chrPos("HG1_PATCH", 5));
+    assertNotEquals(Coord.chrPos("HG1_PATCH", 5), Coord.chrPos("HG2_PATCH", 5));
+    assertNotEquals(Coord.NO_CHR_POS, Coord.chrPos("HG1_PATCH", -1));
+  }
+
+  @Test
+  void chrCodesUniqueUnderConcurrency() throws InterruptedException {
+    int threads = 8;
+    Set<Integer> codes = ConcurrentHashMap.newKeySet();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      int n = t;
+      Thread worker = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException ex) {
+          return;
+        }
+        for (int i = 0; i < 100; i++)
+          codes.add(Coord.chrCode("CONC_" + n + "_" + i));
+      });
+      worker.start();
+      workers.add(worker);
+    }
+    start.countDown();
+    for (Thread worker : workers)
+      worker.join();
+    assertEquals(threads * 100, codes.size());
+  }
+
+  @Test
+  void prot() {
+    Coord.Prot prot = new Coord.Prot("P22304", 205);
+    assertEquals(prot, new Coord.Prot(new String("P22304"), 205));
+    assertEquals(prot.hashCode(), new Coord.Prot("P22304", 205).hashCode());
+    assertNotEquals(prot, new Coord.Prot("P22304", 206));
+    assertNotEquals(new Coord.Prot("A", 2).hashCode(), new Coord.Prot("B", 1).hashCode());
+  }
+
+  @Test
+  void findScore() {
+    ConservScore conserv = new ConservScore("P22304", 205, null, 0.5);
+    AMScore amP = new AMScore("P22304", 205, "P", 0.9, 1);
+    AMScore amL = new AMScore("P22304", 205, "L", 0.1, 0);
+    List<Score> scores = List.of(conserv, amP, amL);
+    assertEquals(new Coord.Prot("P22304", 205), amP.protCoord());
+    assertSame(conserv, Score.find(scores, Score.Name.CONSERV, "P"));
+    assertSame(amP, Score.find(scores, Score.Name.AM, "P"));
+    assertNull(Score.find(scores, Score.Name.AM, "G"));
+    assertNull(Score.find(scores, Score.Name.EVE, "P"));
+    assertNull(Score.find(null, Score.Name.AM, "P"));
+    // ambiguous
+    assertNull(Score.find(List.of(amP, amP), Score.Name.AM, "P"));
+  }
+}
@@ -0,0 +1,115 @@
+package uk.ac.ebi.protvar.repo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import uk.ac.ebi.protvar.model.CoordSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the (VALUES :set) and unnest(array) forms of the chr-pos mapping lookup at 100, 1k and
+ * 10k keys: planning time (EXPLAIN ANALYZE) and end-to-end latency, logged per batch size.
+ * Needs a database with the genomic_protein_mapping table, e.g.
+ *   mvn test -Dtest=BatchLookupBenchmarkIT -Dprotvar.bench.url=jdbc:postgresql://host/db
+ *     -Dprotvar.bench.username=... -Dprotvar.bench.password=...
+ * Skipped otherwise.
+ */
+public class BatchLookupBenchmarkIT {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchLookupBenchmarkIT.class);
+
+    private static final int[] BATCH_SIZES = {100, 1000, 10000};
+    private static final int RUNS = 5;
+
+    private static final String SAMPLE = """
+            SELECT DISTINCT chromosome, genomic_position FROM genomic_protein_mapping
+            TABLESAMPLE SYSTEM (1) LIMIT :n
+            """;
+    private static final String VALUES_QUERY = """
+            SELECT * FROM genomic_protein_mapping
+            INNER JOIN (VALUES :chrPosSet) AS t(chr,pos)
+            ON t.chr=chromosome AND t.pos=genomic_position
+            """;
+    private static final String UNNEST_QUERY = """
+            SELECT * FROM genomic_protein_mapping
+            INNER JOIN unnest(CAST(:seqs AS text[]), CAST(:positions AS int[])) AS t(chr,pos)
+            ON t.chr=chromosome AND t.pos=genomic_position
+            """;
+
+    private static NamedParameterJdbcTemplate jdbcTemplate;
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void connect() {
+        String url = System.getProperty("protvar.bench.url");
+        assumeTrue(url != null && !url.isBlank(), "protvar.bench.url not set");
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url,
+                System.getProperty("protvar.bench.username"), System.getProperty("protvar.bench.password"));
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    @Test
+    void valuesVersusUnnest() {
+        for (int n : BATCH_SIZES) {
+            CoordSet chrPosSet = sample(n);
+            List<Object[]> rows = new ArrayList<>(chrPosSet.size());
+            chrPosSet.forEach((chr, pos) -> rows.add(new Object[]{chr, pos}));
+            SqlParameterSource valuesParams = new MapSqlParameterSource("chrPosSet", rows);
+            SqlParameterSource unnestParams = SqlArray.coords(chrPosSet);
+
+            int valuesRows = count(VALUES_QUERY, valuesParams);
+            int unnestRows = count(UNNEST_QUERY, unnestParams);
+            assertEquals(valuesRows, unnestRows);
+
+            LOGGER.info("{} keys ({} rows): VALUES plan {}ms, {}ms; unnest plan {}ms, {}ms", chrPosSet.size(), unnestRows,
+                    planningTime(VALUES_QUERY, valuesParams), latency(VALUES_QUERY, valuesParams),
+                    planningTime(UNNEST_QUERY, unnestParams), latency(UNNEST_QUERY, unnestParams));
+        }
+    }
+
+    private CoordSet sample(int n) {
+        CoordSet chrPosSet = new CoordSet();
+        jdbcTemplate.query(SAMPLE, new MapSqlParameterSource("n", n),
+                rs -> { chrPosSet.add(rs.getString(1), rs.getInt(2)); });
+        return chrPosSet;
+    }
+
+    private int count(String sql, SqlParameterSource params) {
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> 1).size();
+    }
+
+    // median of RUNS, after one warm-up run
+    private long latency(String sql, SqlParameterSource params) {
+        count(sql, params);
+        long[] times = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            count(sql, params);
+            times[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+
+    private double planningTime(String sql, SqlParameterSource params) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (ANALYZE, FORMAT JSON) " + sql, params, String.class);
+        try {
+            JsonNode root = objectMapper.readTree(plan);
+            return root.get(0).get("Planning Time").asDouble();
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unexpected plan output", ex);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package uk.ac.ebi.protvar.repo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.ac.ebi.protvar.model.data.CADDPrediction;
+import uk.ac.ebi.protvar.service.ReleaseChangedEvent;
+import uk.ac.ebi.protvar.service.ReleaseService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CADDStoreTest {
+
+  @TempDir
+  Path dir;
+
+  ReleaseService releaseService = mock(ReleaseService.class);
+
+  @BeforeEach
+  void setUp() {
+    when(releaseService.current()).thenReturn("2024.01");
+  }
+
+  @Test
+  void disabledWithoutDir() {
+    CADDStore store = new CADDStore("", releaseService);
+    store.open();
+    assertFalse(store.enabled());
+    assertNull(store.get("1", 100));
+  }
+
+  @Test
+  void lookup() throws Exception {
+    try (CADDStoreBuilder.Writer writer = new CADDStoreBuilder.Writer(dir.resolve("1" + CADDStore.FILE_EXTENSION), "2024.01")) {
+      writer.add(100, "A", "C", 12.34);
+      writer.add(100, "A", "T", 0.5);
+      writer.add(100, "A", "G", 25.1);
+      writer.add(100, "A", "G", 25.1); // duplicate
+      writer.add(200, "G", "A", 3.0);
+      writer.add(200, "G", "AT", 3.0); // not a snv
+      for (int pos = 300; pos < 10300; pos++)
+        writer.add(pos, "T", "C", pos / 1000.0);
+      assertEquals(10002, writer.records());
+    }
+    // header: release as writeUTF
+    assertEquals(2 + 7 + 10002L * CADDStore.RECORD_SIZE, Files.size(dir.resolve("1" + CADDStore.FILE_EXTENSION)));
+
+    CADDStore store = new CADDStore(dir.toString(), releaseService);
+    store.open();
+    assertTrue(store.enabled());
+    assertTrue(store.contains("1"));
+    assertNull(store.get("2", 100));
+    assertEquals(List.of(), store.get("1", 150));
+    assertEquals(List.of(), store.get("1", 99999));
+
+    List<CADDPrediction> predictions = store.get("1", 100);
+    assertEquals(List.of("C", "G", "T"), predictions.stream().map(CADDPrediction::getAltAllele).collect(Collectors.toList()));
+    assertEquals(List.of(12.34, 25.1, 0.5), predictions.stream().map(CADDPrediction::getScore).collect(Collectors.toList()));
+    assertTrue(predictions.stream().allMatch(p -> p.getReferenceAllele().equals("A") && p.getPosition() == 100));
+    assertTrue(Double.isNaN(predictions.get(0).getRawScore()));
+
+    List<CADDPrediction> g = store.get("1", 200);
+    assertEquals(1, g.size());
+    assertEquals("A", g.get(0).getAltAllele());
+
+    CADDPrediction last = store.get("1", 10299).get(0);
+    assertEquals("1-10299", last.getGroupBy());
+    assertEquals(10.3, last.getScore());
+  }
+
+  @Test
+  void otherReleaseNotUsed() throws Exception {
+    try (CADDStoreBuilder.Writer writer = new CADDStoreBuilder.Writer(dir.resolve("1" + CADDStore.FILE_EXTENSION), "2023.05")) {
+      writer.add(100, "A", "C", 12.34);
+      writer.records();
+    }
+    try (CADDStoreBuilder.Writer writer = new CADDStoreBuilder.Writer(dir.resolve("2" + CADDStore.FILE_EXTENSION), "2024.01")) {
+      writer.add(100, "A", "C", 12.34);
+      writer.records();
+    }
+    CADDStore store = new CADDStore(dir.toString(), releaseService);
+    store.open();
+    assertFalse(store.contains("1"));
+    assertTrue(store.contains("2"));
+
+    when(releaseService.current()).thenReturn("2024.02");
+    store.onReleaseChanged(new ReleaseChangedEvent(this, "2024.01", "2024.02"));
+    assertFalse(store.enabled());
+  }
+
+  @Test
+  void outOfOrder() throws Exception {
+    try (CADDStoreBuilder.Writer writer = new CADDStoreBuilder.Writer(dir.resolve("X" + CADDStore.FILE_EXTENSION), "2024.01")) {
+      writer.add(200, "A", "C", 1);
+      assertThrows(IllegalStateException.class, () -> writer.add(100, "A", "C", 1));
+    }
+  }
+}
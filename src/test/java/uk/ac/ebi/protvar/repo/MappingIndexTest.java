@@ -0,0 +1,102 @@
+package uk.ac.ebi.protvar.repo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.ac.ebi.protvar.model.data.GenomeToProteinMapping;
+import uk.ac.ebi.protvar.service.ReleaseChangedEvent;
+import uk.ac.ebi.protvar.service.ReleaseService;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MappingIndexTest {
+
+  @TempDir
+  Path dir;
+
+  ReleaseService releaseService = mock(ReleaseService.class);
+
+  @BeforeEach
+  void setUp() {
+    when(releaseService.current()).thenReturn("2024.01");
+  }
+
+  @Test
+  void disabledWithoutIndex() {
+    MappingIndex index = new MappingIndex(dir.toString(), releaseService);
+    index.open();
+    assertFalse(index.enabled());
+    assertNull(index.get("1", 100));
+  }
+
+  @Test
+  void packCodon() {
+    assertEquals(-1, MappingIndex.packCodon("ANT"));
+    assertEquals(-1, MappingIndex.packCodon("AT"));
+    assertNotEquals(-1, MappingIndex.packCodon("aGt"));
+    assertNotEquals(MappingIndex.packCodon("AGT"), MappingIndex.packCodon("aGt"));
+  }
+
+  @Test
+  void lookup() throws Exception {
+    MappingIndexBuilder.Dictionary dictionary = new MappingIndexBuilder.Dictionary();
+    try (MappingIndexBuilder.Writer writer = new MappingIndexBuilder.Writer(dir.resolve("1" + MappingIndex.FILE_EXTENSION), "2024.01", dictionary)) {
+      writer.add(100, 10, "aGt", 2, MappingIndex.CANONICAL | MappingIndex.IS_MATCH,
+          "G", "S", "P12345", "ENSG1.1", "ENSP1.1", "ENST1.1", "ENSE1", null, "GENE1", "Protein 1");
+      writer.add(100, 12, "ANT", 2, MappingIndex.REVERSE_STRAND,
+          "G", "X", "P12345-2", "ENSG1.1", "ENSP2.1", "ENST2.1", "ENSE2", "PATCH", "GENE1", "Protein 1");
+      writer.add(200, 44, "Ccc", 1, 0,
+          "C", "P", "Q99999", "ENSG2.3", "ENSP3.3", "ENST3.3", "ENSE3", null, "GENE2", "Protein 2");
+      assertEquals(3, writer.records());
+    }
+    dictionary.write(dir.resolve(MappingIndex.DICTIONARY_FILE), "2024.01");
+
+    MappingIndex index = new MappingIndex(dir.toString(), releaseService);
+    index.open();
+    assertTrue(index.enabled());
+    assertNull(index.get("2", 100));
+    assertEquals(List.of(), index.get("1", 150));
+
+    List<GenomeToProteinMapping> mappings = index.get("1", 100);
+    assertEquals(2, mappings.size());
+    GenomeToProteinMapping m = mappings.get(0);
+    assertEquals("1-100", m.getGroupBy());
+    assertEquals(10, m.getIsoformPosition());
+    assertEquals("aGt", m.getCodon());
+    assertEquals(2, m.getCodonPosition());
+    assertEquals("G", m.getBaseNucleotide());
+    assertEquals("S", m.getAa());
+    assertEquals("P12345", m.getAccession());
+    assertEquals("ENSG1.1", m.getEnsg());
+    assertEquals("ENSP1.1", m.getEnsp());
+    assertEquals("ENST1.1", m.getEnst());
+    assertEquals("ENSE1", m.getEnse());
+    assertNull(m.getPatchName());
+    assertEquals("GENE1", m.getGeneName());
+    assertEquals("Protein 1", m.getProteinName());
+    assertTrue(m.isCanonical());
+    assertTrue(m.isValidRecord());
+    assertFalse(m.isReverseStrand());
+    assertFalse(m.isManeSelect());
+
+    GenomeToProteinMapping isoform = mappings.get(1);
+    assertEquals("ANT", isoform.getCodon());
+    assertEquals("PATCH", isoform.getPatchName());
+    assertTrue(isoform.isReverseStrand());
+    assertFalse(isoform.isCanonical());
+    assertSame(m.getEnsg(), isoform.getEnsg()); // shared dictionary string
+
+    assertEquals("Q99999", index.get("1", 200).get(0).getAccession());
+
+    // index of the previous release once the release changes
+    when(releaseService.current()).thenReturn("2024.02");
+    index.onReleaseChanged(new ReleaseChangedEvent(this, "2024.01", "2024.02"));
+    assertFalse(index.enabled());
+    assertNull(index.get("1", 100));
+  }
+}
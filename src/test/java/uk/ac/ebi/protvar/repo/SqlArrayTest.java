@@ -0,0 +1,45 @@
+package uk.ac.ebi.protvar.repo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
+import uk.ac.ebi.protvar.model.CoordSet;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SqlArrayTest {
+
+  @Test
+  void oneBindParameterPerArray() {
+    CoordSet set = new CoordSet();
+    for (int i = 0; i < 1000; i++)
+      set.add("P" + (i % 10), i);
+    MapSqlParameterSource params = SqlArray.coords(set);
+    String sql = NamedParameterUtils.substituteNamedParameters(VariationRepo.SELECT_VARIATION_WHERE_ACC_AND_POS_IN, params);
+    assertTrue(sql.contains("unnest(CAST(? AS text[]), CAST(? AS int[]))"), sql);
+    assertEquals(2, NamedParameterUtils.buildValueArray(VariationRepo.SELECT_VARIATION_WHERE_ACC_AND_POS_IN, params.getValues()).length);
+  }
+
+  @Test
+  void bindsTypedArrays() throws Exception {
+    Connection con = mock(Connection.class);
+    PreparedStatement ps = mock(PreparedStatement.class);
+    Array array = mock(Array.class);
+    when(ps.getConnection()).thenReturn(con);
+    when(con.createArrayOf(anyString(), any(Object[].class))).thenReturn(array);
+
+    MapSqlParameterSource params = SqlArray.coords(CoordSet.of("Q1", 5));
+    ((SqlArray) params.getValue(SqlArray.SEQS)).setTypeValue(ps, 1, MapSqlParameterSource.TYPE_UNKNOWN, null);
+    ((SqlArray) params.getValue(SqlArray.POSITIONS)).setTypeValue(ps, 2, MapSqlParameterSource.TYPE_UNKNOWN, null);
+
+    verify(con).createArrayOf("text", new Object[]{"Q1"});
+    verify(con).createArrayOf("int4", new Object[]{5});
+    verify(ps).setObject(1, array);
+    verify(ps).setObject(2, array);
+  }
+}
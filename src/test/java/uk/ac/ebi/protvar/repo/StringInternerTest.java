@@ -0,0 +1,54 @@
+package uk.ac.ebi.protvar.repo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import uk.ac.ebi.protvar.service.ReleaseChangedEvent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringInternerTest {
+
+  SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  StringInterner interner = new StringInterner(registry, 100);
+
+  @Test
+  void intern() {
+    String gene = interner.intern(new String("BRCA1"));
+    assertSame(gene, interner.intern(new String("BRCA1")));
+    assertNull(interner.intern(null));
+  }
+
+  @Test
+  void metrics() {
+    interner.intern(new String("BRCA1"));
+    interner.intern(new String("BRCA1"));
+    interner.intern(new String("TP53"));
+    assertEquals(1, registry.get("cache.gets").tag("cache", "mapping.intern").tag("result", "hit").functionCounter().count());
+    assertEquals(2, registry.get("cache.gets").tag("cache", "mapping.intern").tag("result", "miss").functionCounter().count());
+  }
+
+  @Test
+  void internVersion() {
+    String enst = interner.internVersion(new String("ENST00000357654"), new String("9"));
+    assertEquals("ENST00000357654.9", enst);
+    assertSame(enst, interner.internVersion(new String("ENST00000357654"), new String("9")));
+    assertEquals("ENST00000357654.10", interner.internVersion("ENST00000357654", "10"));
+    assertEquals("ENST00000357654.", interner.internVersion("ENST00000357654", null));
+    assertEquals(".", interner.internVersion(null, null));
+  }
+
+  @Test
+  void clearedOnReleaseChange() {
+    String gene = interner.intern(new String("BRCA1"));
+    interner.onReleaseChanged(new ReleaseChangedEvent(this, "2024.01", "2024.02"));
+    assertNotSame(gene, interner.intern(new String("BRCA1")));
+  }
+
+  @Test
+  void bounded() {
+    for (int i = 0; i < 1000; i++)
+      interner.intern("GENE" + i);
+    String gene = interner.intern(new String("BRCA1"));
+    assertSame(gene, interner.intern(new String("BRCA1")));
+  }
+}
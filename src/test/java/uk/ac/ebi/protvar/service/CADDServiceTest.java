@@ -0,0 +1,71 @@
+package uk.ac.ebi.protvar.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import uk.ac.ebi.protvar.input.processor.BuildProcessor;
+import uk.ac.ebi.protvar.model.CoordSet;
+import uk.ac.ebi.protvar.model.data.CADDPrediction;
+import uk.ac.ebi.protvar.model.response.CADDScoreResponse;
+import uk.ac.ebi.protvar.repo.ProtVarDataRepo;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class CADDServiceTest {
+
+  ProtVarDataRepo repo = mock(ProtVarDataRepo.class);
+  ObjectMapper objectMapper = new ObjectMapper();
+  CADDService caddService = new CADDService(repo, mock(BuildProcessor.class), objectMapper);
+
+  CADDServiceTest() {
+    when(repo.getCADDByChrPos(any())).thenReturn(List.of(
+      new CADDPrediction("19", 1010539, "G", "C", 1.5, 20.1),
+      new CADDPrediction("19", 1010539, "G", "T", 0.5, 10.2)));
+  }
+
+  @Test
+  void distinctPositionsQueriedOnce() {
+    List<CADDScoreResponse> responses = caddService.getScores(List.of("19 1010539", "19 1010539 G C", "chr19 1010539 G T"), "38");
+    verify(repo).getCADDByChrPos(argThat((CoordSet s) -> s.size() == 1));
+    assertEquals(3, responses.size());
+    assertEquals(2, responses.get(0).getScores().size());
+    assertEquals(20.1, responses.get(1).getScores().get(0).getScore());
+    assertEquals("T", responses.get(2).getScores().get(0).getAlt());
+  }
+
+  @Test
+  void duplicateRowsScoredOnce() {
+    when(repo.getCADDByChrPos(any())).thenReturn(List.of(
+      new CADDPrediction("19", 1010539, "G", "C", 1.5, 20.1),
+      new CADDPrediction("19", 1010539, "G", "C", 1.5, 20.1),
+      new CADDPrediction("19", 1010539, "G", "T", 0.5, 10.2),
+      new CADDPrediction("19", 1010539, "G", "T", 0.5, 10.2)));
+    List<CADDScoreResponse> responses = caddService.getScores(List.of("19 1010539", "19 1010539 G C"), "38");
+    assertEquals(List.of("C", "T"), responses.get(0).getScores().stream().map(CADDScoreResponse.Score::getAlt).collect(Collectors.toList()));
+    assertEquals(1, responses.get(1).getScores().size());
+  }
+
+  @Test
+  void nonGenomicInputsReported() {
+    List<CADDScoreResponse> responses = caddService.getScores(List.of("rs1042779", "P22304 A205P"), "38");
+    assertEquals(2, responses.size());
+    responses.forEach(r -> assertNotNull(r.getError()));
+    assertNull(responses.get(0).getScores());
+  }
+
+  @Test
+  void writtenAsNdjson() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    caddService.writeScores(List.of("19 1010539 G C", "", "19 1010539 G T"), null, out);
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, lines.length);
+    assertEquals("C", objectMapper.readValue(lines[0], CADDScoreResponse.class).getScores().get(0).getAlt());
+  }
+}
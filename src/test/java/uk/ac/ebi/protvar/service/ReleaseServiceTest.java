@@ -0,0 +1,79 @@
+package uk.ac.ebi.protvar.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReleaseServiceTest {
+
+  static final String QUERY = "SELECT release";
+
+  JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+  ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+
+  @Test
+  void releaseFromImportMetadata() {
+    when(jdbcTemplate.queryForList(QUERY, String.class)).thenReturn(List.of("2024_01-111"));
+    ReleaseService service = new ReleaseService(jdbcTemplate, publisher, "", QUERY);
+    service.init();
+    assertEquals("2024_01-111", service.current());
+
+    service.checkRelease();
+    verifyNoInteractions(publisher);
+
+    when(jdbcTemplate.queryForList(QUERY, String.class)).thenReturn(List.of("2024_02-111"));
+    service.checkRelease();
+    ArgumentCaptor<ReleaseChangedEvent> event = ArgumentCaptor.forClass(ReleaseChangedEvent.class);
+    verify(publisher).publishEvent(event.capture());
+    assertEquals("2024_01-111", event.getValue().getPreviousRelease());
+    assertEquals("2024_02-111", service.current());
+  }
+
+  @Test
+  void configuredReleaseWithoutMetadata() {
+    when(jdbcTemplate.queryForList(QUERY, String.class)).thenThrow(new DataAccessResourceFailureException("no table"));
+    ReleaseService service = new ReleaseService(jdbcTemplate, publisher, "2024.01", QUERY);
+    service.init();
+    assertEquals("2024.01", service.current());
+  }
+
+  @Test
+  void configuredReleaseWhenNoMetadataRows() {
+    when(jdbcTemplate.queryForList(QUERY, String.class)).thenReturn(List.of());
+    ReleaseService service = new ReleaseService(jdbcTemplate, publisher, "2024.01", QUERY);
+    service.init();
+    assertEquals("2024.01", service.current());
+  }
+
+  @Test
+  void queryFailureKeepsRelease() {
+    when(jdbcTemplate.queryForList(QUERY, String.class)).thenReturn(List.of("2024_01-111"));
+    ReleaseService service = new ReleaseService(jdbcTemplate, publisher, "2023.12", QUERY);
+    service.init();
+
+    when(jdbcTemplate.queryForList(QUERY, String.class)).thenThrow(new DataAccessResourceFailureException("connection reset"));
+    service.checkRelease();
+    assertEquals("2024_01-111", service.current());
+
+    doReturn(List.of("2024_01-111")).when(jdbcTemplate).queryForList(QUERY, String.class);
+    service.checkRelease();
+    verifyNoInteractions(publisher);
+  }
+
+  @Test
+  void unknownReleaseFailsStartup() {
+    when(jdbcTemplate.queryForList(QUERY, String.class)).thenReturn(List.of());
+    ReleaseService service = new ReleaseService(jdbcTemplate, publisher, "", QUERY);
+    assertThrows(IllegalStateException.class, service::init);
+    service.checkRelease();
+    verify(publisher, never()).publishEvent(any());
+  }
+}